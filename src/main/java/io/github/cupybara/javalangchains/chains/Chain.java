@@ -1,5 +1,9 @@
 package io.github.cupybara.javalangchains.chains;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Basic interface for all modular components in this repository. A
  * {@link Chain} accepts an input of type *I* and provides an output of type
@@ -21,6 +25,36 @@ public interface Chain<I, O> {
 	 */
 	O run(I input);
 
+	/**
+	 * Execute this {@link Chain} asynchronously. The default implementation runs
+	 * {@link #run(Object)} on the passed {@link Executor}. Chains which are able
+	 * to process their input without blocking a thread (HTTP based LLM chains for
+	 * example) override this method and may ignore the {@link Executor}.
+	 * 
+	 * @param input    this chain's input
+	 * @param executor the {@link Executor} used for blocking operations
+	 * @return {@link CompletableFuture} which completes with this chain's output
+	 */
+	default CompletableFuture<O> runAsync(final I input, final Executor executor) {
+		return CompletableFuture.supplyAsync(() -> run(input), executor);
+	}
+
+	/**
+	 * Execute this {@link Chain} asynchronously using the
+	 * {@link ForkJoinPool#commonPool()} for blocking operations. This variant is
+	 * only suitable for chains which do not block (or block only briefly), since
+	 * blocking calls like file or database access starve the common pool, which
+	 * is shared with parallel streams and other asynchronous tasks of the JVM.
+	 * Pass a dedicated {@link Executor} to {@link #runAsync(Object, Executor)}
+	 * for all other chains.
+	 * 
+	 * @param input this chain's input
+	 * @return {@link CompletableFuture} which completes with this chain's output
+	 */
+	default CompletableFuture<O> runAsync(final I input) {
+		return runAsync(input, ForkJoinPool.commonPool());
+	}
+
 	/**
 	 * create a new {@link Chain} connecting this instance with another passed one.
 	 * 
@@ -1,5 +1,8 @@
 package io.github.cupybara.javalangchains.chains;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * A Link Between Worlds ;-)
  *
@@ -30,6 +33,12 @@ public final class ChainLink<I, M, O> implements Chain<I, O> {
 		return output;
 	}
 
+	@Override
+	public CompletableFuture<O> runAsync(final I input, final Executor executor) {
+		return inputChain.runAsync(input, executor)
+				.thenCompose(intermediateOutput -> outputChain.runAsync(intermediateOutput, executor));
+	}
+
 	/**
 	 * @return true if this {@link ChainLink} is the first one of the whole chain
 	 */
@@ -0,0 +1,173 @@
+package io.github.cupybara.javalangchains.chains.data.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * persistent (size, last modified time, SHA-256 content hash) entries of the
+ * files read by an incremental reading chain. The manifest is stored as a text
+ * file with one tab separated line per file.
+ */
+final class FileManifest {
+
+	/**
+	 * entries by the path of the file relative to the read directory
+	 */
+	private final Map<String, Entry> entries;
+
+	private FileManifest(final Map<String, Entry> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * @param manifestPath the manifest file
+	 * @return the stored manifest or an empty manifest if the file does not exist
+	 * @throws IOException on error reading the manifest
+	 */
+	static FileManifest load(final Path manifestPath) throws IOException {
+		final Map<String, Entry> entries = new TreeMap<>();
+		if (Files.exists(manifestPath)) {
+			for (final String line : Files.readAllLines(manifestPath, StandardCharsets.UTF_8)) {
+				final String[] fields = line.split("\t", 4);
+				if (fields.length == 4) {
+					entries.put(fields[3], new Entry(Long.parseLong(fields[0]), Long.parseLong(fields[1]), fields[2]));
+				}
+			}
+		}
+		return new FileManifest(entries);
+	}
+
+	/**
+	 * @return an empty manifest
+	 */
+	static FileManifest empty() {
+		return new FileManifest(new TreeMap<>());
+	}
+
+	/**
+	 * creates the current entry for a file. The content is only hashed if the size
+	 * or the last modified time differ from the previous entry.
+	 *
+	 * @param file          the file
+	 * @param previousEntry the entry of the previous manifest or <code>null</code>
+	 * @return the current entry for the file
+	 * @throws IOException on error reading the file
+	 */
+	static Entry createEntry(final Path file, final Entry previousEntry) throws IOException {
+		final long size = Files.size(file);
+		final long lastModified = Files.getLastModifiedTime(file).toMillis();
+		if (previousEntry != null && previousEntry.size == size && previousEntry.lastModified == lastModified) {
+			return previousEntry;
+		}
+		return new Entry(size, lastModified, hash(file));
+	}
+
+	/**
+	 * @param key relative file path
+	 * @return the entry for the key or <code>null</code>
+	 */
+	synchronized Entry get(final String key) {
+		return entries.get(key);
+	}
+
+	/**
+	 * @param key   relative file path
+	 * @param entry the entry for the key
+	 */
+	synchronized void put(final String key, final Entry entry) {
+		entries.put(key, entry);
+	}
+
+	/**
+	 * @param key relative file path
+	 */
+	synchronized void remove(final String key) {
+		entries.remove(key);
+	}
+
+	/**
+	 * @return all relative file paths of this manifest
+	 */
+	synchronized Set<String> keys() {
+		return new HashSet<>(entries.keySet());
+	}
+
+	/**
+	 * atomically replaces the manifest file
+	 *
+	 * @param manifestPath the manifest file
+	 * @throws IOException on error writing the manifest
+	 */
+	synchronized void save(final Path manifestPath) throws IOException {
+		final Path absoluteManifestPath = manifestPath.toAbsolutePath();
+		Files.createDirectories(absoluteManifestPath.getParent());
+		final Path tempFile = Files.createTempFile(absoluteManifestPath.getParent(),
+				absoluteManifestPath.getFileName().toString(), ".tmp");
+		try (final Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+			for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+				writer.write(entry.getValue().size + "\t" + entry.getValue().lastModified + "\t"
+						+ entry.getValue().contentHash + "\t" + entry.getKey() + "\n");
+			}
+		}
+		Files.move(tempFile, absoluteManifestPath, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static String hash(final Path file) throws IOException {
+		final MessageDigest messageDigest;
+		try {
+			messageDigest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException noSuchAlgorithmException) {
+			throw new IllegalStateException("SHA-256 is not supported", noSuchAlgorithmException);
+		}
+
+		try (final InputStream inputStream = new DigestInputStream(Files.newInputStream(file), messageDigest)) {
+			final byte[] buffer = new byte[8192];
+			while (inputStream.read(buffer) != -1) {
+				// the digest is updated while reading
+			}
+		}
+
+		final byte[] digest = messageDigest.digest();
+		final StringBuilder contentHash = new StringBuilder(digest.length * 2);
+		for (final byte digestByte : digest) {
+			contentHash.append(String.format("%02x", digestByte));
+		}
+		return contentHash.toString();
+	}
+
+	/**
+	 * (size, last modified time, content hash) of a file
+	 */
+	static final class Entry {
+		private final long size;
+		private final long lastModified;
+		private final String contentHash;
+
+		private Entry(final long size, final long lastModified, final String contentHash) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.contentHash = contentHash;
+		}
+
+		/**
+		 * @param other another entry or <code>null</code>
+		 * @return <code>true</code> if the other entry has the same content hash
+		 */
+		boolean hasSameContent(final Entry other) {
+			return other != null && contentHash.equals(other.contentHash);
+		}
+	}
+}
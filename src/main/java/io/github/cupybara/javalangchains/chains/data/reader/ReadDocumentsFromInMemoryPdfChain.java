@@ -1,42 +1,157 @@
 package io.github.cupybara.javalangchains.chains.data.reader;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
 
 import io.github.cupybara.javalangchains.chains.data.reader.ReadDocumentsFromInMemoryPdfChain.InMemoryPdf;
 
 /**
- * Utilizes Apache PDFBox to read documents from a byte array
+ * Utilizes Apache PDFBox to read documents from pdf data in memory (see
+ * {@link InMemoryPdf})
  */
 public class ReadDocumentsFromInMemoryPdfChain extends ReadDocumentsFromPdfChainBase<InMemoryPdf> {
 
 	/**
-	 * wrapper for an in memory pdf (byte array + title)
+	 * wrapper for an in memory pdf (pdf data + title). The data can be provided as
+	 * a byte array, a {@link ByteBuffer} (like a memory mapped region of a
+	 * {@link FileChannel}) or an {@link InputStream}. Byte arrays and buffers are
+	 * passed to PDFBox without copying them.
 	 */
 	public static class InMemoryPdf {
 
 		/**
-		 * pdf data as byte array
+		 * loads the pdf data into a new {@link PDDocument}
 		 */
-		private final byte[] data;
+		@FunctionalInterface
+		private interface PdfDataLoader {
+
+			/**
+			 * @param memoryUsageSetting the {@link MemoryUsageSetting} of the chain
+			 * @return a new {@link PDDocument}
+			 * @throws IOException on error loading the pdf
+			 */
+			PDDocument load(MemoryUsageSetting memoryUsageSetting) throws IOException;
+		}
+
+		/**
+		 * loads the pdf data
+		 */
+		private final PdfDataLoader dataLoader;
+
+		/**
+		 * <code>true</code> if the data can be loaded multiple times (which is not the
+		 * case for {@link InputStream InputStreams})
+		 */
+		private final boolean reloadable;
 
 		/**
 		 * pdf document name
 		 */
 		private final String name;
 
+		private InMemoryPdf(final PdfDataLoader dataLoader, final boolean reloadable, final String name) {
+			this.dataLoader = dataLoader;
+			this.reloadable = reloadable;
+			this.name = name;
+		}
+
 		/**
-		 * @param data {@link #data}
+		 * @param data pdf data as byte array
 		 * @param name {@link #name}
 		 */
 		public InMemoryPdf(final byte[] data, final String name) {
-			this.data = data;
-			this.name = name;
+			this(memoryUsageSetting -> Loader.loadPDF(data, null, null, null, memoryUsageSetting), true, name);
+		}
+
+		/**
+		 * creates an {@link InMemoryPdf} for the remaining bytes of a buffer. The
+		 * buffer content is not copied and the position of the buffer is not changed.
+		 *
+		 * @param data pdf data (for example a {@link MappedByteBuffer})
+		 * @param name {@link #name}
+		 */
+		public InMemoryPdf(final ByteBuffer data, final String name) {
+			this(createByteBufferLoader(data.slice()), true, name);
+		}
+
+		/**
+		 * creates an {@link InMemoryPdf} for a memory mapped region of a file, so the
+		 * pdf data is paged in by the operating system instead of being copied to the
+		 * heap
+		 *
+		 * @param fileChannel the {@link FileChannel} of the pdf file
+		 * @param position    start position of the pdf data within the file
+		 * @param size        size of the pdf data
+		 * @param name        {@link #name}
+		 * @throws IOException on error mapping the file region
+		 */
+		public InMemoryPdf(final FileChannel fileChannel, final long position, final long size, final String name)
+				throws IOException {
+			this(fileChannel.map(MapMode.READ_ONLY, position, size), name);
+		}
+
+		/**
+		 * creates an {@link InMemoryPdf} for an {@link InputStream}, which is
+		 * buffered by PDFBox according to the {@link MemoryUsageSetting} of the chain.
+		 * The stream is consumed and closed when the pdf is read, so the
+		 * {@link InMemoryPdf} can only be read once and page ranges are not read in
+		 * parallel.
+		 *
+		 * @param data pdf data stream
+		 * @param name {@link #name}
+		 */
+		public InMemoryPdf(final InputStream data, final String name) {
+			this(memoryUsageSetting -> {
+				try (final InputStream inputStream = data) {
+					return Loader.loadPDF(inputStream, null, null, null, memoryUsageSetting);
+				}
+			}, false, name);
+		}
+
+		private static PdfDataLoader createByteBufferLoader(final ByteBuffer data) {
+			// each load uses its own view on the data, since PDFBox changes the buffer position
+			return memoryUsageSetting -> Loader.loadPDF(new RandomAccessReadBuffer(data.duplicate()), null, null,
+					null, memoryUsageSetting);
 		}
 	}
 
+	/**
+	 * creates a {@link ReadDocumentsFromInMemoryPdfChain}
+	 * 
+	 * @param readMode           {@link #readMode}
+	 * @param parallel           {@link #parallel}
+	 * @param memoryUsageSetting {@link #memoryUsageSetting}
+	 * @param pageRangeExecutor  {@link #pageRangeExecutor}
+	 * @param pagesPerRange      {@link #pagesPerRange}
+	 */
+	public ReadDocumentsFromInMemoryPdfChain(final PdfReadMode readMode, final boolean parallel,
+			final MemoryUsageSetting memoryUsageSetting, final Executor pageRangeExecutor, final int pagesPerRange) {
+		super(readMode, parallel, memoryUsageSetting, pageRangeExecutor, pagesPerRange);
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromInMemoryPdfChain}
+	 * 
+	 * @param readMode           {@link #readMode}
+	 * @param parallel           {@link #parallel}
+	 * @param memoryUsageSetting {@link #memoryUsageSetting}
+	 */
+	public ReadDocumentsFromInMemoryPdfChain(final PdfReadMode readMode, final boolean parallel,
+			final MemoryUsageSetting memoryUsageSetting) {
+		super(readMode, parallel, memoryUsageSetting);
+	}
+
 	/**
 	 * creates a {@link ReadDocumentsFromInMemoryPdfChain}
 	 * 
@@ -44,7 +159,7 @@ public class ReadDocumentsFromInMemoryPdfChain extends ReadDocumentsFromPdfChain
 	 * @param parallel {@link #parallel}
 	 */
 	public ReadDocumentsFromInMemoryPdfChain(final PdfReadMode readMode, final boolean parallel) {
-		super(readMode, parallel);
+		this(readMode, parallel, MemoryUsageSetting.setupMainMemoryOnly());
 	}
 
 	/**
@@ -66,6 +181,8 @@ public class ReadDocumentsFromInMemoryPdfChain extends ReadDocumentsFromPdfChain
 
 	@Override
 	protected Stream<PdDocumentWrapper> loadPdDocuments(final InMemoryPdf input) throws IOException {
-		return Stream.of(new PdDocumentWrapper(Loader.loadPDF(input.data), input.name));
+		final PdDocumentLoader pdDocumentLoader = () -> input.dataLoader.load(getMemoryUsageSetting());
+		return Stream.of(new PdDocumentWrapper(pdDocumentLoader.load(), input.name,
+				input.reloadable ? pdDocumentLoader : null));
 	}
 }
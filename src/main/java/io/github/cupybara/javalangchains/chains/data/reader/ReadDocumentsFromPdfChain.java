@@ -2,29 +2,189 @@ package io.github.cupybara.javalangchains.chains.data.reader;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.apache.logging.log4j.LogManager;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+
+import io.github.cupybara.javalangchains.util.PromptConstants;
 
 /**
- * Utilizes Apache PDFBox to read documents from a PDF or a folder of PDFs
+ * Utilizes Apache PDFBox to read documents from a PDF or a folder of PDFs.
+ * <p>
+ * If a manifest path is configured the pdfs are read incrementally: the size,
+ * last modified time and content hash of each read pdf is stored in the
+ * manifest, and only documents of new or modified pdfs are provided by
+ * subsequent runs. For each pdf which was deleted since the last run a
+ * tombstone document with {@link PromptConstants#DELETED} set to "true" is
+ * provided. All documents contain the path of their pdf relative to the read
+ * directory as {@link PromptConstants#ORIGIN}. Once all documents of a run were
+ * read, the updated manifest is pending until {@link #commitManifest()} is
+ * called, which should be done after the documents were written successfully.
+ * If writing fails, the next run reads the same pdfs again.
  */
 public class ReadDocumentsFromPdfChain extends ReadDocumentsFromPdfChainBase<Path> {
 
+	/**
+	 * the manifest file used for incremental reading. <code>null</code> if all
+	 * pdfs are read in each run.
+	 */
+	private final Path manifestPath;
+
+	/**
+	 * the manifest of the last completely read run which is saved by
+	 * {@link #commitManifest()}
+	 */
+	private final AtomicReference<FileManifest> pendingManifest = new AtomicReference<>();
+
 	/**
 	 * creates a {@link ReadDocumentsFromPdfChain}
-	 * 
+	 *
+	 * @param readMode            {@link #readMode}
+	 * @param parallel            {@link #parallel}
+	 * @param memoryUsageSetting  {@link #memoryUsageSetting}
+	 * @param pageRangeExecutor   {@link #pageRangeExecutor}
+	 * @param pagesPerRange       {@link #pagesPerRange}
+	 * @param maxOpenDocuments    {@link #maxOpenDocuments}
+	 * @param maxQueuedDocuments  {@link #maxQueuedDocuments}
+	 * @param workerThreadFactory {@link #workerThreadFactory}
+	 * @param manifestPath        {@link #manifestPath}
+	 */
+	public ReadDocumentsFromPdfChain(final PdfReadMode readMode, final boolean parallel,
+			final MemoryUsageSetting memoryUsageSetting, final Executor pageRangeExecutor, final int pagesPerRange,
+			final int maxOpenDocuments, final int maxQueuedDocuments, final ThreadFactory workerThreadFactory,
+			final Path manifestPath) {
+		super(readMode, parallel, memoryUsageSetting, pageRangeExecutor, pagesPerRange, maxOpenDocuments,
+				maxQueuedDocuments, workerThreadFactory);
+		this.manifestPath = manifestPath;
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromPdfChain} which reads the pdfs using
+	 * daemon worker threads
+	 *
+	 * @param readMode           {@link #readMode}
+	 * @param parallel           {@link #parallel}
+	 * @param memoryUsageSetting {@link #memoryUsageSetting}
+	 * @param pageRangeExecutor  {@link #pageRangeExecutor}
+	 * @param pagesPerRange      {@link #pagesPerRange}
+	 * @param maxOpenDocuments   {@link #maxOpenDocuments}
+	 * @param maxQueuedDocuments {@link #maxQueuedDocuments}
+	 * @param manifestPath       {@link #manifestPath}
+	 */
+	public ReadDocumentsFromPdfChain(final PdfReadMode readMode, final boolean parallel,
+			final MemoryUsageSetting memoryUsageSetting, final Executor pageRangeExecutor, final int pagesPerRange,
+			final int maxOpenDocuments, final int maxQueuedDocuments, final Path manifestPath) {
+		this(readMode, parallel, memoryUsageSetting, pageRangeExecutor, pagesPerRange, maxOpenDocuments,
+				maxQueuedDocuments, createWorkerThreadFactory(), manifestPath);
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromPdfChain}
+	 *
+	 * @param readMode           {@link #readMode}
+	 * @param parallel           {@link #parallel}
+	 * @param memoryUsageSetting {@link #memoryUsageSetting}
+	 * @param pageRangeExecutor  {@link #pageRangeExecutor}
+	 * @param pagesPerRange      {@link #pagesPerRange}
+	 * @param manifestPath       {@link #manifestPath}
+	 */
+	public ReadDocumentsFromPdfChain(final PdfReadMode readMode, final boolean parallel,
+			final MemoryUsageSetting memoryUsageSetting, final Executor pageRangeExecutor, final int pagesPerRange,
+			final Path manifestPath) {
+		this(readMode, parallel, memoryUsageSetting, pageRangeExecutor, pagesPerRange, 0, 0, manifestPath);
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromPdfChain} which reads the pdfs using
+	 * maxOpenDocuments worker threads. The page ranges of
+	 * {@link PdfReadMode#PAGE_RANGES} mode are read sequentially.
+	 *
+	 * @param readMode           {@link #readMode}
+	 * @param memoryUsageSetting {@link #memoryUsageSetting}
+	 * @param maxOpenDocuments   {@link #maxOpenDocuments}
+	 * @param maxQueuedDocuments {@link #maxQueuedDocuments}
+	 */
+	public ReadDocumentsFromPdfChain(final PdfReadMode readMode, final MemoryUsageSetting memoryUsageSetting,
+			final int maxOpenDocuments, final int maxQueuedDocuments) {
+		this(readMode, false, memoryUsageSetting, null, 16, maxOpenDocuments,
+				maxQueuedDocuments, null);
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromPdfChain}
+	 *
+	 * @param readMode           {@link #readMode}
+	 * @param parallel           {@link #parallel}
+	 * @param memoryUsageSetting {@link #memoryUsageSetting}
+	 * @param pageRangeExecutor  {@link #pageRangeExecutor}
+	 * @param pagesPerRange      {@link #pagesPerRange}
+	 */
+	public ReadDocumentsFromPdfChain(final PdfReadMode readMode, final boolean parallel,
+			final MemoryUsageSetting memoryUsageSetting, final Executor pageRangeExecutor, final int pagesPerRange) {
+		this(readMode, parallel, memoryUsageSetting, pageRangeExecutor, pagesPerRange, null);
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromPdfChain}
+	 *
+	 * @param readMode           {@link #readMode}
+	 * @param parallel           {@link #parallel}
+	 * @param memoryUsageSetting {@link #memoryUsageSetting}
+	 */
+	public ReadDocumentsFromPdfChain(final PdfReadMode readMode, final boolean parallel,
+			final MemoryUsageSetting memoryUsageSetting) {
+		super(readMode, parallel, memoryUsageSetting);
+		this.manifestPath = null;
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromPdfChain} which reads pdfs incrementally
+	 *
+	 * @param readMode     {@link #readMode}
+	 * @param parallel     {@link #parallel}
+	 * @param manifestPath {@link #manifestPath}
+	 */
+	public ReadDocumentsFromPdfChain(final PdfReadMode readMode, final boolean parallel, final Path manifestPath) {
+		super(readMode, parallel);
+		this.manifestPath = manifestPath;
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromPdfChain}
+	 *
 	 * @param readMode {@link #readMode}
 	 * @param parallel {@link #parallel}
 	 */
 	public ReadDocumentsFromPdfChain(final PdfReadMode readMode, final boolean parallel) {
-		super(readMode, parallel);
+		this(readMode, parallel, MemoryUsageSetting.setupMainMemoryOnly());
 	}
 
 	/**
 	 * creates a {@link ReadDocumentsFromPdfChain}
-	 * 
+	 *
 	 * @param readMode {@link #readMode}
 	 */
 	public ReadDocumentsFromPdfChain(final PdfReadMode readMode) {
@@ -39,15 +199,229 @@ public class ReadDocumentsFromPdfChain extends ReadDocumentsFromPdfChainBase<Pat
 		this(PdfReadMode.WHOLE);
 	}
 
+	@Override
+	public Stream<Map<String, String>> run(final Path input) {
+		if (manifestPath == null) {
+			return super.run(input);
+		}
+
+		try {
+			return readIncrementally(input);
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("error reading pdfs incrementally from " + input, ioException);
+		}
+	}
+
+	/**
+	 * saves the manifest of the last completely read run, so the read pdfs are
+	 * skipped by subsequent runs. Should be called once the read documents were
+	 * written successfully.
+	 * 
+	 * @return <code>true</code> if a pending manifest was saved
+	 */
+	public boolean commitManifest() {
+		final FileManifest manifest = pendingManifest.getAndSet(null);
+		if (manifest == null) {
+			return false;
+		}
+
+		try {
+			manifest.save(manifestPath);
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("could not save manifest " + manifestPath, ioException);
+		}
+		return true;
+	}
+
 	@Override
 	protected Stream<PdDocumentWrapper> loadPdDocuments(final Path input) throws IOException {
-		return Files.walk(input).filter(Files::isRegularFile)
-				.filter(path -> path.toString().toLowerCase().endsWith(".pdf")).map(path -> {
-					try {
-						return new PdDocumentWrapper(Loader.loadPDF(path.toFile()), path.getFileName().toString());
-					} catch (final IOException ioException) {
-						throw new IllegalStateException("could not read document from " + path);
-					}
-				});
+		return walkPdfs(input).map(this::loadPdDocument);
+	}
+
+	@Override
+	protected Stream<Supplier<PdDocumentWrapper>> loadPdDocumentsLazily(final Path input) throws IOException {
+		return walkPdfs(input).map(path -> () -> loadPdDocument(path));
+	}
+
+	/**
+	 * @return the paths of all pdfs in the input directory, which is walked
+	 *         lazily while the stream is consumed. The entries of each directory
+	 *         are visited in sorted order.
+	 */
+	private static Stream<Path> walkPdfs(final Path input) {
+		return StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(new PdfPathIterator(input), Spliterator.ORDERED | Spliterator.NONNULL),
+				false);
+	}
+
+	/**
+	 * @return the sorted paths of all pdfs in the input directory
+	 */
+	private static List<Path> listPdfs(final Path input) {
+		return walkPdfs(input).collect(Collectors.toList());
+	}
+
+	private static boolean isPdf(final Path path) {
+		return Files.isRegularFile(path) && path.toString().toLowerCase().endsWith(".pdf");
+	}
+
+	private PdDocumentWrapper loadPdDocument(final Path path) {
+		final PdDocumentLoader pdDocumentLoader = () -> Loader.loadPDF(path.toFile(), getMemoryUsageSetting());
+		try {
+			return new PdDocumentWrapper(pdDocumentLoader.load(), path.getFileName().toString(), pdDocumentLoader);
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("could not read document from " + path);
+		}
+	}
+
+	private Stream<Map<String, String>> readIncrementally(final Path input) throws IOException {
+		final FileManifest manifest = FileManifest.load(manifestPath);
+
+		final Set<String> deletedOrigins = manifest.keys();
+		final List<ChangedPdf> changedPdfs = new ArrayList<>();
+
+		for (final Path pdf : listPdfs(input)) {
+			final String origin = getOrigin(input, pdf);
+			deletedOrigins.remove(origin);
+
+			final FileManifest.Entry previousEntry = manifest.get(origin);
+			final FileManifest.Entry entry = FileManifest.createEntry(pdf, previousEntry);
+			if (entry.hasSameContent(previousEntry)) {
+				// only the size or last modified time might have changed
+				manifest.put(origin, entry);
+			} else {
+				changedPdfs.add(new ChangedPdf(pdf, origin, entry));
+			}
+		}
+
+		LogManager.getLogger(getClass()).info("{} new or modified and {} deleted pdfs in {}", changedPdfs.size(),
+				deletedOrigins.size(), input);
+
+		final AtomicInteger pendingPdfs = new AtomicInteger(changedPdfs.size() + deletedOrigins.size());
+		if (pendingPdfs.get() == 0) {
+			pendingManifest.set(manifest);
+			return Stream.empty();
+		}
+
+		final Runnable completePdf = () -> {
+			if (pendingPdfs.decrementAndGet() == 0) {
+				pendingManifest.set(manifest);
+			}
+		};
+
+		final Stream<Supplier<Stream<Map<String, String>>>> tombstoneReaders = deletedOrigins.stream().sorted()
+				.map(origin -> () -> Stream.concat(Stream.of(createTombstone(origin)), afterwards(() -> {
+					manifest.remove(origin);
+					completePdf.run();
+				})));
+
+		final Stream<Supplier<Stream<Map<String, String>>>> pdfReaders = changedPdfs.stream()
+				.map(changedPdf -> () -> Stream
+						.concat(readPdDocument(loadPdDocument(changedPdf.pdf)).map(document -> {
+							document.put(PromptConstants.ORIGIN, changedPdf.origin);
+							return document;
+						}), afterwards(() -> {
+							manifest.put(changedPdf.origin, changedPdf.entry);
+							completePdf.run();
+						})));
+
+		return readPdfs(Stream.concat(tombstoneReaders, pdfReaders));
+	}
+
+	private static String getOrigin(final Path input, final Path pdf) {
+		return Files.isDirectory(input) ? input.relativize(pdf).toString() : pdf.getFileName().toString();
+	}
+
+	private static Map<String, String> createTombstone(final String origin) {
+		final Map<String, String> tombstone = new LinkedHashMap<>();
+		tombstone.put(PromptConstants.CONTENT, "");
+		tombstone.put(PromptConstants.SOURCE, Paths.get(origin).getFileName().toString());
+		tombstone.put(PromptConstants.ORIGIN, origin);
+		tombstone.put(PromptConstants.DELETED, "true");
+		return tombstone;
+	}
+
+	/**
+	 * @param action action which is executed when the returned stream is traversed
+	 * @return empty stream which executes the passed action
+	 */
+	private static Stream<Map<String, String>> afterwards(final Runnable action) {
+		return Stream.of(action).flatMap(runnable -> {
+			runnable.run();
+			return Stream.empty();
+		});
+	}
+
+	/**
+	 * walks a directory depth first without following symbolic links to
+	 * directories. Only the sorted entries of the directories on the current path
+	 * are held in memory.
+	 */
+	private static final class PdfPathIterator implements Iterator<Path> {
+
+		private final Deque<Iterator<Path>> directories = new ArrayDeque<>();
+		private Path nextPdf;
+
+		private PdfPathIterator(final Path input) {
+			if (Files.isDirectory(input)) {
+				directories.push(listDirectory(input));
+			} else if (isPdf(input)) {
+				nextPdf = input;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (nextPdf == null && !directories.isEmpty()) {
+				final Iterator<Path> entries = directories.peek();
+				if (!entries.hasNext()) {
+					directories.pop();
+					continue;
+				}
+
+				final Path entry = entries.next();
+				// symbolic links to directories are not followed like in Files#walk, so
+				// links to a parent directory do not cause an endless walk
+				if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+					directories.push(listDirectory(entry));
+				} else if (isPdf(entry)) {
+					nextPdf = entry;
+				}
+			}
+			return nextPdf != null;
+		}
+
+		@Override
+		public Path next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No more pdfs");
+			}
+			final Path pdf = nextPdf;
+			nextPdf = null;
+			return pdf;
+		}
+
+		private static Iterator<Path> listDirectory(final Path directory) {
+			try (final Stream<Path> entries = Files.list(directory)) {
+				return entries.sorted().collect(Collectors.toList()).iterator();
+			} catch (final IOException ioException) {
+				throw new IllegalStateException("could not list directory " + directory, ioException);
+			}
+		}
+	}
+
+	/**
+	 * a new or modified pdf with its new manifest entry
+	 */
+	private static final class ChangedPdf {
+		private final Path pdf;
+		private final String origin;
+		private final FileManifest.Entry entry;
+
+		private ChangedPdf(final Path pdf, final String origin, final FileManifest.Entry entry) {
+			this.pdf = pdf;
+			this.origin = origin;
+			this.entry = entry;
+		}
 	}
 }
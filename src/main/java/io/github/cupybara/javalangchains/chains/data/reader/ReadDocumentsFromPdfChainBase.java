@@ -1,13 +1,33 @@
 package io.github.cupybara.javalangchains.chains.data.reader;
 
 import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.lang.ref.Cleaner.Cleanable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.logging.log4j.LogManager;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 
@@ -32,9 +52,35 @@ public abstract class ReadDocumentsFromPdfChainBase<I> implements Chain<I, Strea
 
 		/**
 		 * Reads each document page by page: provides a list of documents for each
-		 * document and adds "p. ${pageIndex}" to each "source" field
+		 * document and adds "p. ${pageIndex}" to each "source" field. Pages are read
+		 * lazily while the resulting stream is consumed, so this mode should be used
+		 * for very large documents.
 		 */
-		PAGES;
+		PAGES,
+
+		/**
+		 * Reads each document page by page like {@link #PAGES}, but splits each
+		 * document into ranges of pages which are read in parallel. Each range is read
+		 * from its own {@link PDDocument} instance (loaded again from the source) by
+		 * its own {@link PDFTextStripper}, so no PDFBox objects are shared between
+		 * threads. The pages are provided in page order. If no page range executor is
+		 * configured the ranges are read sequentially.
+		 */
+		PAGE_RANGES;
+	}
+
+	/**
+	 * loads a new {@link PDDocument} instance from the source of a
+	 * {@link PdDocumentWrapper}
+	 */
+	@FunctionalInterface
+	protected interface PdDocumentLoader {
+
+		/**
+		 * @return a new {@link PDDocument} instance
+		 * @throws IOException on error loading the pdf
+		 */
+		PDDocument load() throws IOException;
 	}
 
 	/**
@@ -44,18 +90,44 @@ public abstract class ReadDocumentsFromPdfChainBase<I> implements Chain<I, Strea
 		private final PDDocument pdDocument;
 		private final String pdDocumentName;
 
+		/**
+		 * loads further instances of the document for reading page ranges in parallel.
+		 * <code>null</code> if the document cannot be loaded again.
+		 */
+		private final PdDocumentLoader pdDocumentLoader;
+
 		/**
 		 * creates an instance of PdDocumentWrapper
 		 * 
+		 * @param pdDocument       {@link #pdDocument}
+		 * @param pdDocumentName   {@link #pdDocumentName}
+		 * @param pdDocumentLoader {@link #pdDocumentLoader}
+		 */
+		protected PdDocumentWrapper(final PDDocument pdDocument, final String pdDocumentName,
+				final PdDocumentLoader pdDocumentLoader) {
+			this.pdDocument = pdDocument;
+			this.pdDocumentName = pdDocumentName;
+			this.pdDocumentLoader = pdDocumentLoader;
+		}
+
+		/**
+		 * creates an instance of PdDocumentWrapper for a document which cannot be
+		 * loaded again, so all pages are read from the passed pdDocument
+		 * 
 		 * @param pdDocument     {@link #pdDocument}
 		 * @param pdDocumentName {@link #pdDocumentName}
 		 */
 		protected PdDocumentWrapper(final PDDocument pdDocument, final String pdDocumentName) {
-			this.pdDocument = pdDocument;
-			this.pdDocumentName = pdDocumentName;
+			this(pdDocument, pdDocumentName, null);
 		}
 	}
 
+	/**
+	 * stops the workers of bounded document iterators which became unreachable
+	 * without being closed
+	 */
+	private static final Cleaner WORKER_CLEANER = Cleaner.create();
+
 	/**
 	 * @see PdfReadMode
 	 */
@@ -66,15 +138,155 @@ public abstract class ReadDocumentsFromPdfChainBase<I> implements Chain<I, Strea
 	 */
 	private final boolean parallel;
 
+	/**
+	 * the {@link MemoryUsageSetting} used for loading documents. If it allows the
+	 * usage of temp files (memory bounded reading) the resource cache of each
+	 * document is disabled, so page resources like fonts and images are released
+	 * after each page.
+	 */
+	private final MemoryUsageSetting memoryUsageSetting;
+
+	/**
+	 * the {@link Executor} used for reading page ranges in
+	 * {@link PdfReadMode#PAGE_RANGES} mode. <code>null</code> if the page ranges
+	 * are read sequentially by the reading thread.
+	 */
+	private final Executor pageRangeExecutor;
+
+	/**
+	 * amount of pages of each page range in {@link PdfReadMode#PAGE_RANGES} mode
+	 */
+	private final int pagesPerRange;
+
+	/**
+	 * max amount of concurrently open documents. If positive, the pdfs are read by
+	 * this amount of worker threads which provide their documents through a
+	 * bounded queue, so reading blocks when the consumer of the resulting stream is
+	 * slower than the workers (the {@link #parallel} flag is ignored then). The
+	 * resulting stream must be closed if it is not consumed completely. 0 if the
+	 * pdfs are read by the stream pipeline.
+	 */
+	private final int maxOpenDocuments;
+
+	/**
+	 * max amount of read documents (or pages) which are queued for the consumer if
+	 * {@link #maxOpenDocuments} is positive
+	 */
+	private final int maxQueuedDocuments;
+
+	/**
+	 * creates the worker threads if {@link #maxOpenDocuments} is positive
+	 */
+	private final ThreadFactory workerThreadFactory;
+
 	/**
 	 * creates a {@link ReadDocumentsFromPdfChainBase}
 	 * 
+	 * @param readMode           {@link #readMode}
+	 * @param parallel           {@link #parallel}
+	 * @param memoryUsageSetting {@link #memoryUsageSetting}
+	 * @param pageRangeExecutor  {@link #pageRangeExecutor}
+	 * @param pagesPerRange      {@link #pagesPerRange}
+	 * @param maxOpenDocuments    {@link #maxOpenDocuments}
+	 * @param maxQueuedDocuments  {@link #maxQueuedDocuments}
+	 * @param workerThreadFactory {@link #workerThreadFactory}
+	 */
+	protected ReadDocumentsFromPdfChainBase(final PdfReadMode readMode, final boolean parallel,
+			final MemoryUsageSetting memoryUsageSetting, final Executor pageRangeExecutor, final int pagesPerRange,
+			final int maxOpenDocuments, final int maxQueuedDocuments, final ThreadFactory workerThreadFactory) {
+		if (pagesPerRange <= 0) {
+			throw new IllegalArgumentException("pagesPerRange must be positive");
+		}
+		if (maxOpenDocuments < 0 || (maxOpenDocuments > 0 && maxQueuedDocuments <= 0)) {
+			throw new IllegalArgumentException("maxOpenDocuments must not be negative and maxQueuedDocuments must be "
+					+ "positive if maxOpenDocuments is positive");
+		}
+		this.readMode = readMode;
+		this.parallel = parallel;
+		this.memoryUsageSetting = memoryUsageSetting;
+		this.pageRangeExecutor = pageRangeExecutor;
+		this.pagesPerRange = pagesPerRange;
+		this.maxOpenDocuments = maxOpenDocuments;
+		this.maxQueuedDocuments = maxQueuedDocuments;
+		this.workerThreadFactory = workerThreadFactory;
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromPdfChainBase} which reads the pdfs using
+	 * daemon worker threads
+	 * 
+	 * @param readMode           {@link #readMode}
+	 * @param parallel           {@link #parallel}
+	 * @param memoryUsageSetting {@link #memoryUsageSetting}
+	 * @param pageRangeExecutor  {@link #pageRangeExecutor}
+	 * @param pagesPerRange      {@link #pagesPerRange}
+	 * @param maxOpenDocuments   {@link #maxOpenDocuments}
+	 * @param maxQueuedDocuments {@link #maxQueuedDocuments}
+	 */
+	protected ReadDocumentsFromPdfChainBase(final PdfReadMode readMode, final boolean parallel,
+			final MemoryUsageSetting memoryUsageSetting, final Executor pageRangeExecutor, final int pagesPerRange,
+			final int maxOpenDocuments, final int maxQueuedDocuments) {
+		this(readMode, parallel, memoryUsageSetting, pageRangeExecutor, pagesPerRange, maxOpenDocuments,
+				maxQueuedDocuments, createWorkerThreadFactory());
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromPdfChainBase} which reads the pdfs using
+	 * the stream pipeline
+	 * 
+	 * @param readMode           {@link #readMode}
+	 * @param parallel           {@link #parallel}
+	 * @param memoryUsageSetting {@link #memoryUsageSetting}
+	 * @param pageRangeExecutor  {@link #pageRangeExecutor}
+	 * @param pagesPerRange      {@link #pagesPerRange}
+	 */
+	protected ReadDocumentsFromPdfChainBase(final PdfReadMode readMode, final boolean parallel,
+			final MemoryUsageSetting memoryUsageSetting, final Executor pageRangeExecutor, final int pagesPerRange) {
+		this(readMode, parallel, memoryUsageSetting, pageRangeExecutor, pagesPerRange, 0, 0);
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromPdfChainBase} which reads the page ranges
+	 * of {@link PdfReadMode#PAGE_RANGES} mode sequentially
+	 * 
+	 * @param readMode           {@link #readMode}
+	 * @param parallel           {@link #parallel}
+	 * @param memoryUsageSetting {@link #memoryUsageSetting}
+	 */
+	protected ReadDocumentsFromPdfChainBase(final PdfReadMode readMode, final boolean parallel,
+			final MemoryUsageSetting memoryUsageSetting) {
+		this(readMode, parallel, memoryUsageSetting, null, 16);
+	}
+
+	/**
+	 * creates a {@link ReadDocumentsFromPdfChainBase} which loads documents into
+	 * main memory
+	 * 
 	 * @param readMode {@link #readMode}
 	 * @param parallel {@link #parallel}
 	 */
 	protected ReadDocumentsFromPdfChainBase(final PdfReadMode readMode, final boolean parallel) {
-		this.readMode = readMode;
-		this.parallel = parallel;
+		this(readMode, parallel, MemoryUsageSetting.setupMainMemoryOnly());
+	}
+
+	/**
+	 * @return a {@link ThreadFactory} which creates daemon threads named
+	 *         "pdf-reader-N"
+	 */
+	protected static ThreadFactory createWorkerThreadFactory() {
+		final AtomicInteger threadCount = new AtomicInteger();
+		return runnable -> {
+			final Thread thread = new Thread(runnable, "pdf-reader-" + threadCount.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * @return {@link #memoryUsageSetting}
+	 */
+	protected final MemoryUsageSetting getMemoryUsageSetting() {
+		return memoryUsageSetting;
 	}
 
 	/**
@@ -87,44 +299,214 @@ public abstract class ReadDocumentsFromPdfChainBase<I> implements Chain<I, Strea
 	 */
 	protected abstract Stream<PdDocumentWrapper> loadPdDocuments(I input) throws IOException;
 
+	/**
+	 * provides loaders for the pdfs of an input instance, so the pdfs can be
+	 * loaded by the threads which read them. The default implementation loads the
+	 * pdfs using {@link #loadPdDocuments(Object)}.
+	 * 
+	 * @param input input instance
+	 * @return a {@link Supplier} which loads the pdf for each pdf of the input
+	 * 
+	 * @throws IOException on error listing the pdfs
+	 */
+	protected Stream<Supplier<PdDocumentWrapper>> loadPdDocumentsLazily(final I input) throws IOException {
+		return loadPdDocuments(input).map(pdDocumentWrapper -> () -> pdDocumentWrapper);
+	}
+
 	@Override
 	public Stream<Map<String, String>> run(final I input) {
-		final Stream<Map<String, String>> documents;
-
 		try {
-			documents = loadPdDocuments(input).flatMap(this::createDocumentFromPdDocumentWrapper);
+			return readPdfs(loadPdDocumentsLazily(input)
+					.map(pdDocumentLoader -> () -> readPdDocument(pdDocumentLoader.get())));
 		} catch (final IOException ioException) {
 			throw new IllegalStateException("error loading pdf for input " + input, ioException);
 		}
+	}
+
+	/**
+	 * reads pdfs either using the stream pipeline or using
+	 * {@link #maxOpenDocuments} worker threads
+	 * 
+	 * @param pdfReaders provide the documents of one pdf each
+	 * @return the read documents
+	 */
+	protected final Stream<Map<String, String>> readPdfs(
+			final Stream<Supplier<Stream<Map<String, String>>>> pdfReaders) {
+		if (maxOpenDocuments > 0) {
+			final BoundedDocumentIterator documents = new BoundedDocumentIterator(pdfReaders.iterator());
+			return StreamSupport
+					.stream(Spliterators.spliteratorUnknownSize(documents, Spliterator.NONNULL), false)
+					.onClose(documents::close);
+		}
 
 		if (parallel) {
-			return documents.parallel();
+			return pdfReaders.flatMap(Supplier::get).parallel();
 		}
 
-		return documents;
+		// Stream#iterator() (used by most consuming chains) pushes all documents of a
+		// flatMap inner stream into a buffer at once, which would read all pages of
+		// a pdf before the first page is consumed
+		final PdfDocumentSpliterator documents = new PdfDocumentSpliterator(pdfReaders.iterator());
+		return StreamSupport.stream(documents, false).onClose(documents::close).onClose(pdfReaders::close);
+	}
+
+	/**
+	 * reads the documents (or pages) of a loaded pdf according to the
+	 * {@link #readMode}
+	 * 
+	 * @param pdDocumentWrapper the loaded pdf
+	 * @return the read documents. The pdf is closed when the stream is closed.
+	 */
+	protected final Stream<Map<String, String>> readPdDocument(final PdDocumentWrapper pdDocumentWrapper) {
+		return createDocumentFromPdDocumentWrapper(pdDocumentWrapper);
 	}
 
 	private Stream<Map<String, String>> createDocumentFromPdDocumentWrapper(final PdDocumentWrapper pdDocumentWrapper) {
-		try {
-			switch (readMode) {
-			case WHOLE:
+		if (memoryUsageSetting.useTempFile()) {
+			pdDocumentWrapper.pdDocument.setResourceCache(null);
+		}
+
+		switch (readMode) {
+		case WHOLE:
+			try {
 				return Stream.of(createDocumentFromWholePdf(pdDocumentWrapper));
-			case PAGES:
-				return createDocumentsFromPdfPages(pdDocumentWrapper).stream();
-			default:
-				throw new IllegalStateException("unsupported readMode " + readMode);
+			} catch (final IOException innerIoException) {
+				throw new IllegalStateException("could not create documents", innerIoException);
+			} finally {
+				closePdDocument(pdDocumentWrapper);
 			}
-		} catch (final IOException innerIoException) {
-			throw new IllegalStateException("could not create documents", innerIoException);
-		} finally {
+		case PAGES:
+			// the document is closed when the stream is closed by its consumer
+			return StreamSupport
+					.stream(Spliterators.spliteratorUnknownSize(new PageIterator(pdDocumentWrapper),
+							Spliterator.ORDERED | Spliterator.NONNULL), false)
+					.onClose(() -> closePdDocument(pdDocumentWrapper));
+		case PAGE_RANGES:
 			try {
-				pdDocumentWrapper.pdDocument.close();
-			} catch (final IOException ioException) {
-				throw new IllegalStateException("could not close PDDocument", ioException);
+				return readPageRanges(pdDocumentWrapper).stream();
+			} finally {
+				closePdDocument(pdDocumentWrapper);
 			}
+		default:
+			closePdDocument(pdDocumentWrapper);
+			throw new IllegalStateException("unsupported readMode " + readMode);
 		}
 	}
 
+	private void closePdDocument(final PdDocumentWrapper pdDocumentWrapper) {
+		closePdDocument(pdDocumentWrapper.pdDocument);
+	}
+
+	private static void closePdDocument(final PDDocument pdDocument) {
+		try {
+			pdDocument.close();
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("could not close PDDocument", ioException);
+		}
+	}
+
+	private List<Map<String, String>> readPageRanges(final PdDocumentWrapper pdDocumentWrapper) {
+		final int numberOfPages = pdDocumentWrapper.pdDocument.getNumberOfPages();
+		if (pageRangeExecutor == null || pdDocumentWrapper.pdDocumentLoader == null
+				|| numberOfPages <= pagesPerRange) {
+			return readPageRange(pdDocumentWrapper.pdDocument, pdDocumentWrapper.pdDocumentName, 0, numberOfPages);
+		}
+
+		final List<FutureTask<List<Map<String, String>>>> pageRanges = new ArrayList<>();
+		try {
+			for (int startIndex = pagesPerRange; startIndex < numberOfPages; startIndex += pagesPerRange) {
+				final int rangeStartIndex = startIndex;
+				final int rangeEndIndex = Math.min(startIndex + pagesPerRange, numberOfPages);
+				final FutureTask<List<Map<String, String>>> pageRange = new FutureTask<>(
+						() -> readLoadedPageRange(pdDocumentWrapper, rangeStartIndex, rangeEndIndex));
+				pageRanges.add(pageRange);
+				pageRangeExecutor.execute(pageRange);
+			}
+
+			// the first range is read from the already loaded document by the current thread
+			final List<Map<String, String>> pages = new ArrayList<>(numberOfPages);
+			pages.addAll(
+					readPageRange(pdDocumentWrapper.pdDocument, pdDocumentWrapper.pdDocumentName, 0, pagesPerRange));
+
+			for (final Future<List<Map<String, String>>> pageRange : pageRanges) {
+				try {
+					pages.addAll(pageRange.get());
+				} catch (final ExecutionException executionException) {
+					throw new IllegalStateException("error reading page range of " + pdDocumentWrapper.pdDocumentName,
+							executionException.getCause());
+				} catch (final InterruptedException interruptedException) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("interrupted while reading " + pdDocumentWrapper.pdDocumentName,
+							interruptedException);
+				}
+			}
+			return pages;
+		} finally {
+			// no-op if all ranges were read, otherwise the outstanding ranges are not
+			// needed anymore
+			pageRanges.forEach(pageRange -> pageRange.cancel(true));
+		}
+	}
+
+	private List<Map<String, String>> readLoadedPageRange(final PdDocumentWrapper pdDocumentWrapper,
+			final int startIndex, final int endIndex) {
+		final PDDocument pdDocument;
+		try {
+			pdDocument = pdDocumentWrapper.pdDocumentLoader.load();
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("could not load " + pdDocumentWrapper.pdDocumentName, ioException);
+		}
+
+		try {
+			if (memoryUsageSetting.useTempFile()) {
+				pdDocument.setResourceCache(null);
+			}
+			return readPageRange(pdDocument, pdDocumentWrapper.pdDocumentName, startIndex, endIndex);
+		} finally {
+			closePdDocument(pdDocument);
+		}
+	}
+
+	private static List<Map<String, String>> readPageRange(final PDDocument pdDocument, final String pdDocumentName,
+			final int startIndex, final int endIndex) {
+		final PDFTextStripper textStripper = createTextStripper();
+		final List<Map<String, String>> pages = new ArrayList<>(endIndex - startIndex);
+		for (int pageIndex = startIndex; pageIndex < endIndex; pageIndex++) {
+			pages.add(readPage(textStripper, pdDocument, pdDocumentName, pageIndex));
+		}
+		return pages;
+	}
+
+	private static PDFTextStripper createTextStripper() {
+		try {
+			return new PDFTextStripper();
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("could not create PDFTextStripper", ioException);
+		}
+	}
+
+	private static Map<String, String> readPage(final PDFTextStripper textStripper, final PDDocument pdDocument,
+			final String pdDocumentName, final int pageIndex) {
+		final int pageNumber = pageIndex + 1;
+		textStripper.setStartPage(pageNumber);
+		textStripper.setEndPage(pageNumber);
+
+		final String pageContent;
+		try {
+			pageContent = textStripper.getText(pdDocument);
+		} catch (final IOException innerIoException) {
+			throw new IllegalStateException("error reading page with index " + pageIndex, innerIoException);
+		}
+
+		final Map<String, String> pageDocument = new LinkedHashMap<>();
+		pageDocument.put(PromptConstants.CONTENT, pageContent);
+		pageDocument.put(PromptConstants.SOURCE, String.format("%s p.%d", pdDocumentName, pageNumber));
+
+		LogManager.getLogger().info("successfully read page {} of document {}", pageNumber, pdDocumentName);
+
+		return pageDocument;
+	}
+
 	private Map<String, String> createDocumentFromWholePdf(final PdDocumentWrapper pdDocumentWrapper)
 			throws IOException {
 
@@ -141,35 +523,229 @@ public abstract class ReadDocumentsFromPdfChainBase<I> implements Chain<I, Strea
 		return document;
 	}
 
-	private List<Map<String, String>> createDocumentsFromPdfPages(final PdDocumentWrapper pdDocumentWrapper)
-			throws IOException {
-		final PDFTextStripper textStripper = new PDFTextStripper();
+	/**
+	 * lazily reads the pages of a document
+	 */
+	private final class PageIterator implements Iterator<Map<String, String>> {
+
+		private final PdDocumentWrapper pdDocumentWrapper;
+		private final PDFTextStripper textStripper;
+		private final int numberOfPages;
+		private int pageIndex;
 
-		final List<Map<String, String>> documents = new LinkedList<>();
-		for (int pageIndex = 0; pageIndex < pdDocumentWrapper.pdDocument.getNumberOfPages(); pageIndex++) {
-			textStripper.setStartPage(pageIndex + 1);
-			textStripper.setEndPage(pageIndex + 1);
+		private PageIterator(final PdDocumentWrapper pdDocumentWrapper) {
+			this.pdDocumentWrapper = pdDocumentWrapper;
+			this.numberOfPages = pdDocumentWrapper.pdDocument.getNumberOfPages();
+			this.textStripper = createTextStripper();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return pageIndex < numberOfPages;
+		}
 
-			final String pageContent;
+		@Override
+		public Map<String, String> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No more pages");
+			}
+
+			return readPage(textStripper, pdDocumentWrapper.pdDocument, pdDocumentWrapper.pdDocumentName, pageIndex++);
+		}
+	}
+
+	/**
+	 * flattens the document streams of the pdfs. The document stream of a pdf is
+	 * created when its first document is requested and closed when it is
+	 * exhausted, so only one pdf is open at once.
+	 */
+	private static final class PdfDocumentSpliterator extends Spliterators.AbstractSpliterator<Map<String, String>> {
+
+		private final Iterator<Supplier<Stream<Map<String, String>>>> pdfReaders;
+		private Stream<Map<String, String>> pdfDocuments;
+		private Iterator<Map<String, String>> pdfDocumentIterator = Collections.emptyIterator();
+
+		private PdfDocumentSpliterator(final Iterator<Supplier<Stream<Map<String, String>>>> pdfReaders) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.pdfReaders = pdfReaders;
+		}
+
+		@Override
+		public boolean tryAdvance(final Consumer<? super Map<String, String>> action) {
+			while (!pdfDocumentIterator.hasNext()) {
+				close();
+				if (!pdfReaders.hasNext()) {
+					return false;
+				}
+				pdfDocuments = pdfReaders.next().get();
+				pdfDocumentIterator = pdfDocuments.iterator();
+			}
+
+			action.accept(pdfDocumentIterator.next());
+			return true;
+		}
+
+		private void close() {
+			if (pdfDocuments != null) {
+				pdfDocuments.close();
+				pdfDocuments = null;
+				pdfDocumentIterator = Collections.emptyIterator();
+			}
+		}
+	}
+
+	/**
+	 * provides the documents which are read by {@link #maxOpenDocuments} worker
+	 * threads. The workers are stopped when the iterator is closed or exhausted,
+	 * or when it becomes unreachable without being closed.
+	 */
+	private final class BoundedDocumentIterator implements Iterator<Map<String, String>> {
+
+		private final DocumentWorkers workers;
+		private final Cleanable cleanable;
+		private boolean started;
+		private boolean done;
+		private Map<String, String> nextDocument;
+
+		private BoundedDocumentIterator(final Iterator<Supplier<Stream<Map<String, String>>>> pdfReaders) {
+			this.workers = new DocumentWorkers(pdfReaders, maxOpenDocuments, maxQueuedDocuments);
+			// the cleaning action only references the workers, not this iterator
+			this.cleanable = WORKER_CLEANER.register(this, workers::close);
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (nextDocument != null) {
+				return true;
+			}
+			if (done) {
+				return false;
+			}
+			if (!started) {
+				started = true;
+				workers.start(workerThreadFactory);
+			}
+
+			final Object item;
 			try {
-				pageContent = textStripper.getText(pdDocumentWrapper.pdDocument);
-			} catch (final IOException innerIoException) {
-				throw new IllegalStateException("error reading page with index " + pageIndex, innerIoException);
+				item = workers.queue.take();
+			} catch (final InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				close();
+				throw new IllegalStateException("interrupted while reading pdfs", interruptedException);
 			}
 
-			final int pageNumber = pageIndex + 1;
+			if (item == workers.endOfDocuments) {
+				close();
+				return false;
+			}
+			if (item instanceof Error) {
+				close();
+				throw (Error) item;
+			}
+			if (item instanceof Throwable) {
+				close();
+				throw new IllegalStateException("error reading pdfs", (Throwable) item);
+			}
 
-			final Map<String, String> pageDocument = new LinkedHashMap<>();
-			pageDocument.put(PromptConstants.CONTENT, pageContent);
-			pageDocument.put(PromptConstants.SOURCE,
-					String.format("%s p.%d", pdDocumentWrapper.pdDocumentName, pageNumber));
+			@SuppressWarnings("unchecked")
+			final Map<String, String> document = (Map<String, String>) item;
+			nextDocument = document;
+			return true;
+		}
+
+		@Override
+		public Map<String, String> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No more documents");
+			}
+			final Map<String, String> document = nextDocument;
+			nextDocument = null;
+			return document;
+		}
+
+		private void close() {
+			done = true;
+			cleanable.clean();
+		}
+	}
+
+	/**
+	 * worker threads which read one pdf at a time each and block while the queue
+	 * of read documents is full. A failure of a worker (including {@link Error
+	 * Errors}) is passed to the consumer through the queue.
+	 */
+	private static final class DocumentWorkers {
+
+		private final Object endOfDocuments = new Object();
+
+		private final Iterator<Supplier<Stream<Map<String, String>>>> pdfReaders;
+		private final int workerCount;
+		private final BlockingQueue<Object> queue;
+		private final AtomicInteger activeWorkers;
+		private volatile boolean closed;
+
+		private DocumentWorkers(final Iterator<Supplier<Stream<Map<String, String>>>> pdfReaders,
+				final int workerCount, final int queueCapacity) {
+			this.pdfReaders = pdfReaders;
+			this.workerCount = workerCount;
+			this.queue = new ArrayBlockingQueue<>(queueCapacity);
+			this.activeWorkers = new AtomicInteger(workerCount);
+		}
 
-			LogManager.getLogger().info("successfully read page {} of document {}", pageNumber,
-					pdDocumentWrapper.pdDocumentName);
+		private void start(final ThreadFactory threadFactory) {
+			for (int i = 0; i < workerCount; i++) {
+				threadFactory.newThread(this::work).start();
+			}
+		}
 
-			documents.add(pageDocument);
+		private void work() {
+			try {
+				while (!closed) {
+					final Supplier<Stream<Map<String, String>>> pdfReader;
+					synchronized (pdfReaders) {
+						if (!pdfReaders.hasNext()) {
+							break;
+						}
+						pdfReader = pdfReaders.next();
+					}
+
+					try (final Stream<Map<String, String>> documents = pdfReader.get()) {
+						final Iterator<Map<String, String>> documentIterator = documents.iterator();
+						while (!closed && documentIterator.hasNext()) {
+							enqueue(documentIterator.next());
+						}
+					}
+				}
+			} catch (final Throwable throwable) {
+				// the failure must reach the consumer before the end of the documents
+				enqueue(throwable);
+			} finally {
+				if (activeWorkers.decrementAndGet() == 0) {
+					enqueue(endOfDocuments);
+				}
+			}
 		}
 
-		return documents;
+		private void enqueue(final Object item) {
+			try {
+				while (!closed) {
+					if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+						return;
+					}
+				}
+			} catch (final InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * stops the workers after their current document. Documents which are being
+		 * read are closed.
+		 */
+		private void close() {
+			closed = true;
+			queue.clear();
+		}
 	}
 }
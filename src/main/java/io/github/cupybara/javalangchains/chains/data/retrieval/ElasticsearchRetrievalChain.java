@@ -9,6 +9,8 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -18,6 +20,7 @@ import org.apache.http.HttpHost;
 import org.apache.lucene.search.Query;
 import org.elasticsearch.client.Request;
 import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
 import org.elasticsearch.client.RestClient;
 
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -139,6 +142,57 @@ public class ElasticsearchRetrievalChain extends RetrievalChain implements Close
 
 	@Override
 	public Stream<Map<String, String>> run(final String input) {
+		final Request searchRequest = createSearchRequest(input);
+
+		final Response searchResponse;
+		try {
+			searchResponse = restClient.performRequest(searchRequest);
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("error executing search with request " + searchRequest, ioException);
+		}
+
+		return createDocuments(input, searchResponse);
+	}
+
+	/**
+	 * Executes the search using the non blocking
+	 * {@link RestClient#performRequestAsync(Request, ResponseListener)}. The
+	 * passed {@link Executor} is not used.
+	 */
+	@Override
+	public CompletableFuture<Stream<Map<String, String>>> runAsync(final String input, final Executor executor) {
+		final CompletableFuture<Stream<Map<String, String>>> result = new CompletableFuture<>();
+
+		final Request searchRequest;
+		try {
+			searchRequest = createSearchRequest(input);
+		} catch (final RuntimeException runtimeException) {
+			result.completeExceptionally(runtimeException);
+			return result;
+		}
+
+		restClient.performRequestAsync(searchRequest, new ResponseListener() {
+
+			@Override
+			public void onSuccess(final Response searchResponse) {
+				try {
+					result.complete(createDocuments(input, searchResponse));
+				} catch (final RuntimeException runtimeException) {
+					result.completeExceptionally(runtimeException);
+				}
+			}
+
+			@Override
+			public void onFailure(final Exception exception) {
+				result.completeExceptionally(
+						new IllegalStateException("error executing search with request " + searchRequest, exception));
+			}
+		});
+
+		return result;
+	}
+
+	private Request createSearchRequest(final String input) {
 		final ObjectNode query = queryCreator.apply(input);
 
 		final String requestJson = objectMapper.createObjectNode().put("size", getMaxDocumentCount())
@@ -146,14 +200,10 @@ public class ElasticsearchRetrievalChain extends RetrievalChain implements Close
 
 		final Request searchRequest = new Request("GET", String.format("/%s/_search", index));
 		searchRequest.setJsonEntity(requestJson);
+		return searchRequest;
+	}
 
-		final Response searchResponse;
-		try {
-			searchResponse = restClient.performRequest(searchRequest);
-		} catch (final IOException ioException) {
-			throw new IllegalStateException("error executing search with request " + requestJson, ioException);
-		}
-
+	private Stream<Map<String, String>> createDocuments(final String input, final Response searchResponse) {
 		final ObjectNode response;
 		try (final InputStream responseInputStream = searchResponse.getEntity().getContent()) {
 			response = (ObjectNode) objectMapper.readTree(responseInputStream);
@@ -0,0 +1,253 @@
+package io.github.cupybara.javalangchains.chains.data.retrieval;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.Directory;
+
+import io.github.cupybara.javalangchains.chains.Chain;
+
+/**
+ * This {@link RetrievalChain} combines the lexical (BM25) search of the
+ * {@link LuceneRetrievalChain} with the nearest neighbor search of the
+ * {@link LuceneVectorRetrievalChain} on the same index. Both searches are
+ * executed concurrently and their hits are fused using reciprocal rank fusion:
+ * each document is scored by the sum of 1 / (rankConstant + rank) over both
+ * result lists. The question is embedded before the searcher is acquired.
+ * Documents found by both searches are therefore preferred, so a
+ * small maxDocumentCount is usually sufficient.
+ */
+public class LuceneHybridRetrievalChain extends LuceneRetrievalChain {
+
+	/**
+	 * creates the lexical {@link Query} for the question
+	 */
+	private final Function<String, Query> lexicalQueryCreator;
+
+	/**
+	 * creates the embedding of the question
+	 */
+	private final Chain<String, float[]> embeddingChain;
+
+	/**
+	 * amount of hits retrieved by each search before fusing them
+	 */
+	private final int candidateCount;
+
+	/**
+	 * dampens the influence of the top ranks (60 is the value of the original
+	 * paper)
+	 */
+	private final int rankConstant;
+
+	/**
+	 * the {@link Executor} used for the nearest neighbor search, while the lexical
+	 * search is executed by the calling thread. If no thread of the executor picks
+	 * up the nearest neighbor search until the lexical search is finished, the
+	 * calling thread executes it as well.
+	 */
+	private final Executor executor;
+
+	/**
+	 * Creates an instance of {@link LuceneHybridRetrievalChain}
+	 *
+	 * @param indexDirectory      Lucene Index {@link Directory}
+	 * @param maxDocumentCount    maximal count of retrieved documents
+	 * @param lexicalQueryCreator {@link #lexicalQueryCreator}
+	 * @param embeddingChain      {@link #embeddingChain}
+	 * @param candidateCount      {@link #candidateCount}
+	 * @param rankConstant        {@link #rankConstant}
+	 * @param executor            {@link #executor}
+	 * @param refreshInterval     interval for refreshing the searcher in the
+	 *                            background (<code>null</code> for refreshing only
+	 *                            on demand using {@link #refresh()})
+	 */
+	public LuceneHybridRetrievalChain(final Directory indexDirectory, final int maxDocumentCount,
+			final Function<String, Query> lexicalQueryCreator, final Chain<String, float[]> embeddingChain,
+			final int candidateCount, final int rankConstant, final Executor executor, final Duration refreshInterval) {
+		super(indexDirectory, maxDocumentCount, lexicalQueryCreator, LuceneRetrievalChain::createDocument,
+				refreshInterval);
+		this.lexicalQueryCreator = lexicalQueryCreator;
+		this.embeddingChain = embeddingChain;
+		this.candidateCount = candidateCount;
+		this.rankConstant = rankConstant;
+		this.executor = Objects.requireNonNull(executor, "executor");
+	}
+
+	/**
+	 * Creates an instance of {@link LuceneHybridRetrievalChain} which searches the
+	 * index of an {@link IndexWriter} including its uncommitted changes
+	 *
+	 * @param indexWriter         the {@link IndexWriter} of the searched index
+	 * @param maxDocumentCount    maximal count of retrieved documents
+	 * @param lexicalQueryCreator {@link #lexicalQueryCreator}
+	 * @param embeddingChain      {@link #embeddingChain}
+	 * @param candidateCount      {@link #candidateCount}
+	 * @param rankConstant        {@link #rankConstant}
+	 * @param executor            {@link #executor}
+	 * @param refreshInterval     interval for refreshing the searcher in the
+	 *                            background (<code>null</code> for refreshing only
+	 *                            on demand using {@link #refresh()})
+	 */
+	public LuceneHybridRetrievalChain(final IndexWriter indexWriter, final int maxDocumentCount,
+			final Function<String, Query> lexicalQueryCreator, final Chain<String, float[]> embeddingChain,
+			final int candidateCount, final int rankConstant, final Executor executor, final Duration refreshInterval) {
+		super(indexWriter, maxDocumentCount, lexicalQueryCreator, LuceneRetrievalChain::createDocument,
+				refreshInterval);
+		this.lexicalQueryCreator = lexicalQueryCreator;
+		this.embeddingChain = embeddingChain;
+		this.candidateCount = candidateCount;
+		this.rankConstant = rankConstant;
+		this.executor = Objects.requireNonNull(executor, "executor");
+	}
+
+	/**
+	 * Creates an instance of {@link LuceneHybridRetrievalChain} which is only
+	 * refreshed on demand using {@link #refresh()}
+	 *
+	 * @param indexDirectory      Lucene Index {@link Directory}
+	 * @param maxDocumentCount    maximal count of retrieved documents
+	 * @param lexicalQueryCreator {@link #lexicalQueryCreator}
+	 * @param embeddingChain      {@link #embeddingChain}
+	 * @param candidateCount      {@link #candidateCount}
+	 * @param rankConstant        {@link #rankConstant}
+	 * @param executor            {@link #executor}
+	 */
+	public LuceneHybridRetrievalChain(final Directory indexDirectory, final int maxDocumentCount,
+			final Function<String, Query> lexicalQueryCreator, final Chain<String, float[]> embeddingChain,
+			final int candidateCount, final int rankConstant, final Executor executor) {
+		this(indexDirectory, maxDocumentCount, lexicalQueryCreator, embeddingChain, candidateCount, rankConstant,
+				executor, null);
+	}
+
+	/**
+	 * Creates an instance of {@link LuceneHybridRetrievalChain} which fuses the
+	 * top 4 * maxDocumentCount hits of a plain text query and of the nearest
+	 * neighbor search
+	 *
+	 * @param indexDirectory   Lucene Index {@link Directory}
+	 * @param maxDocumentCount maximal count of retrieved documents
+	 * @param embeddingChain   {@link #embeddingChain}
+	 * @param executor         {@link #executor}
+	 */
+	public LuceneHybridRetrievalChain(final Directory indexDirectory, final int maxDocumentCount,
+			final Chain<String, float[]> embeddingChain, final Executor executor) {
+		this(indexDirectory, maxDocumentCount, createPlainTextQueryCreator(), embeddingChain, 4 * maxDocumentCount,
+				60, executor);
+	}
+
+	/**
+	 * Creates an instance of {@link LuceneHybridRetrievalChain} which searches the
+	 * index of an {@link IndexWriter} including its uncommitted changes and fuses
+	 * the top 4 * maxDocumentCount hits of a plain text query and of the nearest
+	 * neighbor search
+	 *
+	 * @param indexWriter      the {@link IndexWriter} of the searched index
+	 * @param maxDocumentCount maximal count of retrieved documents
+	 * @param embeddingChain   {@link #embeddingChain}
+	 * @param executor         {@link #executor}
+	 * @param refreshInterval  interval for refreshing the searcher in the
+	 *                         background (<code>null</code> for refreshing only on
+	 *                         demand using {@link #refresh()})
+	 */
+	public LuceneHybridRetrievalChain(final IndexWriter indexWriter, final int maxDocumentCount,
+			final Chain<String, float[]> embeddingChain, final Executor executor, final Duration refreshInterval) {
+		this(indexWriter, maxDocumentCount, createPlainTextQueryCreator(), embeddingChain, 4 * maxDocumentCount, 60,
+				executor, refreshInterval);
+	}
+
+	@Override
+	protected Search prepareSearch(final String question) {
+		// the question is embedded before the searcher is acquired
+		final Query lexicalQuery = lexicalQueryCreator.apply(question);
+		final Query vectorQuery = new KnnFloatVectorQuery(LuceneVectorRetrievalChain.VECTOR_FIELD,
+				embeddingChain.run(question), candidateCount);
+
+		return indexSearcher -> {
+			// the nearest neighbor search is executed by whichever thread claims it first
+			final AtomicBoolean vectorSearchClaimed = new AtomicBoolean();
+			final CompletableFuture<TopDocs> vectorHits = new CompletableFuture<>();
+			final Runnable vectorSearch = () -> {
+				if (vectorSearchClaimed.compareAndSet(false, true)) {
+					try {
+						vectorHits.complete(indexSearcher.search(vectorQuery, candidateCount));
+					} catch (final Throwable throwable) {
+						vectorHits.completeExceptionally(throwable);
+					}
+				}
+			};
+
+			try {
+				executor.execute(vectorSearch);
+			} catch (final RejectedExecutionException rejectedExecutionException) {
+				// executed by the calling thread after the lexical search
+			}
+
+			try {
+				final TopDocs lexicalHits = indexSearcher.search(lexicalQuery, candidateCount);
+				vectorSearch.run();
+				return fuse(lexicalHits, awaitVectorHits(vectorHits));
+			} finally {
+				// the searcher is released when returning, so a nearest neighbor search
+				// which is still running has to finish first and one which did not start
+				// yet must not start anymore
+				if (!vectorSearchClaimed.compareAndSet(false, true)) {
+					vectorHits.exceptionally(throwable -> null).join();
+				}
+			}
+		};
+	}
+
+	private static TopDocs awaitVectorHits(final CompletableFuture<TopDocs> vectorHits) throws IOException {
+		try {
+			return vectorHits.join();
+		} catch (final CompletionException completionException) {
+			final Throwable cause = completionException.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("error processing nearest neighbor search", cause);
+		}
+	}
+
+	private TopDocs fuse(final TopDocs... hitLists) {
+		final Map<Integer, Float> scores = new LinkedHashMap<>();
+		for (final TopDocs hits : hitLists) {
+			for (int rank = 0; rank < hits.scoreDocs.length; rank++) {
+				scores.merge(hits.scoreDocs[rank].doc, 1f / (rankConstant + rank + 1), Float::sum);
+			}
+		}
+
+		final List<ScoreDoc> fusedHits = new ArrayList<>(scores.size());
+		scores.forEach((doc, score) -> fusedHits.add(new ScoreDoc(doc, score)));
+		fusedHits.sort(Comparator.comparing((ScoreDoc hit) -> hit.score).reversed());
+
+		final ScoreDoc[] topHits = fusedHits.subList(0, Math.min(getMaxDocumentCount(), fusedHits.size()))
+				.toArray(new ScoreDoc[0]);
+		return new TopDocs(new TotalHits(fusedHits.size(), TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO), topHits);
+	}
+}
@@ -2,38 +2,104 @@ package io.github.cupybara.javalangchains.chains.data.retrieval;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.StoredFields;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.similarities.BM25Similarity;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.QueryBuilder;
 
 import io.github.cupybara.javalangchains.util.PromptConstants;
 
 /**
- * This {@link RetrievalChain} retrieves documents from a lucene index
+ * This {@link RetrievalChain} retrieves documents from a lucene index. The
+ * {@link IndexSearcher} is shared by all searches and only reopened by
+ * {@link #refresh()} or in the background if a refresh interval is configured,
+ * so changes of the index become visible without creating a new chain. If the
+ * chain is created for an {@link IndexWriter} uncommitted changes become
+ * visible as well (near-real-time search).
  */
 public class LuceneRetrievalChain extends RetrievalChain implements Closeable {
 
+	/**
+	 * the {@link StandardAnalyzer} shared by the default query creators (analyzers
+	 * are thread-safe and reuse their token stream components per thread)
+	 */
+	private static final Analyzer ANALYZER = new StandardAnalyzer();
+
+	/**
+	 * {@link QueryParser} instances are not thread-safe, so each thread reuses its
+	 * own parser
+	 */
+	private static final ThreadLocal<QueryParser> QUERY_PARSER = ThreadLocal
+			.withInitial(() -> new QueryParser(PromptConstants.CONTENT, ANALYZER));
+
 	private final Function<String, Query> queryCreator;
 	private final Function<Document, Map<String, String>> documentCreator;
 
-	private final IndexReader indexReader;
-	private final IndexSearcher indexSearcher;
+	/**
+	 * provides the current {@link IndexSearcher}
+	 */
+	private final SearcherManager searcherManager;
+
+	/**
+	 * refreshes the {@link #searcherManager} in the background. <code>null</code>
+	 * if the chain is only refreshed on demand.
+	 */
+	private final ScheduledExecutorService refreshExecutor;
+
+	private LuceneRetrievalChain(final SearcherManager searcherManager, final int maxDocumentCount,
+			final Function<String, Query> queryCreator, final Function<Document, Map<String, String>> documentCreator,
+			final Duration refreshInterval) {
+		super(maxDocumentCount);
+		this.queryCreator = queryCreator;
+		this.documentCreator = documentCreator;
+		this.searcherManager = searcherManager;
+
+		if (refreshInterval == null) {
+			this.refreshExecutor = null;
+		} else {
+			this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				final Thread thread = new Thread(runnable, "lucene-retrieval-refresh");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.refreshExecutor.scheduleWithFixedDelay(() -> {
+				try {
+					refresh();
+				} catch (final IllegalStateException illegalStateException) {
+					// keep refreshing, the next refresh might succeed
+					LogManager.getLogger(getClass()).warn("background refresh failed", illegalStateException);
+				}
+			}, refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
 
 	/**
 	 * Creates an instance of {@link LuceneRetrievalChain}
@@ -46,21 +112,72 @@ public class LuceneRetrievalChain extends RetrievalChain implements Closeable {
 	 * @param documentCreator  this {@link Function} accepts a lucene
 	 *                         {@link Document} and provides a {@link Map} of key
 	 *                         value pairs for subsequent chains
+	 * @param refreshInterval  interval for refreshing the searcher in the
+	 *                         background (<code>null</code> for refreshing only on
+	 *                         demand using {@link #refresh()})
 	 */
 	public LuceneRetrievalChain(final Directory indexDirectory, final int maxDocumentCount,
-			final Function<String, Query> queryCreator, final Function<Document, Map<String, String>> documentCreator) {
-		super(maxDocumentCount);
-		this.queryCreator = queryCreator;
-		this.documentCreator = documentCreator;
+			final Function<String, Query> queryCreator, final Function<Document, Map<String, String>> documentCreator,
+			final Duration refreshInterval) {
+		this(createSearcherManager(indexDirectory), maxDocumentCount, queryCreator, documentCreator,
+				refreshInterval);
+	}
 
-		try {
-			this.indexReader = DirectoryReader.open(indexDirectory);
-		} catch (final IOException ioException) {
-			throw new IllegalStateException("could not open indexReader", ioException);
-		}
+	/**
+	 * Creates an instance of {@link LuceneRetrievalChain} which searches the index
+	 * of an {@link IndexWriter} including its uncommitted changes
+	 * 
+	 * @param indexWriter      the {@link IndexWriter} of the searched index
+	 * @param maxDocumentCount maximal count of retrieved documents
+	 * @param queryCreator     this {@link Function} accepts the user's question and
+	 *                         provides the {@link Query} which is executed against
+	 *                         the Lucene index
+	 * @param documentCreator  this {@link Function} accepts a lucene
+	 *                         {@link Document} and provides a {@link Map} of key
+	 *                         value pairs for subsequent chains
+	 * @param refreshInterval  interval for refreshing the searcher in the
+	 *                         background (<code>null</code> for refreshing only on
+	 *                         demand using {@link #refresh()})
+	 */
+	public LuceneRetrievalChain(final IndexWriter indexWriter, final int maxDocumentCount,
+			final Function<String, Query> queryCreator, final Function<Document, Map<String, String>> documentCreator,
+			final Duration refreshInterval) {
+		this(createSearcherManager(indexWriter), maxDocumentCount, queryCreator, documentCreator, refreshInterval);
+	}
 
-		this.indexSearcher = new IndexSearcher(indexReader);
-		this.indexSearcher.setSimilarity(new BM25Similarity()); // TODO: Parameterize
+	/**
+	 * Creates an instance of {@link LuceneRetrievalChain} which searches the index
+	 * of an {@link IndexWriter} including its uncommitted changes. Uses
+	 * {@link #createQuery(String)} and {@link #createDocument(Document)}.
+	 * 
+	 * @param indexWriter      the {@link IndexWriter} of the searched index
+	 * @param maxDocumentCount maximal count of retrieved documents
+	 * @param refreshInterval  interval for refreshing the searcher in the
+	 *                         background (<code>null</code> for refreshing only on
+	 *                         demand using {@link #refresh()})
+	 */
+	public LuceneRetrievalChain(final IndexWriter indexWriter, final int maxDocumentCount,
+			final Duration refreshInterval) {
+		this(indexWriter, maxDocumentCount, LuceneRetrievalChain::createQuery, LuceneRetrievalChain::createDocument,
+				refreshInterval);
+	}
+
+	/**
+	 * Creates an instance of {@link LuceneRetrievalChain} which is only refreshed
+	 * on demand using {@link #refresh()}
+	 * 
+	 * @param indexDirectory   Lucene Index {@link Directory}
+	 * @param maxDocumentCount maximal count of retrieved documents
+	 * @param queryCreator     this {@link Function} accepts the user's question and
+	 *                         provides the {@link Query} which is executed against
+	 *                         the Lucene {@link Directory}
+	 * @param documentCreator  this {@link Function} accepts a lucene
+	 *                         {@link Document} and provides a {@link Map} of key
+	 *                         value pairs for subsequent chains
+	 */
+	public LuceneRetrievalChain(final Directory indexDirectory, final int maxDocumentCount,
+			final Function<String, Query> queryCreator, final Function<Document, Map<String, String>> documentCreator) {
+		this(indexDirectory, maxDocumentCount, queryCreator, documentCreator, null);
 	}
 
 	/**
@@ -108,45 +225,158 @@ public class LuceneRetrievalChain extends RetrievalChain implements Closeable {
 
 	@Override
 	public Stream<Map<String, String>> run(final String input) {
-		final Query query = queryCreator.apply(input);
-
-		final TopDocs topDocs;
+		// the query is created before the searcher is acquired (creating it might
+		// be slow, e.g. embedding the question) and the documents are loaded before
+		// the searcher is released
+		final Search search = prepareSearch(input);
+		final List<Document> documents = new ArrayList<>();
 		try {
-			topDocs = indexSearcher.search(query, this.getMaxDocumentCount());
+			final IndexSearcher indexSearcher = searcherManager.acquire();
+			try {
+				final TopDocs topDocs = search.execute(indexSearcher);
+				final StoredFields storedFields = indexSearcher.storedFields();
+				for (final ScoreDoc hit : topDocs.scoreDocs) {
+					documents.add(storedFields.document(hit.doc));
+				}
+			} finally {
+				searcherManager.release(indexSearcher);
+			}
 		} catch (final IOException ioException) {
-			throw new IllegalStateException("error processing search for query " + query, ioException);
+			throw new IllegalStateException("error processing search for question " + input, ioException);
 		}
 
-		return Arrays.stream(topDocs.scoreDocs).map(hit -> {
-			try {
-				return indexSearcher.doc(hit.doc);
-			} catch (final IOException ioException) {
-				throw new IllegalStateException("could not process document " + hit.doc, ioException);
-			}
-		}).map(this.documentCreator).map(document -> {
+		return documents.stream().map(this.documentCreator).map(document -> {
 			final Map<String, String> mappedDocument = new LinkedHashMap<>(document);
 			mappedDocument.put(PromptConstants.QUESTION, input);
 			return mappedDocument;
 		});
 	}
 
+	/**
+	 * prepares the search of the most relevant documents for a question. This
+	 * method is called before an {@link IndexSearcher} is acquired. The default
+	 * implementation creates the query using the {@link #queryCreator}.
+	 * 
+	 * @param question the user's question
+	 * @return the {@link Search} which is executed with the acquired
+	 *         {@link IndexSearcher}
+	 */
+	protected Search prepareSearch(final String question) {
+		final Query query = queryCreator.apply(question);
+		return indexSearcher -> indexSearcher.search(query, this.getMaxDocumentCount());
+	}
+
+	/**
+	 * reopens the searcher if the index changed, so subsequent searches see the
+	 * changes. Searches which are running are not affected.
+	 */
+	public void refresh() {
+		try {
+			searcherManager.maybeRefreshBlocking();
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("could not refresh searcher", ioException);
+		}
+	}
+
 	@Override
 	public void close() throws IOException {
-		this.indexReader.close();
+		if (refreshExecutor != null) {
+			refreshExecutor.shutdownNow();
+		}
+		this.searcherManager.close();
 	}
 
-	private static Map<String, String> createDocument(final Document document) {
+	/**
+	 * a prepared search which is executed while the {@link IndexSearcher} is
+	 * acquired
+	 */
+	@FunctionalInterface
+	protected interface Search {
+
+		/**
+		 * executes the search
+		 * 
+		 * @param indexSearcher the acquired {@link IndexSearcher}. It is released
+		 *                      as soon as this method returns.
+		 * @return at most {@link RetrievalChain#getMaxDocumentCount()} hits
+		 * @throws IOException on error searching the index
+		 */
+		TopDocs execute(IndexSearcher indexSearcher) throws IOException;
+	}
+
+	private static SearcherManager createSearcherManager(final Directory indexDirectory) {
+		try {
+			return new SearcherManager(indexDirectory, createSearcherFactory());
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("could not open indexReader", ioException);
+		}
+	}
+
+	private static SearcherManager createSearcherManager(final IndexWriter indexWriter) {
+		try {
+			return new SearcherManager(indexWriter, createSearcherFactory());
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("could not open indexReader", ioException);
+		}
+	}
+
+	private static SearcherFactory createSearcherFactory() {
+		return new SearcherFactory() {
+			@Override
+			public IndexSearcher newSearcher(final IndexReader reader, final IndexReader previousReader) {
+				final IndexSearcher indexSearcher = new IndexSearcher(reader);
+				indexSearcher.setSimilarity(new BM25Similarity()); // TODO: Parameterize
+				return indexSearcher;
+			}
+		};
+	}
+
+	/**
+	 * maps all stored fields of a lucene document into a {@link Map}
+	 * 
+	 * @param document the lucene {@link Document}
+	 * @return field name to field value map
+	 */
+	protected static Map<String, String> createDocument(final Document document) {
 		return document.getFields().stream()
 				.collect(Collectors.toMap(IndexableField::name, IndexableField::stringValue));
 	}
 
 	private static Query createQuery(final String searchTerm) {
-		final StandardAnalyzer analyzer = new StandardAnalyzer();
-		final QueryParser queryParser = new QueryParser(PromptConstants.CONTENT, analyzer);
 		try {
-			return queryParser.parse(searchTerm);
+			return QUERY_PARSER.get().parse(searchTerm);
 		} catch (final ParseException parseException) {
 			throw new IllegalStateException("could not create query for searchTerm " + searchTerm, parseException);
 		}
 	}
+
+	/**
+	 * creates a query creator which analyzes the question as plain text instead of
+	 * parsing the lucene query syntax, so punctuation in the question can not
+	 * cause parse errors. The created query matches documents containing any of
+	 * the terms of the question.
+	 * 
+	 * @param field    the searched field
+	 * @param analyzer the {@link Analyzer} used to create the terms of the question
+	 * @return a thread-safe query creator
+	 */
+	public static Function<String, Query> createPlainTextQueryCreator(final String field, final Analyzer analyzer) {
+		final QueryBuilder queryBuilder = new QueryBuilder(analyzer);
+		return searchTerm -> {
+			final Query query = queryBuilder.createBooleanQuery(field, searchTerm);
+			// no query is created if the question contains no terms
+			return query != null ? query : new MatchNoDocsQuery();
+		};
+	}
+
+	/**
+	 * creates a query creator which analyzes the question as plain text using a
+	 * {@link StandardAnalyzer} targeting the field {@link PromptConstants#CONTENT}
+	 * 
+	 * @return a thread-safe query creator
+	 * @see #createPlainTextQueryCreator(String, Analyzer)
+	 */
+	public static Function<String, Query> createPlainTextQueryCreator() {
+		return createPlainTextQueryCreator(PromptConstants.CONTENT, ANALYZER);
+	}
 }
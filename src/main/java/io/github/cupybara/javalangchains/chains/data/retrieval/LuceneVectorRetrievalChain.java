@@ -0,0 +1,93 @@
+package io.github.cupybara.javalangchains.chains.data.retrieval;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.Directory;
+
+import io.github.cupybara.javalangchains.chains.Chain;
+import io.github.cupybara.javalangchains.chains.data.writer.WriteDocumentsToLuceneDirectoryChain;
+
+/**
+ * This {@link RetrievalChain} retrieves the documents of a lucene index whose
+ * embeddings are nearest to the embedding of the question. The embeddings are
+ * stored as {@link KnnFloatVectorField KnnFloatVectorFields} (see
+ * {@link WriteDocumentsToLuceneDirectoryChain}) and searched using the HNSW
+ * graph of the index. Vectors and graph are read from the index files (which
+ * are memory mapped when using an MMapDirectory), so they are not loaded onto
+ * the heap.
+ */
+public class LuceneVectorRetrievalChain extends LuceneRetrievalChain {
+
+	/**
+	 * name of the field which stores the embedding of each document
+	 */
+	public static final String VECTOR_FIELD = "vector";
+
+	/**
+	 * Creates an instance of {@link LuceneVectorRetrievalChain}
+	 *
+	 * @param indexDirectory   Lucene Index {@link Directory}
+	 * @param maxDocumentCount maximal count of retrieved documents
+	 * @param embeddingChain   creates the embedding of the question. Must be the
+	 *                         same model which created the document embeddings.
+	 * @param refreshInterval  interval for refreshing the searcher in the
+	 *                         background (<code>null</code> for refreshing only on
+	 *                         demand using {@link #refresh()})
+	 */
+	public LuceneVectorRetrievalChain(final Directory indexDirectory, final int maxDocumentCount,
+			final Chain<String, float[]> embeddingChain, final Duration refreshInterval) {
+		super(indexDirectory, maxDocumentCount, createVectorQueryCreator(VECTOR_FIELD, embeddingChain, maxDocumentCount),
+				LuceneRetrievalChain::createDocument, refreshInterval);
+	}
+
+	/**
+	 * Creates an instance of {@link LuceneVectorRetrievalChain} which is only
+	 * refreshed on demand using {@link #refresh()}
+	 *
+	 * @param indexDirectory   Lucene Index {@link Directory}
+	 * @param maxDocumentCount maximal count of retrieved documents
+	 * @param embeddingChain   creates the embedding of the question. Must be the
+	 *                         same model which created the document embeddings.
+	 */
+	public LuceneVectorRetrievalChain(final Directory indexDirectory, final int maxDocumentCount,
+			final Chain<String, float[]> embeddingChain) {
+		this(indexDirectory, maxDocumentCount, embeddingChain, null);
+	}
+
+	/**
+	 * Creates an instance of {@link LuceneVectorRetrievalChain} which searches the
+	 * index of an {@link IndexWriter} including its uncommitted changes
+	 *
+	 * @param indexWriter      the {@link IndexWriter} of the searched index
+	 * @param maxDocumentCount maximal count of retrieved documents
+	 * @param embeddingChain   creates the embedding of the question. Must be the
+	 *                         same model which created the document embeddings.
+	 * @param refreshInterval  interval for refreshing the searcher in the
+	 *                         background (<code>null</code> for refreshing only on
+	 *                         demand using {@link #refresh()})
+	 */
+	public LuceneVectorRetrievalChain(final IndexWriter indexWriter, final int maxDocumentCount,
+			final Chain<String, float[]> embeddingChain, final Duration refreshInterval) {
+		super(indexWriter, maxDocumentCount, createVectorQueryCreator(VECTOR_FIELD, embeddingChain, maxDocumentCount),
+				LuceneRetrievalChain::createDocument, refreshInterval);
+	}
+
+	/**
+	 * creates a query creator which searches the k nearest neighbors of the
+	 * question embedding
+	 *
+	 * @param field          the vector field
+	 * @param embeddingChain creates the embedding of the question
+	 * @param k              amount of nearest neighbors
+	 * @return query creator for k nearest neighbor queries
+	 */
+	public static Function<String, Query> createVectorQueryCreator(final String field,
+			final Chain<String, float[]> embeddingChain, final int k) {
+		return question -> new KnnFloatVectorQuery(field, embeddingChain.run(question), k);
+	}
+}
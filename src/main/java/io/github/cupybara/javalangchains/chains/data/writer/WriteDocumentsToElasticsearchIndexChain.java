@@ -2,6 +2,7 @@ package io.github.cupybara.javalangchains.chains.data.writer;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -16,6 +17,7 @@ import org.elasticsearch.client.RestClientBuilder;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import io.github.cupybara.javalangchains.chains.Chain;
@@ -23,7 +25,11 @@ import io.github.cupybara.javalangchains.chains.data.retrieval.ElasticsearchRetr
 import io.github.cupybara.javalangchains.util.PromptConstants;
 
 /**
- * Inserts documents into an elasticsearch index
+ * Inserts documents into an elasticsearch index. Documents with an
+ * {@link PromptConstants#ORIGIN} replace all previously indexed documents of
+ * their origin and tombstone documents ({@link PromptConstants#DELETED}) only
+ * delete them, so incrementally read documents can be written to an existing
+ * index.
  */
 public class WriteDocumentsToElasticsearchIndexChain implements Chain<Stream<Map<String, String>>, Void> {
 
@@ -138,7 +144,21 @@ public class WriteDocumentsToElasticsearchIndexChain implements Chain<Stream<Map
 				createIndexIfNotExists(restClient);
 			}
 
+			// computeIfAbsent blocks documents of the same origin until their previous
+			// documents are deleted, so a parallel input cannot add a document first
+			final Map<String, Boolean> replacedOrigins = new ConcurrentHashMap<>();
 			input.forEach(document -> {
+				final String origin = document.get(PromptConstants.ORIGIN);
+				if (origin != null) {
+					replacedOrigins.computeIfAbsent(origin, key -> {
+						deleteDocumentsOfOrigin(restClient, key);
+						return Boolean.TRUE;
+					});
+				}
+				if (Boolean.parseBoolean(document.get(PromptConstants.DELETED))) {
+					return;
+				}
+
 				final String documentJson = documentJsonCreator.apply(document);
 
 				final Request indexRequest = createIndexRequest(document);
@@ -156,6 +176,34 @@ public class WriteDocumentsToElasticsearchIndexChain implements Chain<Stream<Map
 		return null;
 	}
 
+	/**
+	 * deletes all documents of an origin. The origin is matched on the origin
+	 * field (keyword mapping of the default index creator) as well as on the
+	 * origin.keyword field (dynamic mapping of indices created otherwise).
+	 */
+	private void deleteDocumentsOfOrigin(final RestClient restClient, final String origin) {
+		final ObjectNode deleteRequestBody = JsonNodeFactory.instance.objectNode();
+		final ObjectNode boolQuery = deleteRequestBody.putObject("query").putObject("bool");
+		boolQuery.putArray("should").add(createTermQuery(PromptConstants.ORIGIN, origin))
+				.add(createTermQuery(PromptConstants.ORIGIN + ".keyword", origin));
+		boolQuery.put("minimum_should_match", 1);
+
+		final Request deleteRequest = new Request("POST", String.format("/%s/_delete_by_query", index));
+		deleteRequest.addParameter("refresh", "true");
+		deleteRequest.setJsonEntity(deleteRequestBody.toString());
+		try {
+			restClient.performRequest(deleteRequest);
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("error deleting documents of origin " + origin, ioException);
+		}
+	}
+
+	private static ObjectNode createTermQuery(final String field, final String value) {
+		final ObjectNode termQuery = JsonNodeFactory.instance.objectNode();
+		termQuery.putObject("term").put(field, value);
+		return termQuery;
+	}
+
 	private Request createIndexRequest(final Map<String, String> document) {
 		if (idProvider == null) {
 			return new Request("POST", String.format("/%s/_doc", index));
@@ -228,9 +276,10 @@ public class WriteDocumentsToElasticsearchIndexChain implements Chain<Stream<Map
 			settings.putObject("similarity").putObject("custom_bm25").put("type", "BM25").put("k1", 2.0).put("b", 0.75);
 
 			// "mappings": {"properties": {"content": {"type": "text", "similarity":
-			// "custom_bm25"}}}
-			indexRequestBody.putObject("mappings").putObject("properties").putObject(PromptConstants.CONTENT)
-					.put("type", "text").put("similarity", "custom_bm25");
+			// "custom_bm25"}, "origin": {"type": "keyword"}}}
+			final ObjectNode properties = indexRequestBody.putObject("mappings").putObject("properties");
+			properties.putObject(PromptConstants.CONTENT).put("type", "text").put("similarity", "custom_bm25");
+			properties.putObject(PromptConstants.ORIGIN).put("type", "keyword");
 
 			final String indexRequestBodyJson = indexRequestBody.toString();
 			final Request indexRequest = new Request("PUT", '/' + indexName);
@@ -3,36 +3,122 @@ package io.github.cupybara.javalangchains.chains.data.writer;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.VectorSimilarityFunction;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.MMapDirectory;
 
 import io.github.cupybara.javalangchains.chains.Chain;
+import io.github.cupybara.javalangchains.chains.data.retrieval.LuceneVectorRetrievalChain;
+import io.github.cupybara.javalangchains.chains.llm.EmbeddingChain;
 import io.github.cupybara.javalangchains.util.PromptConstants;
 
 /**
- * Stores documents in a lucene {@link Directory}
+ * Stores documents in a lucene {@link Directory}. Documents with an
+ * {@link PromptConstants#ORIGIN} replace all previously stored documents of
+ * their origin and tombstone documents ({@link PromptConstants#DELETED}) only
+ * delete them, so incrementally read documents can be written to an existing
+ * directory.
  */
 public class WriteDocumentsToLuceneDirectoryChain implements Chain<Stream<Map<String, String>>, Directory> {
 
+	/**
+	 * default count of documents which are embedded at once using an
+	 * {@link EmbeddingChain}
+	 */
+	public static final int DEFAULT_EMBEDDING_BATCH_SIZE = 512;
+
 	/**
 	 * The directory {@link Path} used to store the created index data
 	 */
 	private final Path directoryOutputPath;
 
+	/**
+	 * creates the embedding of each document content, which is stored in the
+	 * {@link LuceneVectorRetrievalChain#VECTOR_FIELD}. <code>null</code> if no
+	 * embeddings are stored.
+	 */
+	private final EmbeddingChain embeddingChain;
+
+	/**
+	 * count of documents whose contents are embedded using a single
+	 * {@link EmbeddingChain#runBatch(List)} call
+	 */
+	private final int embeddingBatchSize;
+
+	/**
+	 * the {@link VectorSimilarityFunction} used for the nearest neighbor search of
+	 * the embeddings
+	 */
+	private final VectorSimilarityFunction vectorSimilarityFunction;
+
+	/**
+	 * @param directoryOutputPath      {@link #directoryOutputPath}
+	 * @param embeddingChain           {@link #embeddingChain}
+	 * @param vectorSimilarityFunction {@link #vectorSimilarityFunction}
+	 * @param embeddingBatchSize       {@link #embeddingBatchSize}
+	 */
+	public WriteDocumentsToLuceneDirectoryChain(final Path directoryOutputPath, final EmbeddingChain embeddingChain,
+			final VectorSimilarityFunction vectorSimilarityFunction, final int embeddingBatchSize) {
+		if (embeddingBatchSize < 1) {
+			throw new IllegalArgumentException("embeddingBatchSize must be positive");
+		}
+		this.directoryOutputPath = directoryOutputPath;
+		this.embeddingChain = embeddingChain;
+		this.vectorSimilarityFunction = vectorSimilarityFunction;
+		this.embeddingBatchSize = embeddingBatchSize;
+	}
+
+	/**
+	 * creates a {@link WriteDocumentsToLuceneDirectoryChain} which embeds the
+	 * contents of {@link #DEFAULT_EMBEDDING_BATCH_SIZE} documents at once if the
+	 * passed chain is an {@link EmbeddingChain} and of each document on its own
+	 * otherwise
+	 * 
+	 * @param directoryOutputPath      {@link #directoryOutputPath}
+	 * @param embeddingChain           {@link #embeddingChain}
+	 * @param vectorSimilarityFunction {@link #vectorSimilarityFunction}
+	 */
+	public WriteDocumentsToLuceneDirectoryChain(final Path directoryOutputPath,
+			final Chain<String, float[]> embeddingChain, final VectorSimilarityFunction vectorSimilarityFunction) {
+		this(directoryOutputPath, toEmbeddingChain(embeddingChain), vectorSimilarityFunction,
+				embeddingChain instanceof EmbeddingChain ? DEFAULT_EMBEDDING_BATCH_SIZE : 1);
+	}
+
+	/**
+	 * creates a {@link WriteDocumentsToLuceneDirectoryChain} which stores
+	 * embeddings for the cosine similarity
+	 * 
+	 * @param directoryOutputPath {@link #directoryOutputPath}
+	 * @param embeddingChain      {@link #embeddingChain}
+	 */
+	public WriteDocumentsToLuceneDirectoryChain(final Path directoryOutputPath,
+			final Chain<String, float[]> embeddingChain) {
+		this(directoryOutputPath, embeddingChain, VectorSimilarityFunction.COSINE);
+	}
+
 	/**
 	 * @param directoryOutputPath {@link #directoryOutputPath}
 	 */
 	public WriteDocumentsToLuceneDirectoryChain(final Path directoryOutputPath) {
-		this.directoryOutputPath = directoryOutputPath;
+		this(directoryOutputPath, null);
 	}
 
 	/**
@@ -59,16 +145,24 @@ public class WriteDocumentsToLuceneDirectoryChain implements Chain<Stream<Map<St
 
 		try (final IndexWriter indexWriter = new IndexWriter(indexDirectory, config)) {
 
-			input.forEach(document -> {
-				final Document doc = new Document();
-				doc.add(new TextField(PromptConstants.CONTENT, document.get(PromptConstants.CONTENT), Field.Store.YES));
-				doc.add(new TextField(PromptConstants.SOURCE, document.get(PromptConstants.SOURCE), Field.Store.YES));
-				try {
-					indexWriter.addDocument(doc);
-				} catch (final IOException innerIoException) {
-					throw new IllegalStateException("error writing document: " + document, innerIoException);
+			// computeIfAbsent blocks documents of the same origin until their previous
+			// documents are deleted, so a parallel input cannot add a document first
+			final Map<String, Boolean> replacedOrigins = new ConcurrentHashMap<>();
+			if (embeddingChain == null || embeddingBatchSize == 1) {
+				input.forEach(document -> writeDocuments(indexWriter, Collections.singletonList(document),
+						replacedOrigins));
+			} else {
+				// the contents of a batch are embedded using a single call
+				final Iterator<Map<String, String>> documents = input.iterator();
+				final List<Map<String, String>> batch = new ArrayList<>(embeddingBatchSize);
+				while (documents.hasNext()) {
+					batch.add(documents.next());
+					if (batch.size() == embeddingBatchSize || !documents.hasNext()) {
+						writeDocuments(indexWriter, batch, replacedOrigins);
+						batch.clear();
+					}
 				}
-			});
+			}
 
 			indexWriter.commit();
 		} catch (final IOException ioException) {
@@ -77,4 +171,59 @@ public class WriteDocumentsToLuceneDirectoryChain implements Chain<Stream<Map<St
 
 		return indexDirectory;
 	}
+
+	private void writeDocuments(final IndexWriter indexWriter, final List<Map<String, String>> documents,
+			final Map<String, Boolean> replacedOrigins) {
+		final List<Map<String, String>> addedDocuments = new ArrayList<>(documents.size());
+		for (final Map<String, String> document : documents) {
+			final String origin = document.get(PromptConstants.ORIGIN);
+			if (origin != null) {
+				replacedOrigins.computeIfAbsent(origin, key -> {
+					try {
+						indexWriter.deleteDocuments(new Term(PromptConstants.ORIGIN, key));
+					} catch (final IOException ioException) {
+						throw new IllegalStateException("error deleting documents of origin " + key, ioException);
+					}
+					return Boolean.TRUE;
+				});
+			}
+			if (!Boolean.parseBoolean(document.get(PromptConstants.DELETED))) {
+				addedDocuments.add(document);
+			}
+		}
+
+		final List<float[]> embeddings = embeddingChain == null || addedDocuments.isEmpty() ? null
+				: embeddingChain.runBatch(addedDocuments.stream().map(document -> document.get(PromptConstants.CONTENT))
+						.collect(Collectors.toList()));
+
+		for (int index = 0; index < addedDocuments.size(); index++) {
+			final Map<String, String> document = addedDocuments.get(index);
+			final Document doc = new Document();
+			doc.add(new TextField(PromptConstants.CONTENT, document.get(PromptConstants.CONTENT), Field.Store.YES));
+			doc.add(new TextField(PromptConstants.SOURCE, document.get(PromptConstants.SOURCE), Field.Store.YES));
+			if (document.get(PromptConstants.ORIGIN) != null) {
+				doc.add(new StringField(PromptConstants.ORIGIN, document.get(PromptConstants.ORIGIN), Field.Store.YES));
+			}
+			if (embeddings != null) {
+				doc.add(new KnnFloatVectorField(LuceneVectorRetrievalChain.VECTOR_FIELD, embeddings.get(index),
+						vectorSimilarityFunction));
+			}
+			try {
+				indexWriter.addDocument(doc);
+			} catch (final IOException ioException) {
+				throw new IllegalStateException("error writing document: " + document, ioException);
+			}
+		}
+	}
+
+	/**
+	 * @return the passed chain if it is an {@link EmbeddingChain} or an
+	 *         {@link EmbeddingChain} which embeds each text of a batch on its own
+	 */
+	private static EmbeddingChain toEmbeddingChain(final Chain<String, float[]> embeddingChain) {
+		if (embeddingChain == null || embeddingChain instanceof EmbeddingChain) {
+			return (EmbeddingChain) embeddingChain;
+		}
+		return inputs -> inputs.stream().map(embeddingChain::run).collect(Collectors.toList());
+	}
 }
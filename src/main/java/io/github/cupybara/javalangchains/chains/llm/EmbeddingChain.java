@@ -0,0 +1,47 @@
+package io.github.cupybara.javalangchains.chains.llm;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.github.cupybara.javalangchains.chains.Chain;
+
+/**
+ * Parent of all {@link Chain Chains} which create embeddings using an
+ * embedding model. Accepts a text and provides its embedding. Since embedding
+ * models usually accept many inputs per request, implementations embed lists
+ * of texts using {@link #runBatch(List)}.
+ */
+public interface EmbeddingChain extends Chain<String, float[]> {
+
+	/**
+	 * creates the embeddings of all passed texts
+	 * 
+	 * @param inputs the texts
+	 * @return the embeddings in the order of the passed texts
+	 */
+	List<float[]> runBatch(List<String> inputs);
+
+	@Override
+	default float[] run(final String input) {
+		return runBatch(Collections.singletonList(input)).get(0);
+	}
+
+	/**
+	 * @return a {@link Chain} which provides the {@link #runBatch(List)} output of
+	 *         this instance
+	 */
+	default Chain<List<String>, List<float[]>> batching() {
+		return this::runBatch;
+	}
+
+	/**
+	 * creates an id of the embedding model. Two chains with the same model id are
+	 * expected to produce the same embeddings for the same text, so embeddings
+	 * can be cached using this id.
+	 * 
+	 * @return id of the embedding model
+	 */
+	default String getModelId() {
+		return getClass().getName();
+	}
+}
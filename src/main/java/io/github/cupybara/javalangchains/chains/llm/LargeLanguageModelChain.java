@@ -3,6 +3,7 @@ package io.github.cupybara.javalangchains.chains.llm;
 import java.util.Map;
 
 import io.github.cupybara.javalangchains.chains.Chain;
+import io.github.cupybara.javalangchains.util.PromptTemplate;
 
 /**
  * Parent of all {@link Chain Chains} which allow passing input to a large
@@ -15,21 +16,57 @@ public abstract class LargeLanguageModelChain implements Chain<Map<String, Strin
 	 * The template which contains placeholders in the form ${myPlaceholder} that
 	 * are replaced for input documents before creating a request to a LLM.
 	 */
-	private final String promptTemplate;
+	private final PromptTemplate promptTemplate;
 
 	/**
 	 * creates an instance of the {@link LargeLanguageModelChain}
 	 * 
 	 * @param promptTemplate {@link #promptTemplate}
 	 */
-	protected LargeLanguageModelChain(final String promptTemplate) {
+	protected LargeLanguageModelChain(final PromptTemplate promptTemplate) {
 		this.promptTemplate = promptTemplate;
 	}
 
 	/**
-	 * @return {@link #promptTemplate}
+	 * creates an instance of the {@link LargeLanguageModelChain}
+	 * 
+	 * @param promptTemplate {@link #promptTemplate}
+	 */
+	protected LargeLanguageModelChain(final String promptTemplate) {
+		this(PromptTemplate.compile(promptTemplate));
+	}
+
+	/**
+	 * @return the source of the {@link #promptTemplate}
 	 */
 	protected final String getPromptTemplate() {
+		return promptTemplate.getTemplate();
+	}
+
+	/**
+	 * @return {@link #promptTemplate}
+	 */
+	protected final PromptTemplate getCompiledPromptTemplate() {
 		return promptTemplate;
 	}
+
+	/**
+	 * creates a key which identifies the LLM request for an input document. Two
+	 * inputs resulting in the same key are expected to produce equivalent outputs.
+	 * Subclasses should include all request parameters which affect the output.
+	 * 
+	 * @param input the input document
+	 * @return key for response caching
+	 */
+	public String createCacheKey(final Map<String, String> input) {
+		return getClass().getName() + '\n' + promptTemplate.render(input);
+	}
+
+	/**
+	 * @return <code>true</code> if this chain produces the same output for the
+	 *         same input (which is the case for a sampling temperature of 0)
+	 */
+	public boolean isDeterministic() {
+		return false;
+	}
 }
@@ -1,6 +1,7 @@
 package io.github.cupybara.javalangchains.chains.llm.azure.chat;
 
 import java.net.URI;
+import java.util.Map;
 
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.BodyInserters;
@@ -97,6 +98,15 @@ public final class AzureOpenAiChatCompletionsChain extends OpenAiChatCompletions
 		this(resourceName, deploymentName, apiVersion, promptTemplate, parameters, apiKey, null);
 	}
 
+	/**
+	 * the deployment is not part of the request body, so the request uri is
+	 * included in the key
+	 */
+	@Override
+	public String createCacheKey(final Map<String, String> input) {
+		return requestUri + "\n" + super.createCacheKey(input);
+	}
+
 	@Override
 	protected ResponseSpec createResponseSpec(final OpenAiChatCompletionsRequest request, final WebClient webClient,
 			final ObjectMapper objectMapper) {
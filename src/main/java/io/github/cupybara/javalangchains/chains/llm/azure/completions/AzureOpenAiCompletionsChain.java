@@ -1,6 +1,7 @@
 package io.github.cupybara.javalangchains.chains.llm.azure.completions;
 
 import java.net.URI;
+import java.util.Map;
 
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.BodyInserters;
@@ -71,6 +72,15 @@ public final class AzureOpenAiCompletionsChain extends OpenAiCompletionsChain {
 				createDefaultWebClient());
 	}
 
+	/**
+	 * the deployment is not part of the request body, so the request uri is
+	 * included in the key
+	 */
+	@Override
+	public String createCacheKey(final Map<String, String> input) {
+		return requestUri + "\n" + super.createCacheKey(input);
+	}
+
 	@Override
 	protected ResponseSpec createResponseSpec(final OpenAiCompletionsRequest request, final WebClient webClient,
 			final ObjectMapper objectMapper) {
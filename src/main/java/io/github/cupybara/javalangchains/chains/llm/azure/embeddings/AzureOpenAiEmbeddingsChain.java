@@ -0,0 +1,99 @@
+package io.github.cupybara.javalangchains.chains.llm.azure.embeddings;
+
+import java.net.URI;
+import java.util.function.ToIntFunction;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.EncodingType;
+
+import io.github.cupybara.javalangchains.chains.llm.openai.OpenAiChain;
+import io.github.cupybara.javalangchains.chains.llm.openai.embeddings.OpenAiEmbeddingsChain;
+import io.github.cupybara.javalangchains.chains.llm.openai.embeddings.OpenAiEmbeddingsParameters;
+import io.github.cupybara.javalangchains.chains.llm.openai.embeddings.OpenAiEmbeddingsRequest;
+
+/**
+ * {@link OpenAiEmbeddingsChain} adopted for usage of Azure OpenAI Services
+ */
+public final class AzureOpenAiEmbeddingsChain extends OpenAiEmbeddingsChain {
+
+	/**
+	 * maximum count of texts in a single request to the Azure OpenAI Services
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 16;
+
+	private final URI requestUri;
+
+	/**
+	 * @param resourceName          Name of the azure resource
+	 * @param deploymentName        Name of the azure openai service deployment
+	 * @param apiVersion            The target API Version
+	 * @param parameters            The {@link OpenAiEmbeddingsParameters} allows to
+	 *                              finetune requests to the OpenAI API
+	 * @param apiKey                The API-Key used for Authentication (passed
+	 *                              using the "api-key" Header)
+	 * @param maxBatchSize          maximum count of texts in each request
+	 * @param tokenCounter          provides the token count of a text
+	 * @param maxBatchTokens        maximum sum of token counts in each request
+	 * @param maxConcurrentRequests maximum count of concurrently executed requests
+	 * @param objectMapper          The {@link ObjectMapper} used for body
+	 *                              serialization and deserialization
+	 * @param webClient             The {@link WebClient} used for executing
+	 *                              requests to the OpenAI API
+	 */
+	public AzureOpenAiEmbeddingsChain(final String resourceName, final String deploymentName,
+			final String apiVersion, final OpenAiEmbeddingsParameters parameters, final String apiKey,
+			final int maxBatchSize, final ToIntFunction<String> tokenCounter, final int maxBatchTokens,
+			final int maxConcurrentRequests, final ObjectMapper objectMapper, final WebClient webClient) {
+		super(parameters, apiKey, maxBatchSize, tokenCounter, maxBatchTokens, maxConcurrentRequests, objectMapper,
+				webClient);
+
+		if (parameters != null && parameters.getModel() != null) {
+			throw new IllegalArgumentException(
+					"the model parameter cannot be used for the Azure OpenAI Services, it is passed via deploymentName instead");
+		}
+
+		this.requestUri = UriComponentsBuilder.newInstance().scheme("https")
+				.host(String.format("%s.openai.azure.com", resourceName)).queryParam("api-version", apiVersion)
+				.path(String.format("/openai/deployments/%s/embeddings", deploymentName)).build().toUri();
+	}
+
+	/**
+	 * @param resourceName   Name of the azure resource
+	 * @param deploymentName Name of the azure openai service deployment
+	 * @param apiVersion     The target API Version
+	 * @param parameters     The {@link OpenAiEmbeddingsParameters} allows to
+	 *                       finetune requests to the OpenAI API
+	 * @param apiKey         The API-Key used for Authentication (passed using the
+	 *                       "api-key" Header)
+	 */
+	public AzureOpenAiEmbeddingsChain(final String resourceName, final String deploymentName,
+			final String apiVersion, final OpenAiEmbeddingsParameters parameters, final String apiKey) {
+		this(resourceName, deploymentName, apiVersion, parameters, apiKey, DEFAULT_MAX_BATCH_SIZE,
+				Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.CL100K_BASE)::countTokens,
+				OpenAiEmbeddingsChain.DEFAULT_MAX_BATCH_TOKENS, DEFAULT_MAX_CONCURRENT_REQUESTS,
+				OpenAiChain.createDefaultObjectMapper(), createDefaultWebClient(DEFAULT_MAX_BATCH_SIZE));
+	}
+
+	/**
+	 * the deployment is not part of the request body, so the model id is the
+	 * request uri
+	 */
+	@Override
+	public String getModelId() {
+		return requestUri.toString();
+	}
+
+	@Override
+	protected ResponseSpec createResponseSpec(final OpenAiEmbeddingsRequest request, final WebClient webClient,
+			final ObjectMapper objectMapper) {
+		return webClient.post().uri(requestUri).contentType(MediaType.APPLICATION_JSON).header("api-key", getApiKey())
+				.body(BodyInserters.fromValue(requestToBody(request, objectMapper))).retrieve();
+	}
+}
@@ -0,0 +1,99 @@
+package io.github.cupybara.javalangchains.chains.llm.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.github.cupybara.javalangchains.chains.llm.EmbeddingChain;
+
+/**
+ * Decorates an {@link EmbeddingChain} with an {@link EmbeddingCache}. The cache
+ * key consists of the {@link EmbeddingChain#getModelId()} and the embedded
+ * text, so unchanged texts (the chunks of a re-read document for example) are
+ * not embedded again. Only the uncached texts of a batch are passed to the
+ * decorated chain.
+ */
+public class CachingEmbeddingChain implements EmbeddingChain {
+
+	/**
+	 * the decorated {@link EmbeddingChain}
+	 */
+	private final EmbeddingChain embeddingChain;
+
+	/**
+	 * the {@link EmbeddingCache} used for storing embeddings
+	 */
+	private final EmbeddingCache cache;
+
+	/**
+	 * @param embeddingChain {@link #embeddingChain}
+	 * @param cache          {@link #cache}
+	 */
+	public CachingEmbeddingChain(final EmbeddingChain embeddingChain, final EmbeddingCache cache) {
+		this.embeddingChain = embeddingChain;
+		this.cache = cache;
+	}
+
+	@Override
+	public List<float[]> runBatch(final List<String> inputs) {
+		final float[][] embeddings = new float[inputs.size()][];
+
+		// uncached texts with the positions of their occurrences
+		final Map<String, List<Integer>> missingInputs = new LinkedHashMap<>();
+		for (int index = 0; index < inputs.size(); index++) {
+			final String input = inputs.get(index);
+			final List<Integer> occurrences = missingInputs.get(input);
+			if (occurrences != null) {
+				occurrences.add(index);
+				continue;
+			}
+
+			final Optional<float[]> cachedEmbedding = cache.get(createCacheKey(input));
+			if (cachedEmbedding.isPresent()) {
+				embeddings[index] = cachedEmbedding.get();
+			} else {
+				final List<Integer> newOccurrences = new ArrayList<>();
+				newOccurrences.add(index);
+				missingInputs.put(input, newOccurrences);
+			}
+		}
+
+		if (!missingInputs.isEmpty()) {
+			final List<String> embeddedInputs = new ArrayList<>(missingInputs.keySet());
+			final List<float[]> createdEmbeddings = embeddingChain.runBatch(embeddedInputs);
+			if (createdEmbeddings.size() != embeddedInputs.size()) {
+				throw new IllegalStateException(
+						"got " + createdEmbeddings.size() + " embeddings for " + embeddedInputs.size() + " texts");
+			}
+
+			for (int i = 0; i < embeddedInputs.size(); i++) {
+				final String input = embeddedInputs.get(i);
+				cache.put(createCacheKey(input), createdEmbeddings.get(i));
+				for (final int index : missingInputs.get(input)) {
+					embeddings[index] = createdEmbeddings.get(i);
+				}
+			}
+		}
+
+		return Arrays.asList(embeddings);
+	}
+
+	@Override
+	public String getModelId() {
+		return embeddingChain.getModelId();
+	}
+
+	/**
+	 * @return {@link #cache}
+	 */
+	public EmbeddingCache getCache() {
+		return cache;
+	}
+
+	private String createCacheKey(final String input) {
+		return embeddingChain.getModelId() + '\n' + input;
+	}
+}
@@ -0,0 +1,106 @@
+package io.github.cupybara.javalangchains.chains.llm.cache;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import io.github.cupybara.javalangchains.chains.Chain;
+import io.github.cupybara.javalangchains.chains.llm.LargeLanguageModelChain;
+
+/**
+ * Decorates a {@link LargeLanguageModelChain} with a
+ * {@link LargeLanguageModelResponseCache}. The cache key is provided by
+ * {@link LargeLanguageModelChain#createCacheKey(Map)} (the rendered prompt,
+ * model and sampling parameters for OpenAI chains). Responses of non
+ * deterministic chains (sampling temperature &gt; 0) are only cached if this
+ * is explicitly enabled.
+ */
+public class CachingLargeLanguageModelChain implements Chain<Map<String, String>, String> {
+
+	/**
+	 * the decorated {@link LargeLanguageModelChain}
+	 */
+	private final LargeLanguageModelChain llmChain;
+
+	/**
+	 * the {@link LargeLanguageModelResponseCache} used for storing responses
+	 */
+	private final LargeLanguageModelResponseCache cache;
+
+	/**
+	 * if <code>true</code> responses are also cached if
+	 * {@link LargeLanguageModelChain#isDeterministic()} is <code>false</code>
+	 */
+	private final boolean cacheNonDeterministic;
+
+	/**
+	 * @param llmChain              {@link #llmChain}
+	 * @param cache                 {@link #cache}
+	 * @param cacheNonDeterministic {@link #cacheNonDeterministic}
+	 */
+	public CachingLargeLanguageModelChain(final LargeLanguageModelChain llmChain,
+			final LargeLanguageModelResponseCache cache, final boolean cacheNonDeterministic) {
+		this.llmChain = llmChain;
+		this.cache = cache;
+		this.cacheNonDeterministic = cacheNonDeterministic;
+	}
+
+	/**
+	 * creates a {@link CachingLargeLanguageModelChain} which only caches responses
+	 * of deterministic chains
+	 * 
+	 * @param llmChain {@link #llmChain}
+	 * @param cache    {@link #cache}
+	 */
+	public CachingLargeLanguageModelChain(final LargeLanguageModelChain llmChain,
+			final LargeLanguageModelResponseCache cache) {
+		this(llmChain, cache, false);
+	}
+
+	@Override
+	public String run(final Map<String, String> input) {
+		if (!isCacheable()) {
+			return llmChain.run(input);
+		}
+
+		final String cacheKey = llmChain.createCacheKey(input);
+		final Optional<String> cachedResponse = cache.get(cacheKey);
+		if (cachedResponse.isPresent()) {
+			return cachedResponse.get();
+		}
+
+		final String response = llmChain.run(input);
+		cache.put(cacheKey, response);
+		return response;
+	}
+
+	@Override
+	public CompletableFuture<String> runAsync(final Map<String, String> input, final Executor executor) {
+		if (!isCacheable()) {
+			return llmChain.runAsync(input, executor);
+		}
+
+		final String cacheKey = llmChain.createCacheKey(input);
+		final Optional<String> cachedResponse = cache.get(cacheKey);
+		if (cachedResponse.isPresent()) {
+			return CompletableFuture.completedFuture(cachedResponse.get());
+		}
+
+		return llmChain.runAsync(input, executor).thenApply(response -> {
+			cache.put(cacheKey, response);
+			return response;
+		});
+	}
+
+	/**
+	 * @return {@link #cache}
+	 */
+	public LargeLanguageModelResponseCache getCache() {
+		return cache;
+	}
+
+	private boolean isCacheable() {
+		return cacheNonDeterministic || llmChain.isDeterministic();
+	}
+}
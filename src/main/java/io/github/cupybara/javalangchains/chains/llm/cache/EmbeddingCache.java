@@ -0,0 +1,220 @@
+package io.github.cupybara.javalangchains.chains.llm.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * Cache for embeddings which is used by the {@link CachingEmbeddingChain}. Keys
+ * are hashed using SHA-256. Entries are kept in a size bounded in memory LRU
+ * tier and optionally in a directory which survives restarts. The directory
+ * contains one memory mapped file of fixed width vectors per embedding
+ * dimension, so the vectors are not read onto the heap until they are used.
+ * Embeddings are copied when they are put into and taken from the cache, so
+ * callers may modify the arrays.
+ */
+public final class EmbeddingCache implements Closeable {
+
+	private static final String STORE_FILE_PREFIX = "embeddings-";
+	private static final String STORE_FILE_SUFFIX = ".bin";
+
+	/**
+	 * maximum count of entries in the in memory tier
+	 */
+	private final int maxSize;
+
+	/**
+	 * optional directory for the on disk tier
+	 */
+	private final Path directory;
+
+	/**
+	 * the in memory LRU tier (hashed key to embedding)
+	 */
+	private final Map<ByteBuffer, float[]> entries;
+
+	/**
+	 * the on disk tier by embedding dimension
+	 */
+	private final Map<Integer, MappedEmbeddingStore> stores = new ConcurrentHashMap<>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * @param maxSize   {@link #maxSize}
+	 * @param directory {@link #directory}
+	 */
+	public EmbeddingCache(final int maxSize, final Path directory) {
+		this.maxSize = maxSize;
+		this.directory = directory;
+		this.entries = new LinkedHashMap<ByteBuffer, float[]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, float[]> eldest) {
+				return size() > EmbeddingCache.this.maxSize;
+			}
+		};
+
+		if (directory != null) {
+			openStores();
+		}
+	}
+
+	/**
+	 * creates an in memory only {@link EmbeddingCache}
+	 * 
+	 * @param maxSize {@link #maxSize}
+	 */
+	public EmbeddingCache(final int maxSize) {
+		this(maxSize, null);
+	}
+
+	/**
+	 * @param key the cache key
+	 * @return the cached embedding if present
+	 */
+	public Optional<float[]> get(final String key) {
+		final ByteBuffer hashedKey = hash(key);
+
+		synchronized (entries) {
+			final float[] embedding = entries.get(hashedKey);
+			if (embedding != null) {
+				hitCount.incrementAndGet();
+				return Optional.of(embedding.clone());
+			}
+		}
+
+		for (final MappedEmbeddingStore store : stores.values()) {
+			final float[] embedding = readFromDisk(store, hashedKey);
+			if (embedding != null) {
+				synchronized (entries) {
+					entries.put(hashedKey, embedding.clone());
+				}
+				hitCount.incrementAndGet();
+				return Optional.of(embedding);
+			}
+		}
+
+		missCount.incrementAndGet();
+		return Optional.empty();
+	}
+
+	/**
+	 * @param key       the cache key
+	 * @param embedding the embedding to cache
+	 */
+	public void put(final String key, final float[] embedding) {
+		final ByteBuffer hashedKey = hash(key);
+
+		synchronized (entries) {
+			entries.put(hashedKey, embedding.clone());
+		}
+
+		writeToDisk(hashedKey, embedding);
+	}
+
+	/**
+	 * @return the count of cache hits
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the count of cache misses
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * flushes and closes the files of the on disk tier
+	 */
+	@Override
+	public void close() throws IOException {
+		for (final MappedEmbeddingStore store : stores.values()) {
+			store.close();
+		}
+		stores.clear();
+	}
+
+	private void openStores() {
+		try {
+			Files.createDirectories(directory);
+			try (final Stream<Path> files = Files.list(directory)) {
+				files.filter(file -> file.getFileName().toString().startsWith(STORE_FILE_PREFIX)
+						&& file.getFileName().toString().endsWith(STORE_FILE_SUFFIX)).forEach(file -> {
+							try {
+								final MappedEmbeddingStore store = MappedEmbeddingStore.open(file);
+								stores.put(store.getDimension(), store);
+							} catch (final IOException ioException) {
+								LogManager.getLogger(getClass()).warn("could not open cache file {}", file,
+										ioException);
+							}
+						});
+			}
+		} catch (final IOException ioException) {
+			throw new IllegalStateException("could not open cache directory " + directory, ioException);
+		}
+	}
+
+	private float[] readFromDisk(final MappedEmbeddingStore store, final ByteBuffer hashedKey) {
+		try {
+			return store.get(hashedKey);
+		} catch (final IOException ioException) {
+			LogManager.getLogger(getClass()).warn("could not read embedding from cache directory {}", directory,
+					ioException);
+			return null;
+		}
+	}
+
+	private void writeToDisk(final ByteBuffer hashedKey, final float[] embedding) {
+		if (directory == null) {
+			return;
+		}
+
+		try {
+			getOrCreateStore(embedding.length).put(hashedKey, embedding);
+		} catch (final IOException ioException) {
+			LogManager.getLogger(getClass()).warn("could not write embedding to cache directory {}", directory,
+					ioException);
+		}
+	}
+
+	private synchronized MappedEmbeddingStore getOrCreateStore(final int dimension) throws IOException {
+		MappedEmbeddingStore store = stores.get(dimension);
+		if (store == null) {
+			store = MappedEmbeddingStore
+					.create(directory.resolve(STORE_FILE_PREFIX + dimension + STORE_FILE_SUFFIX), dimension);
+			stores.put(dimension, store);
+		}
+		return store;
+	}
+
+	private static ByteBuffer hash(final String key) {
+		final MessageDigest messageDigest;
+		try {
+			messageDigest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException noSuchAlgorithmException) {
+			throw new IllegalStateException("SHA-256 is not supported", noSuchAlgorithmException);
+		}
+
+		return ByteBuffer.wrap(messageDigest.digest(key.getBytes(StandardCharsets.UTF_8)));
+	}
+}
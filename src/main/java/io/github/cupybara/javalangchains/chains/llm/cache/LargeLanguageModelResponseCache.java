@@ -0,0 +1,366 @@
+package io.github.cupybara.javalangchains.chains.llm.cache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * Cache for LLM responses which is used by the
+ * {@link CachingLargeLanguageModelChain}. Keys are hashed using SHA-256.
+ * Entries are kept in a size bounded in memory LRU tier and optionally in a
+ * directory which survives restarts. Both tiers evict entries after the
+ * configured time to live. Expired files are swept from the directory
+ * periodically while entries are put, and the directory can be bounded to a
+ * maximum count of entries as well.
+ */
+public final class LargeLanguageModelResponseCache {
+
+	/**
+	 * count of files written to an unbounded on disk tier after which expired
+	 * files are swept
+	 */
+	private static final int SWEEP_INTERVAL = 1024;
+
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * maximum count of entries in the in memory tier
+	 */
+	private final int maxSize;
+
+	/**
+	 * entries older than this {@link Duration} are evicted (<code>null</code> for
+	 * no expiration)
+	 */
+	private final Duration timeToLive;
+
+	/**
+	 * optional directory for the on disk tier. Each entry is stored as a file
+	 * named by its hashed key.
+	 */
+	private final Path directory;
+
+	/**
+	 * maximum count of entries in the on disk tier (0 for no bound). When this
+	 * count is exceeded the oldest files are removed until an eighth of the entries
+	 * is free again, so the directory is not listed on every put.
+	 */
+	private final int maxDiskEntries;
+
+	/**
+	 * approximate count of files in the on disk tier (replaced files are counted
+	 * twice until the next sweep)
+	 */
+	private final AtomicInteger diskEntryCount = new AtomicInteger();
+
+	/**
+	 * the {@link #diskEntryCount} which triggers the next sweep of the on disk
+	 * tier
+	 */
+	private volatile int nextSweepCount;
+
+	/**
+	 * the in memory LRU tier (hashed key to entry)
+	 */
+	private final Map<String, CacheEntry> entries;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * @param maxSize        {@link #maxSize}
+	 * @param timeToLive     {@link #timeToLive}
+	 * @param directory      {@link #directory}
+	 * @param maxDiskEntries {@link #maxDiskEntries}
+	 */
+	public LargeLanguageModelResponseCache(final int maxSize, final Duration timeToLive, final Path directory,
+			final int maxDiskEntries) {
+		if (maxDiskEntries < 0) {
+			throw new IllegalArgumentException("maxDiskEntries must not be negative");
+		}
+		this.maxSize = maxSize;
+		this.timeToLive = timeToLive;
+		this.directory = directory;
+		this.maxDiskEntries = maxDiskEntries;
+		this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, CacheEntry> eldest) {
+				return size() > LargeLanguageModelResponseCache.this.maxSize;
+			}
+		};
+
+		if (directory != null) {
+			try {
+				Files.createDirectories(directory);
+			} catch (final IOException ioException) {
+				throw new IllegalStateException("could not create cache directory " + directory, ioException);
+			}
+			sweepDisk();
+		}
+	}
+
+	/**
+	 * creates a {@link LargeLanguageModelResponseCache} whose on disk tier is only
+	 * bounded by the time to live
+	 * 
+	 * @param maxSize    {@link #maxSize}
+	 * @param timeToLive {@link #timeToLive}
+	 * @param directory  {@link #directory}
+	 */
+	public LargeLanguageModelResponseCache(final int maxSize, final Duration timeToLive, final Path directory) {
+		this(maxSize, timeToLive, directory, 0);
+	}
+
+	/**
+	 * creates an in memory only {@link LargeLanguageModelResponseCache}
+	 * 
+	 * @param maxSize    {@link #maxSize}
+	 * @param timeToLive {@link #timeToLive}
+	 */
+	public LargeLanguageModelResponseCache(final int maxSize, final Duration timeToLive) {
+		this(maxSize, timeToLive, null, 0);
+	}
+
+	/**
+	 * @param key the cache key
+	 * @return the cached response if present and not expired
+	 */
+	public Optional<String> get(final String key) {
+		final String hashedKey = hash(key);
+
+		synchronized (entries) {
+			final CacheEntry entry = entries.get(hashedKey);
+			if (entry != null) {
+				if (!isExpired(entry.createdMillis)) {
+					hitCount.incrementAndGet();
+					return Optional.of(entry.response);
+				}
+				entries.remove(hashedKey);
+			}
+		}
+
+		final CacheEntry diskEntry = readFromDisk(hashedKey);
+		if (diskEntry != null) {
+			synchronized (entries) {
+				entries.put(hashedKey, diskEntry);
+			}
+			hitCount.incrementAndGet();
+			return Optional.of(diskEntry.response);
+		}
+
+		missCount.incrementAndGet();
+		return Optional.empty();
+	}
+
+	/**
+	 * @param key      the cache key
+	 * @param response the response to cache
+	 */
+	public void put(final String key, final String response) {
+		final String hashedKey = hash(key);
+		final CacheEntry entry = new CacheEntry(response, System.currentTimeMillis());
+
+		synchronized (entries) {
+			entries.put(hashedKey, entry);
+		}
+
+		writeToDisk(hashedKey, entry);
+	}
+
+	/**
+	 * removes all entries from both tiers
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+
+		if (directory != null) {
+			try (final Stream<Path> files = Files.list(directory)) {
+				files.filter(LargeLanguageModelResponseCache::isCacheFile).forEach(this::deleteQuietly);
+			} catch (final IOException ioException) {
+				throw new IllegalStateException("could not clear cache directory " + directory, ioException);
+			}
+			diskEntryCount.set(0);
+			nextSweepCount = getSweepCount(0);
+		}
+	}
+
+	/**
+	 * @return the count of cache hits
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return the count of cache misses
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	private boolean isExpired(final long createdMillis) {
+		return timeToLive != null && System.currentTimeMillis() - createdMillis > timeToLive.toMillis();
+	}
+
+	private CacheEntry readFromDisk(final String hashedKey) {
+		if (directory == null) {
+			return null;
+		}
+
+		final Path file = directory.resolve(hashedKey + ".txt");
+		try {
+			final long createdMillis = Files.getLastModifiedTime(file).toMillis();
+			if (isExpired(createdMillis)) {
+				deleteQuietly(file);
+				return null;
+			}
+			return new CacheEntry(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), createdMillis);
+		} catch (final NoSuchFileException noSuchFileException) {
+			return null;
+		} catch (final IOException ioException) {
+			LogManager.getLogger(getClass()).warn("could not read cache file {}", file, ioException);
+			return null;
+		}
+	}
+
+	private void writeToDisk(final String hashedKey, final CacheEntry entry) {
+		if (directory == null) {
+			return;
+		}
+
+		final Path file = directory.resolve(hashedKey + ".txt");
+		Path tempFile = null;
+		try {
+			// write to a temp file first so readers never see partially written entries
+			tempFile = Files.createTempFile(directory, hashedKey, ".tmp");
+			Files.write(tempFile, entry.response.getBytes(StandardCharsets.UTF_8));
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (final IOException ioException) {
+			LogManager.getLogger(getClass()).warn("could not write cache file {}", file, ioException);
+			if (tempFile != null) {
+				deleteQuietly(tempFile);
+			}
+			return;
+		}
+
+		if (diskEntryCount.incrementAndGet() > nextSweepCount) {
+			sweepDisk();
+		}
+	}
+
+	/**
+	 * removes the expired files and, if the on disk tier is bounded and
+	 * {@link #maxDiskEntries} is exceeded, the oldest files
+	 */
+	private synchronized void sweepDisk() {
+		final List<CacheFile> cacheFiles = new ArrayList<>();
+		try (final Stream<Path> files = Files.list(directory)) {
+			files.filter(LargeLanguageModelResponseCache::isCacheFile).forEach(file -> {
+				try {
+					final long createdMillis = Files.getLastModifiedTime(file).toMillis();
+					if (isExpired(createdMillis)) {
+						deleteQuietly(file);
+					} else {
+						cacheFiles.add(new CacheFile(file, createdMillis));
+					}
+				} catch (final IOException ioException) {
+					// deleted concurrently
+				}
+			});
+		} catch (final IOException ioException) {
+			LogManager.getLogger(getClass()).warn("could not sweep cache directory {}", directory, ioException);
+			return;
+		}
+
+		if (maxDiskEntries > 0 && cacheFiles.size() > maxDiskEntries) {
+			cacheFiles.sort(Comparator.comparingLong(cacheFile -> cacheFile.createdMillis));
+			final int excessCount = cacheFiles.size() - (maxDiskEntries - maxDiskEntries / 8);
+			cacheFiles.subList(0, excessCount).forEach(cacheFile -> deleteQuietly(cacheFile.path));
+			cacheFiles.subList(0, excessCount).clear();
+		}
+
+		diskEntryCount.set(cacheFiles.size());
+		nextSweepCount = getSweepCount(cacheFiles.size());
+	}
+
+	private int getSweepCount(final int currentDiskEntryCount) {
+		return maxDiskEntries > 0 ? maxDiskEntries : currentDiskEntryCount + SWEEP_INTERVAL;
+	}
+
+	private static boolean isCacheFile(final Path path) {
+		return path.getFileName().toString().endsWith(".txt");
+	}
+
+	private void deleteQuietly(final Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (final IOException ioException) {
+			LogManager.getLogger(getClass()).warn("could not delete cache file {}", file, ioException);
+		}
+	}
+
+	private static String hash(final String key) {
+		final MessageDigest messageDigest;
+		try {
+			messageDigest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException noSuchAlgorithmException) {
+			throw new IllegalStateException("SHA-256 is not supported", noSuchAlgorithmException);
+		}
+
+		final byte[] digest = messageDigest.digest(key.getBytes(StandardCharsets.UTF_8));
+		final char[] hashedKey = new char[digest.length * 2];
+		for (int index = 0; index < digest.length; index++) {
+			hashedKey[2 * index] = HEX_DIGITS[(digest[index] >> 4) & 0xf];
+			hashedKey[2 * index + 1] = HEX_DIGITS[digest[index] & 0xf];
+		}
+		return new String(hashedKey);
+	}
+
+	/**
+	 * (response, creation time) pair
+	 */
+	private static final class CacheEntry {
+		private final String response;
+		private final long createdMillis;
+
+		private CacheEntry(final String response, final long createdMillis) {
+			this.response = response;
+			this.createdMillis = createdMillis;
+		}
+	}
+
+	/**
+	 * (file, creation time) pair of the on disk tier
+	 */
+	private static final class CacheFile {
+		private final Path path;
+		private final long createdMillis;
+
+		private CacheFile(final Path path, final long createdMillis) {
+			this.path = path;
+			this.createdMillis = createdMillis;
+		}
+	}
+}
@@ -0,0 +1,287 @@
+package io.github.cupybara.javalangchains.chains.llm.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * on disk tier of the {@link EmbeddingCache}. Stores embeddings of a fixed
+ * dimension in a memory mapped file of fixed width records, each consisting of
+ * the hashed key followed by the vector. The file starts with a header which
+ * contains the dimension and the count of records. The hash index (hashed key
+ * to record number) is an open addressing table of primitive arrays which only
+ * keeps the first 8 bytes of each hashed key on the heap (the complete key is
+ * compared with the key of the record in the file). It is rebuilt from the
+ * record keys when the file is opened.
+ */
+final class MappedEmbeddingStore implements Closeable {
+
+	/**
+	 * length of the hashed keys (SHA-256)
+	 */
+	static final int KEY_LENGTH = 32;
+
+	private static final int MAGIC = 0x4a4c4345;
+	private static final int HEADER_LENGTH = 16;
+	private static final int COUNT_OFFSET = 8;
+
+	/**
+	 * maximum length of each mapped segment of the file
+	 */
+	private static final int SEGMENT_LENGTH = 1 << 26;
+
+	/**
+	 * minimum count of slots of the {@link #index}
+	 */
+	private static final int MIN_INDEX_CAPACITY = 16;
+
+	private final Path file;
+	private final FileChannel fileChannel;
+	private final int dimension;
+	private final int recordLength;
+	private final int recordsPerSegment;
+	private final MappedByteBuffer header;
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+	/**
+	 * the first 8 bytes of the hashed key of each slot of the index
+	 */
+	private long[] indexKeys;
+
+	/**
+	 * the record number + 1 of each slot of the index (0 for empty slots). The
+	 * table is kept at most half full and probed linearly.
+	 */
+	private int[] indexRecords;
+
+	private int count;
+
+	private MappedEmbeddingStore(final Path file, final FileChannel fileChannel, final int dimension,
+			final MappedByteBuffer header) {
+		this.file = file;
+		this.fileChannel = fileChannel;
+		this.dimension = dimension;
+		this.recordLength = KEY_LENGTH + dimension * Float.BYTES;
+		this.recordsPerSegment = Math.max(1, SEGMENT_LENGTH / recordLength);
+		this.header = header;
+		this.indexKeys = new long[MIN_INDEX_CAPACITY];
+		this.indexRecords = new int[MIN_INDEX_CAPACITY];
+	}
+
+	/**
+	 * opens an existing store
+	 * 
+	 * @param file the store file
+	 * @return the opened store including the index of all stored records
+	 * @throws IOException on error reading the store
+	 */
+	static MappedEmbeddingStore open(final Path file) throws IOException {
+		final FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			if (fileChannel.size() < HEADER_LENGTH) {
+				throw new IOException("invalid embedding store " + file);
+			}
+			final MappedByteBuffer header = fileChannel.map(MapMode.READ_WRITE, 0, HEADER_LENGTH);
+			if (header.getInt(0) != MAGIC) {
+				throw new IOException("invalid embedding store " + file);
+			}
+
+			final MappedEmbeddingStore store = new MappedEmbeddingStore(file, fileChannel, header.getInt(4), header);
+			store.loadIndex(header.getInt(COUNT_OFFSET));
+			return store;
+		} catch (final IOException | RuntimeException exception) {
+			fileChannel.close();
+			throw exception;
+		}
+	}
+
+	/**
+	 * creates a new store
+	 * 
+	 * @param file      the store file which must not exist
+	 * @param dimension the dimension of all stored embeddings
+	 * @return the created store
+	 * @throws IOException on error creating the store
+	 */
+	static MappedEmbeddingStore create(final Path file, final int dimension) throws IOException {
+		final FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE_NEW);
+		try {
+			final MappedByteBuffer header = fileChannel.map(MapMode.READ_WRITE, 0, HEADER_LENGTH);
+			header.putInt(0, MAGIC);
+			header.putInt(4, dimension);
+			header.putInt(COUNT_OFFSET, 0);
+			return new MappedEmbeddingStore(file, fileChannel, dimension, header);
+		} catch (final IOException | RuntimeException exception) {
+			fileChannel.close();
+			throw exception;
+		}
+	}
+
+	/**
+	 * @return the dimension of all stored embeddings
+	 */
+	int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * @param hashedKey the hashed key
+	 * @return the stored embedding or <code>null</code>
+	 * @throws IOException on error mapping the file
+	 */
+	synchronized float[] get(final ByteBuffer hashedKey) throws IOException {
+		final int record = findRecord(hashedKey);
+		if (record < 0) {
+			return null;
+		}
+
+		final ByteBuffer recordBuffer = getRecord(record);
+		recordBuffer.position(recordBuffer.position() + KEY_LENGTH);
+		final float[] embedding = new float[dimension];
+		recordBuffer.asFloatBuffer().get(embedding);
+		return embedding;
+	}
+
+	/**
+	 * appends an embedding unless its key is already stored. The record is written
+	 * before the count in the header, so readers of the mapping never read a
+	 * partially written record. The mapping is only forced to the file by
+	 * {@link #close()} (records before the header), so after a crash of the
+	 * operating system the records stored since the last close might be lost or
+	 * incomplete.
+	 * 
+	 * @param hashedKey the hashed key
+	 * @param embedding the embedding
+	 * @throws IOException on error mapping the file
+	 */
+	synchronized void put(final ByteBuffer hashedKey, final float[] embedding) throws IOException {
+		if (embedding.length != dimension) {
+			throw new IllegalArgumentException(
+					"embedding of dimension " + embedding.length + " cannot be stored in " + file);
+		}
+		if (findRecord(hashedKey) >= 0) {
+			return;
+		}
+
+		final ByteBuffer recordBuffer = getRecord(count);
+		recordBuffer.put(hashedKey.duplicate());
+		recordBuffer.asFloatBuffer().put(embedding);
+
+		addToIndex(hashedKey.getLong(hashedKey.position()), count);
+		count++;
+		header.putInt(COUNT_OFFSET, count);
+	}
+
+	/**
+	 * @return count of stored embeddings
+	 */
+	synchronized int size() {
+		return count;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		for (final MappedByteBuffer segment : segments) {
+			segment.force();
+		}
+		header.force();
+		fileChannel.close();
+	}
+
+	private void loadIndex(final int storedCount) throws IOException {
+		final int capacity = Math.max(MIN_INDEX_CAPACITY, Integer.highestOneBit(Math.max(1, storedCount)) << 2);
+		indexKeys = new long[capacity];
+		indexRecords = new int[capacity];
+
+		// the keys of the stored records are unique
+		for (int record = 0; record < storedCount; record++) {
+			final ByteBuffer recordBuffer = getRecord(record);
+			addToIndex(recordBuffer.getLong(recordBuffer.position()), record);
+		}
+		count = storedCount;
+	}
+
+	/**
+	 * @return the record number of the hashed key or -1 if it is not stored
+	 */
+	private int findRecord(final ByteBuffer hashedKey) throws IOException {
+		final long keyPrefix = hashedKey.getLong(hashedKey.position());
+		final int mask = indexRecords.length - 1;
+		for (int slot = getSlot(keyPrefix, mask); indexRecords[slot] != 0; slot = (slot + 1) & mask) {
+			if (indexKeys[slot] == keyPrefix) {
+				final int record = indexRecords[slot] - 1;
+				final ByteBuffer recordKey = getRecord(record);
+				recordKey.limit(recordKey.position() + KEY_LENGTH);
+				if (recordKey.equals(hashedKey)) {
+					return record;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private void addToIndex(final long keyPrefix, final int record) {
+		if ((count + 1) * 2 > indexRecords.length) {
+			growIndex();
+		}
+		insertIntoIndex(indexKeys, indexRecords, keyPrefix, record + 1);
+	}
+
+	private void growIndex() {
+		final long[] grownKeys = new long[indexKeys.length * 2];
+		final int[] grownRecords = new int[indexRecords.length * 2];
+		for (int slot = 0; slot < indexRecords.length; slot++) {
+			if (indexRecords[slot] != 0) {
+				insertIntoIndex(grownKeys, grownRecords, indexKeys[slot], indexRecords[slot]);
+			}
+		}
+		indexKeys = grownKeys;
+		indexRecords = grownRecords;
+	}
+
+	private static void insertIntoIndex(final long[] keys, final int[] records, final long keyPrefix,
+			final int slotRecord) {
+		final int mask = records.length - 1;
+		int slot = getSlot(keyPrefix, mask);
+		while (records[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = keyPrefix;
+		records[slot] = slotRecord;
+	}
+
+	/**
+	 * the hashed keys are uniformly distributed, so their first bytes can be used
+	 * as slot directly
+	 */
+	private static int getSlot(final long keyPrefix, final int mask) {
+		return (int) (keyPrefix ^ (keyPrefix >>> 32)) & mask;
+	}
+
+	/**
+	 * @return a buffer positioned at the start of the record and limited to its
+	 *         length. Segments are mapped on demand, which extends the file.
+	 */
+	private ByteBuffer getRecord(final int record) throws IOException {
+		final int segment = record / recordsPerSegment;
+		while (segments.size() <= segment) {
+			final long segmentLength = (long) recordsPerSegment * recordLength;
+			segments.add(fileChannel.map(MapMode.READ_WRITE, HEADER_LENGTH + segments.size() * segmentLength,
+					segmentLength));
+		}
+
+		final ByteBuffer recordBuffer = segments.get(segment).duplicate();
+		final int offset = (record % recordsPerSegment) * recordLength;
+		recordBuffer.position(offset);
+		recordBuffer.limit(offset + recordLength);
+		return recordBuffer;
+	}
+}
@@ -1,9 +1,13 @@
 package io.github.cupybara.javalangchains.chains.llm.openai;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
@@ -13,10 +17,17 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.github.cupybara.javalangchains.chains.Chain;
 import io.github.cupybara.javalangchains.chains.llm.LargeLanguageModelChain;
+import io.github.cupybara.javalangchains.util.PromptTemplate;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
- * {@link LargeLanguageModelChain} for usage with the OpenAI /completions API
+ * {@link LargeLanguageModelChain} for usage with the OpenAI /completions API.
+ * Besides the blocking {@link #run(Map)} this chain provides a non blocking
+ * {@link #runReactive(Map)} which also backs {@link Chain#runAsync(Object)}.
  *
  * @param <P> the static parameter type
  * @param <I> the static request type
@@ -59,13 +70,14 @@ public abstract class OpenAiChain<P extends OpenAiParameters<P>, I extends P, O
 	 * @param promptTemplate {@link #getPromptTemplate()}
 	 * @param requestPath    {@link #requestPath}
 	 * @param responseClass  {@link #responseClass}
-	 * @param parameters     {@link #parameters}r
+	 * @param parameters     {@link #parameters}
 	 * @param apiKey         {@link #apiKey}
 	 * @param objectMapper   {@link #objectMapper}
 	 * @param webClient      {@link #webClient}
 	 */
-	protected OpenAiChain(final String promptTemplate, final String requestPath, final Class<O> responseClass,
-			final P parameters, final String apiKey, final ObjectMapper objectMapper, final WebClient webClient) {
+	protected OpenAiChain(final PromptTemplate promptTemplate, final String requestPath,
+			final Class<O> responseClass, final P parameters, final String apiKey, final ObjectMapper objectMapper,
+			final WebClient webClient) {
 		super(promptTemplate);
 		this.requestPath = requestPath;
 		this.responseClass = responseClass;
@@ -75,6 +87,21 @@ public abstract class OpenAiChain<P extends OpenAiParameters<P>, I extends P, O
 		this.webClient = webClient;
 	}
 
+	/**
+	 * @param promptTemplate {@link #getPromptTemplate()}
+	 * @param requestPath    {@link #requestPath}
+	 * @param responseClass  {@link #responseClass}
+	 * @param parameters     {@link #parameters}
+	 * @param apiKey         {@link #apiKey}
+	 * @param objectMapper   {@link #objectMapper}
+	 * @param webClient      {@link #webClient}
+	 */
+	protected OpenAiChain(final String promptTemplate, final String requestPath, final Class<O> responseClass,
+			final P parameters, final String apiKey, final ObjectMapper objectMapper, final WebClient webClient) {
+		this(PromptTemplate.compile(promptTemplate), requestPath, responseClass, parameters, apiKey, objectMapper,
+				webClient);
+	}
+
 	/**
 	 * @param promptTemplate {@link #getPromptTemplate()}
 	 * @param requestPath    {@link #requestPath}
@@ -106,13 +133,85 @@ public abstract class OpenAiChain<P extends OpenAiParameters<P>, I extends P, O
 
 	@Override
 	public String run(final Map<String, String> input) {
+		return runReactive(input).block();
+	}
+
+	/**
+	 * Executes the request without blocking the calling thread. The passed
+	 * {@link Executor} is not used since the {@link WebClient} performs the
+	 * request on its own event loop.
+	 */
+	@Override
+	public CompletableFuture<String> runAsync(final Map<String, String> input, final Executor executor) {
+		return runReactive(input).toFuture();
+	}
+
+	/**
+	 * the key consists of the request path and the serialized request body which
+	 * contains the rendered prompt as well as the model and all sampling
+	 * parameters
+	 */
+	@Override
+	public String createCacheKey(final Map<String, String> input) {
 		final I request = createRequest(input);
 		if (parameters != null) {
 			request.copyFrom(parameters);
 		}
+		return requestPath + '\n' + requestToBody(request, objectMapper);
+	}
+
+	@Override
+	public boolean isDeterministic() {
+		return parameters != null && parameters.getTemperature() != null && parameters.getTemperature() == 0D;
+	}
+
+	/**
+	 * Non blocking counterpart of {@link #run(Map)}
+	 * 
+	 * @param input the current document
+	 * @return {@link Mono} which emits this chain's output
+	 */
+	public Mono<String> runReactive(final Map<String, String> input) {
+		return Mono.fromSupplier(() -> createRequest(input)).flatMap(this::execute).map(this::createOutput);
+	}
+
+	/**
+	 * applies the {@link #parameters} to the request entity and executes it
+	 * against the OpenAI API
+	 * 
+	 * @param request the request entity
+	 * @return {@link Mono} which emits the response entity
+	 */
+	protected final Mono<O> execute(final I request) {
+		if (parameters != null) {
+			request.copyFrom(parameters);
+		}
 
 		return createResponseSpec(request, webClient, objectMapper).bodyToMono(String.class)
-				.map(responseBody -> bodyToResponse(responseBody, objectMapper)).map(this::createOutput).block();
+				.map(responseBody -> bodyToResponse(responseBody, objectMapper));
+	}
+
+	/**
+	 * applies the {@link #parameters} to the request entity and executes it as a
+	 * streaming request against the OpenAI API. The request entity is expected to
+	 * enable streaming. Each server sent event's data (except for the terminating
+	 * "[DONE]") is deserialized to an instance of the passed chunk class.
+	 * 
+	 * @param <C>        the static chunk type
+	 * @param request    the request entity
+	 * @param chunkClass the chunk type class
+	 * @return {@link Flux} which emits each chunk as soon as it is received
+	 */
+	protected final <C> Flux<C> executeStreaming(final I request, final Class<C> chunkClass) {
+		if (parameters != null) {
+			request.copyFrom(parameters);
+		}
+
+		return createResponseSpec(request, webClient, objectMapper)
+				.bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+					// noop
+				}).filter(event -> event.data() != null).map(ServerSentEvent::data)
+				.takeWhile(data -> !"[DONE]".equals(data.trim())).map(data -> readValue(data, chunkClass, objectMapper));
 	}
 
 	/**
@@ -149,8 +248,13 @@ public abstract class OpenAiChain<P extends OpenAiParameters<P>, I extends P, O
 	}
 
 	private O bodyToResponse(final String responseBody, final ObjectMapper objectMapper) {
+		return readValue(responseBody, this.responseClass, objectMapper);
+	}
+
+	private static <T> T readValue(final String responseBody, final Class<T> valueClass,
+			final ObjectMapper objectMapper) {
 		try {
-			return objectMapper.readValue(responseBody, this.responseClass);
+			return objectMapper.readValue(responseBody, valueClass);
 		} catch (final JsonProcessingException jsonProcessingException) {
 			throw new IllegalStateException("error deserializing responseBody " + responseBody,
 					jsonProcessingException);
@@ -158,7 +262,14 @@ public abstract class OpenAiChain<P extends OpenAiParameters<P>, I extends P, O
 	}
 
 	/**
-	 * @return {@link #apiKey}p
+	 * @return {@link #parameters}
+	 */
+	protected final P getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * @return {@link #apiKey}
 	 */
 	protected final String getApiKey() {
 		return apiKey;
@@ -3,13 +3,17 @@ package io.github.cupybara.javalangchains.chains.llm.openai.chat;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
-import org.apache.commons.text.StringSubstitutor;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.github.cupybara.javalangchains.chains.Chain;
 import io.github.cupybara.javalangchains.chains.llm.openai.OpenAiChain;
+import io.github.cupybara.javalangchains.util.PromptTemplate;
+
+import reactor.core.publisher.Flux;
 
 /**
  * {@link OpenAiChain} for usage with the OpenAI /chat/completions API
@@ -22,19 +26,19 @@ public class OpenAiChatCompletionsChain extends
 	 * ${myPlaceholder} that are replaced for input documents before creating a
 	 * request to a LLM.
 	 */
-	private final String systemTemplate;
+	private final PromptTemplate systemTemplate;
 
 	/**
 	 * @param promptTemplate {@link #getPromptTemplate()}
-	 * @param parameters     {@link #parameters}r
+	 * @param parameters     {@link #parameters}
 	 * @param apiKey         {@link #apiKey}
 	 * @param systemTemplate {@link #systemTemplate}
 	 * @param objectMapper   {@link #objectMapper}
 	 * @param webClient      {@link #webClient}
 	 */
-	public OpenAiChatCompletionsChain(final String promptTemplate, final OpenAiChatCompletionsParameters parameters,
-			final String apiKey, final String systemTemplate, final ObjectMapper objectMapper,
-			final WebClient webClient) {
+	public OpenAiChatCompletionsChain(final PromptTemplate promptTemplate,
+			final OpenAiChatCompletionsParameters parameters, final String apiKey, final PromptTemplate systemTemplate,
+			final ObjectMapper objectMapper, final WebClient webClient) {
 		super(promptTemplate, "/v1/chat/completions", OpenAiChatCompletionsResponse.class, parameters, apiKey,
 				objectMapper, webClient);
 		this.systemTemplate = systemTemplate;
@@ -44,7 +48,35 @@ public class OpenAiChatCompletionsChain extends
 	 * @param promptTemplate {@link #getPromptTemplate()}
 	 * @param parameters     {@link #parameters}
 	 * @param apiKey         {@link #apiKey}
-	 * @param systemTemplate {@link #systemTemplate}s
+	 * @param systemTemplate {@link #systemTemplate}
+	 */
+	public OpenAiChatCompletionsChain(final PromptTemplate promptTemplate,
+			final OpenAiChatCompletionsParameters parameters, final String apiKey,
+			final PromptTemplate systemTemplate) {
+		this(promptTemplate, parameters, apiKey, systemTemplate, createDefaultObjectMapper(),
+				createDefaultWebClient());
+	}
+
+	/**
+	 * @param promptTemplate {@link #getPromptTemplate()}
+	 * @param parameters     {@link #parameters}
+	 * @param apiKey         {@link #apiKey}
+	 * @param systemTemplate {@link #systemTemplate}
+	 * @param objectMapper   {@link #objectMapper}
+	 * @param webClient      {@link #webClient}
+	 */
+	public OpenAiChatCompletionsChain(final String promptTemplate, final OpenAiChatCompletionsParameters parameters,
+			final String apiKey, final String systemTemplate, final ObjectMapper objectMapper,
+			final WebClient webClient) {
+		this(PromptTemplate.compile(promptTemplate), parameters, apiKey,
+				systemTemplate == null ? null : PromptTemplate.compile(systemTemplate), objectMapper, webClient);
+	}
+
+	/**
+	 * @param promptTemplate {@link #getPromptTemplate()}
+	 * @param parameters     {@link #parameters}
+	 * @param apiKey         {@link #apiKey}
+	 * @param systemTemplate {@link #systemTemplate}
 	 */
 	public OpenAiChatCompletionsChain(final String promptTemplate, final OpenAiChatCompletionsParameters parameters,
 			final String apiKey, final String systemTemplate) {
@@ -65,9 +97,9 @@ public class OpenAiChatCompletionsChain extends
 	protected OpenAiChatCompletionsRequest createRequest(Map<String, String> input) {
 		final List<OpenAiChatMessage> messages = new LinkedList<>();
 		if (systemTemplate != null) {
-			messages.add(new OpenAiChatMessage("system", new StringSubstitutor(input).replace(systemTemplate)));
+			messages.add(new OpenAiChatMessage("system", systemTemplate.render(input)));
 		}
-		messages.add(new OpenAiChatMessage("user", new StringSubstitutor(input).replace(getPromptTemplate())));
+		messages.add(new OpenAiChatMessage("user", getCompiledPromptTemplate().render(input)));
 
 		return new OpenAiChatCompletionsRequest(messages);
 	}
@@ -76,4 +108,42 @@ public class OpenAiChatCompletionsChain extends
 	protected String createOutput(final OpenAiChatCompletionsResponse response) {
 		return response.getChoices().get(0).getMessage().getContent();
 	}
+
+	/**
+	 * executes a streaming request ("stream": true) and emits the content of each
+	 * received chunk as soon as it is generated by the LLM
+	 * 
+	 * @param input the current document
+	 * @return {@link Flux} of content fragments
+	 */
+	public Flux<String> stream(final Map<String, String> input) {
+		return Flux.defer(() -> {
+			final OpenAiChatCompletionsRequest request = createRequest(input);
+			request.setStream(true);
+			return executeStreaming(request, OpenAiChatCompletionsChunk.class);
+		}).filter(chunk -> chunk.getChoices() != null && !chunk.getChoices().isEmpty())
+				.mapNotNull(chunk -> chunk.getChoices().get(0).getDelta()).mapNotNull(OpenAiChatMessage::getContent);
+	}
+
+	/**
+	 * callback based variant of {@link #stream(Map)}: each content fragment is
+	 * passed to the contentConsumer as soon as it is received. Blocks until the
+	 * whole response is generated.
+	 * 
+	 * @param input           the current document
+	 * @param contentConsumer consumes each content fragment
+	 * @return the complete LLM output
+	 */
+	public String run(final Map<String, String> input, final Consumer<String> contentConsumer) {
+		return stream(input).doOnNext(contentConsumer).collect(StringBuilder::new, StringBuilder::append)
+				.map(StringBuilder::toString).block();
+	}
+
+	/**
+	 * @return a {@link Chain} which provides the {@link #stream(Map)} output of
+	 *         this instance
+	 */
+	public Chain<Map<String, String>, Flux<String>> streaming() {
+		return this::stream;
+	}
 }
@@ -0,0 +1,26 @@
+package io.github.cupybara.javalangchains.chains.llm.openai.chat;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonCreator.Mode;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.github.cupybara.javalangchains.chains.llm.openai.OpenAiResponse;
+
+/**
+ * Model class for a single server sent event of a streamed OpenAI
+ * /chat/completions response
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class OpenAiChatCompletionsChunk extends OpenAiResponse<OpenAiChatCompletionsChunkChoice> {
+
+	/**
+	 * @param choices {@link #getChoices()}
+	 */
+	@JsonCreator(mode = Mode.PROPERTIES)
+	public OpenAiChatCompletionsChunk(final @JsonProperty("choices") List<OpenAiChatCompletionsChunkChoice> choices) {
+		super(choices);
+	}
+}
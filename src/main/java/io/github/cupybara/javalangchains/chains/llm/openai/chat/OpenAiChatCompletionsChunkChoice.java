@@ -0,0 +1,34 @@
+package io.github.cupybara.javalangchains.chains.llm.openai.chat;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonCreator.Mode;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Model class for choices in a streamed OpenAI /chat/completions response
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class OpenAiChatCompletionsChunkChoice {
+
+	/**
+	 * the {@link OpenAiChatMessage} fragment for this chunk (role and content may
+	 * be <code>null</code>)
+	 */
+	private final OpenAiChatMessage delta;
+
+	/**
+	 * @param delta {@link #delta}
+	 */
+	@JsonCreator(mode = Mode.PROPERTIES)
+	public OpenAiChatCompletionsChunkChoice(final @JsonProperty("delta") OpenAiChatMessage delta) {
+		this.delta = delta;
+	}
+
+	/**
+	 * @return {@link #delta}
+	 */
+	public OpenAiChatMessage getDelta() {
+		return delta;
+	}
+}
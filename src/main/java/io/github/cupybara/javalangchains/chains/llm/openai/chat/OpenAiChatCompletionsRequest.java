@@ -12,6 +12,12 @@ public final class OpenAiChatCompletionsRequest extends OpenAiChatCompletionsPar
 	 */
 	private final List<OpenAiChatMessage> messages;
 
+	/**
+	 * if <code>true</code> the response is streamed as server sent events
+	 * containing {@link OpenAiChatCompletionsChunk OpenAiChatCompletionsChunks}
+	 */
+	private Boolean stream;
+
 	/**
 	 * @param messages {@link #messages}
 	 */
@@ -25,4 +31,18 @@ public final class OpenAiChatCompletionsRequest extends OpenAiChatCompletionsPar
 	public List<OpenAiChatMessage> getMessages() {
 		return messages;
 	}
+
+	/**
+	 * @return {@link #stream}
+	 */
+	public Boolean getStream() {
+		return stream;
+	}
+
+	/**
+	 * @param stream {@link #stream}
+	 */
+	public void setStream(final Boolean stream) {
+		this.stream = stream;
+	}
 }
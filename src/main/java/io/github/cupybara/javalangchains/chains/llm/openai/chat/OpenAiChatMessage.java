@@ -1,6 +1,7 @@
 package io.github.cupybara.javalangchains.chains.llm.openai.chat;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonCreator.Mode;
 
@@ -8,6 +9,7 @@ import com.fasterxml.jackson.annotation.JsonCreator.Mode;
  * Model class for request and response messages of an OpenAI /chat/completions
  * request
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public final class OpenAiChatMessage {
 
 	/**
@@ -1,13 +1,21 @@
 package io.github.cupybara.javalangchains.chains.llm.openai.completions;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
 
-import org.apache.commons.text.StringSubstitutor;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knuddels.jtokkit.api.Encoding;
 
+import io.github.cupybara.javalangchains.chains.Chain;
 import io.github.cupybara.javalangchains.chains.llm.openai.OpenAiChain;
+import io.github.cupybara.javalangchains.util.PromptTemplate;
+
+import reactor.core.publisher.Mono;
 
 /**
  * {@link OpenAiChain} for usage with the OpenAI /completions API
@@ -17,17 +25,39 @@ public class OpenAiCompletionsChain
 
 	/**
 	 * @param promptTemplate {@link #getPromptTemplate()}
-	 * @param parameters     {@link #parameters}r
+	 * @param parameters     {@link #parameters}
 	 * @param apiKey         {@link #apiKey}
 	 * @param objectMapper   {@link #objectMapper}
 	 * @param webClient      {@link #webClient}
 	 */
-	public OpenAiCompletionsChain(final String promptTemplate, final OpenAiCompletionsParameters parameters,
+	public OpenAiCompletionsChain(final PromptTemplate promptTemplate, final OpenAiCompletionsParameters parameters,
 			final String apiKey, final ObjectMapper objectMapper, final WebClient webClient) {
 		super(promptTemplate, "/v1/completions", OpenAiCompletionsResponse.class, parameters, apiKey, objectMapper,
 				webClient);
 	}
 
+	/**
+	 * @param promptTemplate {@link #getPromptTemplate()}
+	 * @param parameters     {@link #parameters}
+	 * @param apiKey         {@link #apiKey}
+	 */
+	public OpenAiCompletionsChain(final PromptTemplate promptTemplate, final OpenAiCompletionsParameters parameters,
+			final String apiKey) {
+		this(promptTemplate, parameters, apiKey, createDefaultObjectMapper(), createDefaultWebClient());
+	}
+
+	/**
+	 * @param promptTemplate {@link #getPromptTemplate()}
+	 * @param parameters     {@link #parameters}
+	 * @param apiKey         {@link #apiKey}
+	 * @param objectMapper   {@link #objectMapper}
+	 * @param webClient      {@link #webClient}
+	 */
+	public OpenAiCompletionsChain(final String promptTemplate, final OpenAiCompletionsParameters parameters,
+			final String apiKey, final ObjectMapper objectMapper, final WebClient webClient) {
+		this(PromptTemplate.compile(promptTemplate), parameters, apiKey, objectMapper, webClient);
+	}
+
 	/**
 	 * @param promptTemplate {@link #getPromptTemplate()}
 	 * @param parameters     {@link #parameters}
@@ -40,11 +70,80 @@ public class OpenAiCompletionsChain
 
 	@Override
 	protected OpenAiCompletionsRequest createRequest(final Map<String, String> input) {
-		return new OpenAiCompletionsRequest(new StringSubstitutor(input).replace(getPromptTemplate()));
+		return new OpenAiCompletionsRequest(createPrompt(input));
 	}
 
 	@Override
 	protected String createOutput(final OpenAiCompletionsResponse response) {
 		return response.getChoices().get(0).getText();
 	}
+
+	/**
+	 * Creates the prompts for all passed documents and sends them to the
+	 * /completions API using a single request
+	 * 
+	 * @param inputs the documents
+	 * @return the outputs in the order of the passed documents
+	 */
+	public List<String> runBatch(final List<Map<String, String>> inputs) {
+		return runBatchReactive(inputs).block();
+	}
+
+	/**
+	 * Non blocking counterpart of {@link #runBatch(List)}
+	 * 
+	 * @param inputs the documents
+	 * @return {@link Mono} which emits the outputs in the order of the passed
+	 *         documents
+	 */
+	public Mono<List<String>> runBatchReactive(final List<Map<String, String>> inputs) {
+		return Mono.fromSupplier(() -> new OpenAiCompletionsRequest(
+				inputs.stream().map(this::createPrompt).collect(Collectors.toList())))
+				.flatMap(this::execute).map(response -> createBatchOutput(response, inputs.size()));
+	}
+
+	/**
+	 * @return a {@link Chain} which provides the {@link #runBatch(List)} output of
+	 *         this instance
+	 */
+	public Chain<List<Map<String, String>>, List<String>> batching() {
+		return this::runBatch;
+	}
+
+	/**
+	 * @param encoding the {@link Encoding} used for token counting
+	 * @return {@link ToIntFunction} which provides the token count of the prompt
+	 *         created for a document
+	 */
+	public ToIntFunction<Map<String, String>> promptTokenCounter(final Encoding encoding) {
+		return input -> encoding.countTokens(createPrompt(input));
+	}
+
+	private String createPrompt(final Map<String, String> input) {
+		return getCompiledPromptTemplate().render(input);
+	}
+
+	private List<String> createBatchOutput(final OpenAiCompletionsResponse response, final int promptCount) {
+		final int choicesPerPrompt = getParameters() == null || getParameters().getN() == null ? 1
+				: getParameters().getN();
+
+		// only the first choice of each prompt is used (like in createOutput)
+		final String[] outputs = new String[promptCount];
+		for (final OpenAiCompletionsChoice choice : response.getChoices()) {
+			final int promptIndex = choice.getIndex() / choicesPerPrompt;
+			if (promptIndex >= promptCount) {
+				throw new IllegalStateException("got choice with invalid index " + choice.getIndex());
+			}
+			if (choice.getIndex() % choicesPerPrompt == 0) {
+				outputs[promptIndex] = choice.getText();
+			}
+		}
+
+		for (int promptIndex = 0; promptIndex < promptCount; promptIndex++) {
+			if (outputs[promptIndex] == null) {
+				throw new IllegalStateException("got no choice for index " + promptIndex * choicesPerPrompt);
+			}
+		}
+		return Arrays.asList(outputs);
+	}
 }
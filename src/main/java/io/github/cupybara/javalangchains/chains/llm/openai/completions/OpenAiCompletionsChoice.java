@@ -17,11 +17,19 @@ public final class OpenAiCompletionsChoice {
 	private final String text;
 
 	/**
-	 * @param text {@link #text}
+	 * the index of this choice. For requests with multiple prompts the choices for
+	 * the prompt at position p are located at the indices p * n to p * n + n - 1.
+	 */
+	private final int index;
+
+	/**
+	 * @param text  {@link #text}
+	 * @param index {@link #index}
 	 */
 	@JsonCreator(mode = Mode.PROPERTIES)
-	public OpenAiCompletionsChoice(final @JsonProperty("text") String text) {
+	public OpenAiCompletionsChoice(final @JsonProperty("text") String text, final @JsonProperty("index") int index) {
 		this.text = text;
+		this.index = index;
 	}
 
 	/**
@@ -30,4 +38,11 @@ public final class OpenAiCompletionsChoice {
 	public String getText() {
 		return text;
 	}
+
+	/**
+	 * @return {@link #index}
+	 */
+	public int getIndex() {
+		return index;
+	}
 }
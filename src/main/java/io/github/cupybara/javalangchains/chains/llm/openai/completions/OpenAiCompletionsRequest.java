@@ -1,5 +1,10 @@
 package io.github.cupybara.javalangchains.chains.llm.openai.completions;
 
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 /**
  * Model class for the OpenAI /completions request body
  */
@@ -10,17 +15,50 @@ public final class OpenAiCompletionsRequest extends OpenAiCompletionsParameters
 	 */
 	private final String prompt;
 
+	/**
+	 * Multiple prompts for the model which are processed in a single request. The
+	 * response choices are assigned to these prompts via their index.
+	 */
+	private final List<String> prompts;
+
 	/**
 	 * @param prompt {@link #prompt}
 	 */
 	public OpenAiCompletionsRequest(final String prompt) {
 		this.prompt = prompt;
+		this.prompts = null;
+	}
+
+	/**
+	 * @param prompts {@link #prompts}
+	 */
+	public OpenAiCompletionsRequest(final List<String> prompts) {
+		this.prompt = null;
+		this.prompts = prompts;
 	}
 
 	/**
 	 * @return {@link #prompt}
 	 */
+	@JsonIgnore
 	public String getPrompt() {
 		return prompt;
 	}
+
+	/**
+	 * @return {@link #prompts}
+	 */
+	@JsonIgnore
+	public List<String> getPrompts() {
+		return prompts;
+	}
+
+	/**
+	 * @return the value of the "prompt" property which is either a single string
+	 *         or an array of strings
+	 */
+	@JsonProperty("prompt")
+	private Object getPromptValue() {
+		return prompts != null ? prompts : prompt;
+	}
 }
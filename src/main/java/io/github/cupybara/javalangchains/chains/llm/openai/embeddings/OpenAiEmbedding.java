@@ -0,0 +1,48 @@
+package io.github.cupybara.javalangchains.chains.llm.openai.embeddings;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonCreator.Mode;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Model class for embeddings in an OpenAI /embeddings response
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class OpenAiEmbedding {
+
+	/**
+	 * the embedding vector, which is deserialized without boxing its values
+	 */
+	private final float[] embedding;
+
+	/**
+	 * the index of the embedded text in the request input
+	 */
+	private final int index;
+
+	/**
+	 * @param embedding {@link #embedding}
+	 * @param index     {@link #index}
+	 */
+	@JsonCreator(mode = Mode.PROPERTIES)
+	public OpenAiEmbedding(final @JsonProperty("embedding") float[] embedding,
+			final @JsonProperty("index") int index) {
+		this.embedding = embedding;
+		this.index = index;
+	}
+
+	/**
+	 * @return {@link #embedding}
+	 */
+	public float[] getEmbedding() {
+		return embedding;
+	}
+
+	/**
+	 * @return {@link #index}
+	 */
+	public int getIndex() {
+		return index;
+	}
+}
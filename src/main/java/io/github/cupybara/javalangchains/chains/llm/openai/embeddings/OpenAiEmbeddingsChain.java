@@ -0,0 +1,317 @@
+package io.github.cupybara.javalangchains.chains.llm.openai.embeddings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.apache.logging.log4j.LogManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+
+import io.github.cupybara.javalangchains.chains.llm.EmbeddingChain;
+import io.github.cupybara.javalangchains.chains.llm.openai.OpenAiChain;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link EmbeddingChain} for usage with the OpenAI /embeddings API. The texts
+ * passed to {@link #runBatch(List)} are packed into batches limited by the
+ * count of texts and the sum of their token counts. Each batch is sent using a
+ * single request and up to {@link #maxConcurrentRequests} requests are
+ * executed concurrently.
+ */
+public class OpenAiEmbeddingsChain implements EmbeddingChain {
+
+	/**
+	 * maximum count of texts in a single request to the OpenAI API
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 2048;
+
+	/**
+	 * maximum sum of token counts in a single request to the OpenAI API
+	 */
+	public static final int DEFAULT_MAX_BATCH_TOKENS = 300_000;
+
+	/**
+	 * default count of concurrently executed requests
+	 */
+	public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+
+	/**
+	 * the buffered response size per embedding. Sufficient for 3072 dimensions
+	 * with their JSON number formatting.
+	 */
+	private static final int MAX_RESPONSE_BYTES_PER_EMBEDDING = 96 * 1024;
+
+	/**
+	 * The request path
+	 */
+	private static final String REQUEST_PATH = "/v1/embeddings";
+
+	/**
+	 * The {@link OpenAiEmbeddingsParameters} allows to tune requests to the OpenAI
+	 * API
+	 */
+	private final OpenAiEmbeddingsParameters parameters;
+
+	/**
+	 * The API-Key used for Authentication
+	 */
+	private final String apiKey;
+
+	/**
+	 * maximum count of texts in each request
+	 */
+	private final int maxBatchSize;
+
+	/**
+	 * provides the token count of a text
+	 */
+	private final ToIntFunction<String> tokenCounter;
+
+	/**
+	 * maximum sum of token counts in each request. A text which exceeds this
+	 * budget on its own is sent using a single request.
+	 */
+	private final int maxBatchTokens;
+
+	/**
+	 * maximum count of concurrently executed requests
+	 */
+	private final int maxConcurrentRequests;
+
+	/**
+	 * The {@link ObjectMapper} used for body serialization and deserialization
+	 */
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * The {@link WebClient} used for executing requests to the OpenAI API
+	 */
+	private final WebClient webClient;
+
+	/**
+	 * @param parameters            {@link #parameters}
+	 * @param apiKey                {@link #apiKey}
+	 * @param maxBatchSize          {@link #maxBatchSize}
+	 * @param tokenCounter          {@link #tokenCounter}
+	 * @param maxBatchTokens        {@link #maxBatchTokens}
+	 * @param maxConcurrentRequests {@link #maxConcurrentRequests}
+	 * @param objectMapper          {@link #objectMapper}
+	 * @param webClient             {@link #webClient}
+	 */
+	public OpenAiEmbeddingsChain(final OpenAiEmbeddingsParameters parameters, final String apiKey,
+			final int maxBatchSize, final ToIntFunction<String> tokenCounter, final int maxBatchTokens,
+			final int maxConcurrentRequests, final ObjectMapper objectMapper, final WebClient webClient) {
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("maxBatchSize must be positive");
+		}
+		if (maxConcurrentRequests < 1) {
+			throw new IllegalArgumentException("maxConcurrentRequests must be positive");
+		}
+		this.parameters = parameters;
+		this.apiKey = apiKey;
+		this.maxBatchSize = maxBatchSize;
+		this.tokenCounter = tokenCounter;
+		this.maxBatchTokens = maxBatchTokens;
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		this.objectMapper = objectMapper;
+		this.webClient = webClient;
+	}
+
+	/**
+	 * @param parameters            {@link #parameters}
+	 * @param apiKey                {@link #apiKey}
+	 * @param maxBatchSize          {@link #maxBatchSize}
+	 * @param encoding              the {@link Encoding} used for token counting
+	 * @param maxBatchTokens        {@link #maxBatchTokens}
+	 * @param maxConcurrentRequests {@link #maxConcurrentRequests}
+	 */
+	public OpenAiEmbeddingsChain(final OpenAiEmbeddingsParameters parameters, final String apiKey,
+			final int maxBatchSize, final Encoding encoding, final int maxBatchTokens,
+			final int maxConcurrentRequests) {
+		this(parameters, apiKey, maxBatchSize, encoding::countTokens, maxBatchTokens, maxConcurrentRequests,
+				OpenAiChain.createDefaultObjectMapper(), createDefaultWebClient(maxBatchSize));
+	}
+
+	/**
+	 * creates an {@link OpenAiEmbeddingsChain} which counts tokens using the
+	 * cl100k_base encoding and sends up to {@link #DEFAULT_MAX_BATCH_SIZE} texts
+	 * per request
+	 * 
+	 * @param parameters {@link #parameters}
+	 * @param apiKey     {@link #apiKey}
+	 */
+	public OpenAiEmbeddingsChain(final OpenAiEmbeddingsParameters parameters, final String apiKey) {
+		this(parameters, apiKey, DEFAULT_MAX_BATCH_SIZE,
+				Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.CL100K_BASE),
+				DEFAULT_MAX_BATCH_TOKENS, DEFAULT_MAX_CONCURRENT_REQUESTS);
+	}
+
+	@Override
+	public List<float[]> runBatch(final List<String> inputs) {
+		return runBatchReactive(inputs).block();
+	}
+
+	/**
+	 * Executes the request without blocking the calling thread. The passed
+	 * {@link Executor} is not used since the {@link WebClient} performs the
+	 * request on its own event loop.
+	 */
+	@Override
+	public CompletableFuture<float[]> runAsync(final String input, final Executor executor) {
+		return runBatchReactive(Collections.singletonList(input)).map(embeddings -> embeddings.get(0)).toFuture();
+	}
+
+	/**
+	 * Non blocking counterpart of {@link #runBatch(List)}
+	 * 
+	 * @param inputs the texts
+	 * @return {@link Mono} which emits the embeddings in the order of the passed
+	 *         texts
+	 */
+	public Mono<List<float[]>> runBatchReactive(final List<String> inputs) {
+		return Flux.fromIterable(createBatches(inputs)).flatMapSequential(this::embed, maxConcurrentRequests)
+				.concatMapIterable(Function.identity()).collectList();
+	}
+
+	/**
+	 * the model id consists of the request path and the model
+	 */
+	@Override
+	public String getModelId() {
+		return REQUEST_PATH + '\n' + (parameters == null ? null : parameters.getModel());
+	}
+
+	/**
+	 * executes the request to the OpenAI API. Protected so that it may be
+	 * overridden for other OpenAI API Providers.
+	 * 
+	 * @param request      the request entity
+	 * @param webClient    the {@link WebClient} to use for the request
+	 * @param objectMapper the {@link ObjectMapper} used for body serialization
+	 * @return the {@link ResponseSpec}
+	 */
+	protected ResponseSpec createResponseSpec(final OpenAiEmbeddingsRequest request, final WebClient webClient,
+			final ObjectMapper objectMapper) {
+		return webClient.post()
+				.uri(UriComponentsBuilder.newInstance().scheme("https").host("api.openai.com").path(REQUEST_PATH)
+						.build().toUri())
+				.contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+				.body(BodyInserters.fromValue(requestToBody(request, objectMapper))).retrieve();
+	}
+
+	/**
+	 * Serializes the request entity
+	 * 
+	 * @param request      the request entity to serialize
+	 * @param objectMapper {@link ObjectMapper} used for serialization
+	 * @return serialized the serialized request body
+	 */
+	protected String requestToBody(final OpenAiEmbeddingsRequest request, final ObjectMapper objectMapper) {
+		try {
+			return objectMapper.writeValueAsString(request);
+		} catch (final JsonProcessingException jsonProcessingException) {
+			throw new IllegalStateException("error creating request body", jsonProcessingException);
+		}
+	}
+
+	/**
+	 * @return {@link #parameters}
+	 */
+	protected final OpenAiEmbeddingsParameters getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * @return {@link #apiKey}
+	 */
+	protected final String getApiKey() {
+		return apiKey;
+	}
+
+	/**
+	 * creates a {@link WebClient} which buffers responses of up to maxBatchSize
+	 * embeddings. The response body is decoded directly into the
+	 * {@link OpenAiEmbeddingsResponse}, so the embeddings are not copied into an
+	 * intermediate String.
+	 * 
+	 * @param maxBatchSize maximum count of texts in each request
+	 * @return a default configured {@link WebClient}
+	 */
+	public static WebClient createDefaultWebClient(final int maxBatchSize) {
+		final int maxInMemorySize = (int) Math.min(Integer.MAX_VALUE,
+				(long) maxBatchSize * MAX_RESPONSE_BYTES_PER_EMBEDDING);
+		return WebClient.builder().codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(maxInMemorySize))
+				.build();
+	}
+
+	/**
+	 * packs the texts into batches limited by {@link #maxBatchSize} and
+	 * {@link #maxBatchTokens}
+	 */
+	private List<List<String>> createBatches(final List<String> inputs) {
+		final List<List<String>> batches = new ArrayList<>();
+		int batchStart = 0;
+		int batchTokens = 0;
+		for (int index = 0; index < inputs.size(); index++) {
+			final int tokens = tokenCounter.applyAsInt(inputs.get(index));
+			// a text which exceeds the token budget on its own forms a single batch
+			if (index > batchStart && (index - batchStart >= maxBatchSize || batchTokens + tokens > maxBatchTokens)) {
+				batches.add(inputs.subList(batchStart, index));
+				batchStart = index;
+				batchTokens = 0;
+			}
+			batchTokens += tokens;
+		}
+		if (batchStart < inputs.size()) {
+			batches.add(inputs.subList(batchStart, inputs.size()));
+		}
+		return batches;
+	}
+
+	private Mono<List<float[]>> embed(final List<String> batch) {
+		return Mono.fromSupplier(() -> {
+			LogManager.getLogger(getClass()).trace("embedding batch of {} texts", batch.size());
+			final OpenAiEmbeddingsRequest request = new OpenAiEmbeddingsRequest(batch);
+			if (parameters != null) {
+				request.copyFrom(parameters);
+			}
+			return request;
+		}).flatMap(request -> createResponseSpec(request, webClient, objectMapper)
+				.bodyToMono(OpenAiEmbeddingsResponse.class))
+				.map(response -> createEmbeddings(response, batch.size()));
+	}
+
+	private static List<float[]> createEmbeddings(final OpenAiEmbeddingsResponse response, final int inputCount) {
+		final float[][] embeddings = new float[inputCount][];
+		for (final OpenAiEmbedding embedding : response.getData()) {
+			if (embedding.getIndex() < 0 || embedding.getIndex() >= inputCount) {
+				throw new IllegalStateException("got embedding with invalid index " + embedding.getIndex());
+			}
+			embeddings[embedding.getIndex()] = embedding.getEmbedding();
+		}
+		for (int index = 0; index < inputCount; index++) {
+			if (embeddings[index] == null) {
+				throw new IllegalStateException("got no embedding for index " + index);
+			}
+		}
+		return Arrays.asList(embeddings);
+	}
+}
@@ -0,0 +1,83 @@
+package io.github.cupybara.javalangchains.chains.llm.openai.embeddings;
+
+/**
+ * Parameters for calling an OpenAI Embeddings Model
+ * 
+ * https://platform.openai.com/docs/api-reference/embeddings/create
+ */
+public class OpenAiEmbeddingsParameters {
+
+	/**
+	 * <h2>From
+	 * https://github.com/openai/openai-openapi/blob/master/openapi.yaml</h2>
+	 * 
+	 * ID of the model to use.
+	 */
+	private String model;
+
+	/**
+	 * <h2>From
+	 * https://github.com/openai/openai-openapi/blob/master/openapi.yaml</h2>
+	 * 
+	 * A unique identifier representing your end-user, which can help OpenAI to
+	 * monitor and detect abuse.
+	 */
+	private String user;
+
+	/**
+	 * @return {@link #model}
+	 */
+	public String getModel() {
+		return model;
+	}
+
+	/**
+	 * @param model {@link #model}
+	 */
+	public void setModel(final String model) {
+		this.model = model;
+	}
+
+	/**
+	 * @param model {@link #model}
+	 * @return this
+	 */
+	public OpenAiEmbeddingsParameters model(final String model) {
+		setModel(model);
+		return this;
+	}
+
+	/**
+	 * @return {@link #user}
+	 */
+	public String getUser() {
+		return user;
+	}
+
+	/**
+	 * @param user {@link #user}
+	 */
+	public void setUser(final String user) {
+		this.user = user;
+	}
+
+	/**
+	 * @param user {@link #user}
+	 * @return this
+	 */
+	public OpenAiEmbeddingsParameters user(final String user) {
+		setUser(user);
+		return this;
+	}
+
+	/**
+	 * copies parameter values from another instance of
+	 * {@link OpenAiEmbeddingsParameters}
+	 * 
+	 * @param parameters the source {@link OpenAiEmbeddingsParameters}
+	 */
+	public void copyFrom(final OpenAiEmbeddingsParameters parameters) {
+		this.setModel(parameters.getModel());
+		this.setUser(parameters.getUser());
+	}
+}
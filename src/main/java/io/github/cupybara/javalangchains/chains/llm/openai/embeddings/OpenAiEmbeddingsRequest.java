@@ -0,0 +1,29 @@
+package io.github.cupybara.javalangchains.chains.llm.openai.embeddings;
+
+import java.util.List;
+
+/**
+ * Model class for the OpenAI /embeddings request body
+ */
+public final class OpenAiEmbeddingsRequest extends OpenAiEmbeddingsParameters {
+
+	/**
+	 * The texts to embed. The response embeddings are assigned to these texts via
+	 * their index.
+	 */
+	private final List<String> input;
+
+	/**
+	 * @param input {@link #input}
+	 */
+	public OpenAiEmbeddingsRequest(final List<String> input) {
+		this.input = input;
+	}
+
+	/**
+	 * @return {@link #input}
+	 */
+	public List<String> getInput() {
+		return input;
+	}
+}
@@ -0,0 +1,35 @@
+package io.github.cupybara.javalangchains.chains.llm.openai.embeddings;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonCreator.Mode;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Model class for the response body of an OpenAI /embeddings request
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class OpenAiEmbeddingsResponse {
+
+	/**
+	 * All contained embeddings of the response.
+	 */
+	private final List<OpenAiEmbedding> data;
+
+	/**
+	 * @param data {@link #data}
+	 */
+	@JsonCreator(mode = Mode.PROPERTIES)
+	public OpenAiEmbeddingsResponse(final @JsonProperty("data") List<OpenAiEmbedding> data) {
+		this.data = data;
+	}
+
+	/**
+	 * @return {@link #data}
+	 */
+	public List<OpenAiEmbedding> getData() {
+		return data;
+	}
+}
@@ -1,36 +1,89 @@
 package io.github.cupybara.javalangchains.chains.qa;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
+import java.util.function.ToIntFunction;
 import java.util.stream.Stream;
 
-import org.apache.commons.text.StringSubstitutor;
-
 import io.github.cupybara.javalangchains.chains.Chain;
 import io.github.cupybara.javalangchains.util.PromptConstants;
+import io.github.cupybara.javalangchains.util.PromptTemplate;
 import io.github.cupybara.javalangchains.util.PromptTemplates;
 
 /**
  * This {@link Chain} is used to combine multiple retrieved documents into one
- * prompt which can then be used to target a LLM in subsequent steps.
+ * prompt which can then be used to target a LLM in subsequent steps. All
+ * documents are rendered into one shared buffer. If a max length is configured
+ * the combination stops before the first document which would exceed it, so no
+ * further input documents are consumed.
  */
 public class CombineDocumentsChain implements Chain<Stream<Map<String, String>>, Map<String, String>> {
 
+	private static final String DOCUMENT_SEPARATOR = "\n\n";
+
 	/**
 	 * The template for each single document which contains placeholders in the form
 	 * ${myPlaceholder} that are replaced for each the keys of each input document.
 	 */
-	private final String documentPromptTemplate;
+	private final PromptTemplate documentPromptTemplate;
+
+	/**
+	 * max length of the combined content ({@link Integer#MAX_VALUE} for no limit)
+	 */
+	private final int maxLength;
+
+	/**
+	 * provides the length of a rendered document (for example its token count).
+	 * <code>null</code> if the length is measured in characters.
+	 */
+	private final ToIntFunction<String> lengthFunction;
+
+	/**
+	 * creates an instance of the {@link CombineDocumentsChain} which stops
+	 * combining documents when the summed up lengths provided by the
+	 * lengthFunction would exceed the maxLength. Can be used with a token counter
+	 * like <code>encoding::countTokens</code> to fit the model context.
+	 *
+	 * @param documentPromptTemplate {@link #documentPromptTemplate}
+	 * @param maxLength              {@link #maxLength}
+	 * @param lengthFunction         {@link #lengthFunction}
+	 */
+	public CombineDocumentsChain(final PromptTemplate documentPromptTemplate, final int maxLength,
+			final ToIntFunction<String> lengthFunction) {
+		this.documentPromptTemplate = documentPromptTemplate;
+		this.maxLength = maxLength;
+		this.lengthFunction = lengthFunction;
+	}
+
+	/**
+	 * creates an instance of the {@link CombineDocumentsChain} which stops
+	 * combining documents when the combined content would exceed maxLength
+	 * characters
+	 *
+	 * @param documentPromptTemplate {@link #documentPromptTemplate}
+	 * @param maxLength              {@link #maxLength}
+	 */
+	public CombineDocumentsChain(final PromptTemplate documentPromptTemplate, final int maxLength) {
+		this(documentPromptTemplate, maxLength, null);
+	}
 
 	/**
 	 * creates an instance of the {@link CombineDocumentsChain}
-	 * 
+	 *
+	 * @param documentPromptTemplate {@link #documentPromptTemplate}
+	 */
+	public CombineDocumentsChain(final PromptTemplate documentPromptTemplate) {
+		this(documentPromptTemplate, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * creates an instance of the {@link CombineDocumentsChain}
+	 *
 	 * @param documentPromptTemplate {@link #documentPromptTemplate}
 	 */
 	public CombineDocumentsChain(final String documentPromptTemplate) {
-		this.documentPromptTemplate = documentPromptTemplate;
+		this(PromptTemplate.compile(documentPromptTemplate));
 	}
 
 	/**
@@ -42,22 +95,48 @@ public class CombineDocumentsChain implements Chain<Stream<Map<String, String>>,
 
 	@Override
 	public Map<String, String> run(final Stream<Map<String, String>> input) {
-		final AtomicReference<String> questionRef = new AtomicReference<>();
+		final boolean bounded = maxLength != Integer.MAX_VALUE;
+		// not sized by maxLength, which is usually far larger than the retrieved
+		// content. rendering ensures the capacity for each appended document.
+		final StringBuilder combinedContent = new StringBuilder();
+
+		String question = null;
+		int combinedLength = 0;
 
-		final String combinedContent = input.map(document -> {
-			if (questionRef.get() == null) {
-				questionRef.set(document.get(PromptConstants.QUESTION));
+		final Iterator<Map<String, String>> documents = input.iterator();
+		while (documents.hasNext()) {
+			final Map<String, String> document = documents.next();
+			if (question == null) {
+				question = document.get(PromptConstants.QUESTION);
 			}
-			return this.createDocumentPrompt(document);
-		}).collect(Collectors.joining("\n\n"));
+
+			final int start = combinedContent.length();
+			final String separator = start == 0 ? "" : DOCUMENT_SEPARATOR;
+
+			if (bounded && lengthFunction == null) {
+				// the exact length is known before rendering
+				final int documentLength = separator.length() + documentPromptTemplate.getRenderedLength(document);
+				if (combinedLength + documentLength > maxLength) {
+					break;
+				}
+				combinedLength += documentLength;
+			}
+
+			documentPromptTemplate.render(document, combinedContent.append(separator));
+
+			if (bounded && lengthFunction != null) {
+				final int documentLength = lengthFunction.applyAsInt(combinedContent.substring(start));
+				if (combinedLength + documentLength > maxLength) {
+					combinedContent.setLength(start);
+					break;
+				}
+				combinedLength += documentLength;
+			}
+		}
 
 		final Map<String, String> result = new HashMap<>();
-		result.put(PromptConstants.QUESTION, questionRef.get());
-		result.put(PromptConstants.CONTENT, combinedContent);
+		result.put(PromptConstants.QUESTION, question);
+		result.put(PromptConstants.CONTENT, combinedContent.toString());
 		return result;
 	}
-
-	private String createDocumentPrompt(final Map<String, String> document) {
-		return new StringSubstitutor(document).replace(documentPromptTemplate);
-	}
 }
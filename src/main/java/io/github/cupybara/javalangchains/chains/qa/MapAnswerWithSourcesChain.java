@@ -1,12 +1,16 @@
 package io.github.cupybara.javalangchains.chains.qa;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import io.github.cupybara.javalangchains.chains.Chain;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 /**
  * Splits answers with sources from a QA chain.
  * 
@@ -24,6 +28,13 @@ import io.github.cupybara.javalangchains.chains.Chain;
  */
 public class MapAnswerWithSourcesChain implements Chain<String, AnswerWithSources> {
 
+	/**
+	 * amount of already received characters which are searched again for the
+	 * sources marker when streaming, since the marker might be split between two
+	 * fragments
+	 */
+	private static final int MARKER_OVERLAP = 64;
+
 	/**
 	 * this {@link Pattern} is used to retrieve sources from a qa result string
 	 */
@@ -57,12 +68,101 @@ public class MapAnswerWithSourcesChain implements Chain<String, AnswerWithSource
 		final Matcher matcher = retrieveSourcesPattern.matcher(input);
 
 		if (matcher.find()) {
-			final String content = matcher.group(1).trim();
-			final String sources = matcher.group(2).trim();
-			return new AnswerWithSources(content,
-					Arrays.stream(sources.split(",")).map(String::trim).distinct().collect(Collectors.toList()));
+			return new AnswerWithSources(matcher.group(1).trim(), parseSources(matcher.group(2)));
 		} else {
 			return new AnswerWithSources(input);
 		}
 	}
+
+	/**
+	 * consumes an incrementally generated LLM output (see
+	 * OpenAiChatCompletionsChain#stream) and emits an updated
+	 * {@link AnswerWithSources} for each received fragment. Only the received
+	 * fragment is searched for the sources marker, and once the marker was found
+	 * only the sources are parsed again. The last emitted instance equals the
+	 * result of {@link #run(String)} for the complete output (which is emitted
+	 * additionally if the incremental parsing differs).
+	 * 
+	 * @param input {@link Flux} of LLM output fragments
+	 * @return {@link Flux} of {@link AnswerWithSources} for the output received so
+	 *         far
+	 */
+	public Flux<AnswerWithSources> stream(final Flux<String> input) {
+		return Flux.defer(() -> {
+			final IncrementalParser parser = new IncrementalParser();
+			return input.map(parser::append).concatWith(Mono.fromCallable(parser::complete));
+		});
+	}
+
+	/**
+	 * @return a {@link Chain} which provides the {@link #stream(Flux)} output of
+	 *         this instance
+	 */
+	public Chain<Flux<String>, Flux<AnswerWithSources>> streaming() {
+		return this::stream;
+	}
+
+	private static List<String> parseSources(final String sources) {
+		return Arrays.stream(sources.trim().split(",")).map(String::trim).distinct().collect(Collectors.toList());
+	}
+
+	/**
+	 * parses the output of one {@link #stream(Flux)} subscription
+	 */
+	private final class IncrementalParser {
+
+		private final StringBuilder output = new StringBuilder();
+
+		/**
+		 * index of the {@link #output} from which the sources marker is searched
+		 */
+		private int searchIndex;
+
+		/**
+		 * the answer once the sources marker was found, <code>null</code> before
+		 */
+		private String answer;
+
+		/**
+		 * index of the {@link #output} where the sources start
+		 */
+		private int sourcesIndex;
+
+		private AnswerWithSources lastAnswerWithSources;
+
+		private AnswerWithSources append(final String fragment) {
+			output.append(fragment);
+
+			if (answer == null) {
+				final Matcher matcher = retrieveSourcesPattern.matcher(output);
+				matcher.region(searchIndex, output.length());
+				if (!matcher.find()) {
+					searchIndex = Math.max(0, output.length() - MARKER_OVERLAP);
+					lastAnswerWithSources = new AnswerWithSources(output.toString());
+					return lastAnswerWithSources;
+				}
+				answer = output.substring(0, matcher.end(1)).trim();
+				sourcesIndex = matcher.start(2);
+			}
+
+			lastAnswerWithSources = new AnswerWithSources(answer, parseSources(output.substring(sourcesIndex)));
+			return lastAnswerWithSources;
+		}
+
+		/**
+		 * @return the result of {@link #run(String)} for the complete output if it
+		 *         differs from the last emitted instance, <code>null</code> otherwise
+		 */
+		private AnswerWithSources complete() {
+			if (lastAnswerWithSources == null) {
+				return null;
+			}
+			final AnswerWithSources answerWithSources = run(output.toString());
+			if (answerWithSources.getAnswer().equals(lastAnswerWithSources.getAnswer())
+					&& answerWithSources.getSources().equals(lastAnswerWithSources.getSources())) {
+				return null;
+			}
+			return answerWithSources;
+		}
+	}
 }
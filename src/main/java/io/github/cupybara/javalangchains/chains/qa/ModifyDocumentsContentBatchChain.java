@@ -0,0 +1,163 @@
+package io.github.cupybara.javalangchains.chains.qa;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.logging.log4j.LogManager;
+
+import io.github.cupybara.javalangchains.chains.Chain;
+import io.github.cupybara.javalangchains.util.PromptConstants;
+
+/**
+ * Batching variant of the {@link ModifyDocumentsContentChain}. The input
+ * documents are lazily packed into batches which are passed to a batch chain
+ * (for example OpenAiCompletionsChain#batching() which sends all prompts of a
+ * batch using a single request). The {@link PromptConstants#CONTENT} of each
+ * document is replaced by the corresponding batch output.
+ */
+public class ModifyDocumentsContentBatchChain
+		implements Chain<Stream<Map<String, String>>, Stream<Map<String, String>>> {
+
+	/**
+	 * this {@link Chain} is applied to each batch of documents and provides one
+	 * output for each document in the order of the batch
+	 */
+	private final Chain<List<Map<String, String>>, List<String>> batchDocumentChain;
+
+	/**
+	 * maximum count of documents in each batch
+	 */
+	private final int maxBatchSize;
+
+	/**
+	 * provides the weight (the prompt token count for example) of a document
+	 */
+	private final ToIntFunction<Map<String, String>> documentWeigher;
+
+	/**
+	 * maximum sum of document weights in each batch
+	 */
+	private final int maxBatchWeight;
+
+	/**
+	 * @param batchDocumentChain {@link #batchDocumentChain}
+	 * @param maxBatchSize       {@link #maxBatchSize}
+	 * @param documentWeigher    {@link #documentWeigher}
+	 * @param maxBatchWeight     {@link #maxBatchWeight}
+	 */
+	public ModifyDocumentsContentBatchChain(final Chain<List<Map<String, String>>, List<String>> batchDocumentChain,
+			final int maxBatchSize, final ToIntFunction<Map<String, String>> documentWeigher,
+			final int maxBatchWeight) {
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("maxBatchSize must be positive");
+		}
+		this.batchDocumentChain = batchDocumentChain;
+		this.maxBatchSize = maxBatchSize;
+		this.documentWeigher = documentWeigher;
+		this.maxBatchWeight = maxBatchWeight;
+	}
+
+	/**
+	 * creates a {@link ModifyDocumentsContentBatchChain} which only limits the
+	 * count of documents in each batch
+	 * 
+	 * @param batchDocumentChain {@link #batchDocumentChain}
+	 * @param maxBatchSize       {@link #maxBatchSize}
+	 */
+	public ModifyDocumentsContentBatchChain(final Chain<List<Map<String, String>>, List<String>> batchDocumentChain,
+			final int maxBatchSize) {
+		this(batchDocumentChain, maxBatchSize, document -> 0, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public Stream<Map<String, String>> run(final Stream<Map<String, String>> input) {
+		final Iterator<List<Map<String, String>>> batchIterator = new BatchIterator(input.iterator());
+
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(batchIterator, Spliterator.ORDERED | Spliterator.NONNULL),
+						false)
+				.flatMap(this::modifyBatch).onClose(input::close);
+	}
+
+	private Stream<Map<String, String>> modifyBatch(final List<Map<String, String>> batch) {
+		LogManager.getLogger(getClass()).trace("modifying batch of {} documents", batch.size());
+
+		final List<String> mappedContents = batchDocumentChain.run(batch);
+		if (mappedContents.size() != batch.size()) {
+			throw new IllegalStateException(
+					"got " + mappedContents.size() + " outputs for a batch of " + batch.size() + " documents");
+		}
+
+		return IntStream.range(0, batch.size()).mapToObj(index -> {
+			final Map<String, String> mappedDocument = new HashMap<>(batch.get(index));
+			mappedDocument.put(PromptConstants.CONTENT, mappedContents.get(index));
+			return mappedDocument;
+		});
+	}
+
+	/**
+	 * packs the documents of the underlying {@link Iterator} into batches
+	 */
+	private final class BatchIterator implements Iterator<List<Map<String, String>>> {
+
+		private final Iterator<Map<String, String>> documents;
+
+		/**
+		 * the first document of the next batch which did not fit into the previous one
+		 */
+		private Map<String, String> pendingDocument;
+		private int pendingDocumentWeight;
+
+		private BatchIterator(final Iterator<Map<String, String>> documents) {
+			this.documents = documents;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return pendingDocument != null || documents.hasNext();
+		}
+
+		@Override
+		public List<Map<String, String>> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No more batches");
+			}
+
+			final List<Map<String, String>> batch = new ArrayList<>(maxBatchSize);
+			int batchWeight = 0;
+
+			if (pendingDocument != null) {
+				batch.add(pendingDocument);
+				batchWeight = pendingDocumentWeight;
+				pendingDocument = null;
+			}
+
+			while (batch.size() < maxBatchSize && documents.hasNext()) {
+				final Map<String, String> document = documents.next();
+				final int documentWeight = documentWeigher.applyAsInt(document);
+
+				// a document which exceeds the max weight on its own forms a single batch
+				if (!batch.isEmpty() && batchWeight + documentWeight > maxBatchWeight) {
+					pendingDocument = document;
+					pendingDocumentWeight = documentWeight;
+					break;
+				}
+
+				batch.add(document);
+				batchWeight += documentWeight;
+			}
+
+			return batch;
+		}
+	}
+}
@@ -1,8 +1,23 @@
 package io.github.cupybara.javalangchains.chains.qa;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.logging.log4j.LogManager;
 
@@ -27,6 +42,27 @@ public class ModifyDocumentsContentChain implements Chain<Stream<Map<String, Str
 	 */
 	private final boolean parallel;
 
+	/**
+	 * if set the {@link #documentChain} is executed by this {@link Executor}
+	 * instead of a parallel {@link Stream}. Each document is submitted as a
+	 * {@link FutureTask}, so documents which are not needed anymore (after a
+	 * timeout, a failure or closing the resulting stream) are cancelled by
+	 * interrupting their thread.
+	 */
+	private final Executor executor;
+
+	/**
+	 * maximum count of documents which are processed concurrently using the
+	 * {@link #executor}
+	 */
+	private final int maxConcurrency;
+
+	/**
+	 * optional maximum processing duration for each document using the
+	 * {@link #executor}
+	 */
+	private final Duration timeout;
+
 	/**
 	 * @param documentChain {@link #documentChain}
 	 * @param parallel      {@link #parallel}
@@ -34,6 +70,9 @@ public class ModifyDocumentsContentChain implements Chain<Stream<Map<String, Str
 	public ModifyDocumentsContentChain(final Chain<Map<String, String>, String> documentChain, final boolean parallel) {
 		this.documentChain = documentChain;
 		this.parallel = parallel;
+		this.executor = null;
+		this.maxConcurrency = 1;
+		this.timeout = null;
 	}
 
 	/**
@@ -43,16 +82,56 @@ public class ModifyDocumentsContentChain implements Chain<Stream<Map<String, Str
 		this(documentChain, true);
 	}
 
+	/**
+	 * creates a {@link ModifyDocumentsContentChain} which processes at most
+	 * maxConcurrency documents at once using the passed {@link Executor} (instead
+	 * of the common pool used by parallel streams). The order of the documents is
+	 * retained.
+	 * 
+	 * @param documentChain  {@link #documentChain}
+	 * @param executor       {@link #executor}
+	 * @param maxConcurrency {@link #maxConcurrency}
+	 * @param timeout        {@link #timeout}
+	 */
+	public ModifyDocumentsContentChain(final Chain<Map<String, String>, String> documentChain, final Executor executor,
+			final int maxConcurrency, final Duration timeout) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("maxConcurrency must be positive");
+		}
+		this.documentChain = documentChain;
+		this.parallel = false;
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * creates a {@link ModifyDocumentsContentChain} which processes at most
+	 * maxConcurrency documents at once using the passed {@link Executor} without a
+	 * timeout
+	 * 
+	 * @param documentChain  {@link #documentChain}
+	 * @param executor       {@link #executor}
+	 * @param maxConcurrency {@link #maxConcurrency}
+	 */
+	public ModifyDocumentsContentChain(final Chain<Map<String, String>, String> documentChain, final Executor executor,
+			final int maxConcurrency) {
+		this(documentChain, executor, maxConcurrency, null);
+	}
+
 	@Override
 	public Stream<Map<String, String>> run(final Stream<Map<String, String>> input) {
+		if (executor != null) {
+			final ConcurrentModificationIterator documents = new ConcurrentModificationIterator(input.iterator());
+			return StreamSupport
+					.stream(Spliterators.spliteratorUnknownSize(documents, Spliterator.ORDERED | Spliterator.NONNULL),
+							false)
+					.onClose(documents::cancel).onClose(input::close);
+		}
+
 		final Stream<Map<String, String>> stream = input.map(document -> {
 			LogManager.getLogger(getClass()).trace("pre modification: {}", document);
-			final String mappedContent = documentChain.run(document);
-			LogManager.getLogger(getClass()).trace("post modification: {}", mappedContent);
-
-			final Map<String, String> mappedDocument = new HashMap<>(document);
-			mappedDocument.put(PromptConstants.CONTENT, mappedContent);
-			return mappedDocument;
+			return createMappedDocument(document, documentChain.run(document));
 		});
 
 		if (parallel) {
@@ -61,4 +140,111 @@ public class ModifyDocumentsContentChain implements Chain<Stream<Map<String, Str
 
 		return stream;
 	}
+
+	private Map<String, String> createMappedDocument(final Map<String, String> document, final String mappedContent) {
+		LogManager.getLogger(getClass()).trace("post modification: {}", mappedContent);
+
+		final Map<String, String> mappedDocument = new HashMap<>(document);
+		mappedDocument.put(PromptConstants.CONTENT, mappedContent);
+		return mappedDocument;
+	}
+
+	/**
+	 * keeps up to {@link #maxConcurrency} documents in flight and provides their
+	 * results in the order of the input documents
+	 */
+	private final class ConcurrentModificationIterator implements Iterator<Map<String, String>> {
+
+		private final Iterator<Map<String, String>> documents;
+		private final Deque<InFlightDocument> inFlightDocuments = new ArrayDeque<>();
+
+		private ConcurrentModificationIterator(final Iterator<Map<String, String>> documents) {
+			this.documents = documents;
+		}
+
+		@Override
+		public boolean hasNext() {
+			fill();
+			return !inFlightDocuments.isEmpty();
+		}
+
+		@Override
+		public Map<String, String> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No more documents");
+			}
+
+			try {
+				return inFlightDocuments.poll().await();
+			} catch (final RuntimeException runtimeException) {
+				// the results of the following documents will not be consumed
+				cancel();
+				throw runtimeException;
+			}
+		}
+
+		private void fill() {
+			while (inFlightDocuments.size() < maxConcurrency && documents.hasNext()) {
+				final Map<String, String> document = documents.next();
+				LogManager.getLogger(getClass()).trace("pre modification: {}", document);
+
+				final FutureTask<Map<String, String>> mappedDocument = new FutureTask<>(
+						() -> createMappedDocument(document, documentChain.run(document)));
+				try {
+					executor.execute(mappedDocument);
+				} catch (final RejectedExecutionException rejectedExecutionException) {
+					cancel();
+					throw new IllegalStateException("could not submit document " + document,
+							rejectedExecutionException);
+				}
+				inFlightDocuments.add(new InFlightDocument(document, mappedDocument));
+			}
+		}
+
+		/**
+		 * cancels all documents which are in flight
+		 */
+		private void cancel() {
+			InFlightDocument inFlightDocument;
+			while ((inFlightDocument = inFlightDocuments.poll()) != null) {
+				inFlightDocument.mappedDocument.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * a document which is currently processed by the {@link #documentChain}
+	 */
+	private final class InFlightDocument {
+
+		private final Map<String, String> document;
+		private final Future<Map<String, String>> mappedDocument;
+		private final long startNanos = System.nanoTime();
+
+		private InFlightDocument(final Map<String, String> document,
+				final Future<Map<String, String>> mappedDocument) {
+			this.document = document;
+			this.mappedDocument = mappedDocument;
+		}
+
+		private Map<String, String> await() {
+			try {
+				if (timeout == null) {
+					return mappedDocument.get();
+				}
+
+				final long remainingNanos = timeout.toNanos() - (System.nanoTime() - startNanos);
+				return mappedDocument.get(Math.max(remainingNanos, 0L), TimeUnit.NANOSECONDS);
+			} catch (final TimeoutException timeoutException) {
+				mappedDocument.cancel(true);
+				throw new IllegalStateException("timeout modifying document " + document, timeoutException);
+			} catch (final ExecutionException executionException) {
+				throw new IllegalStateException("error modifying document " + document, executionException.getCause());
+			} catch (final InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted while modifying document " + document,
+						interruptedException);
+			}
+		}
+	}
 }
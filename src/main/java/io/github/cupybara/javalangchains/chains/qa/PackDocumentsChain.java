@@ -0,0 +1,148 @@
+package io.github.cupybara.javalangchains.chains.qa;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+
+import com.knuddels.jtokkit.api.Encoding;
+
+import io.github.cupybara.javalangchains.chains.Chain;
+import io.github.cupybara.javalangchains.util.PromptConstants;
+import io.github.cupybara.javalangchains.util.PromptTemplate;
+import io.github.cupybara.javalangchains.util.PromptTemplates;
+
+/**
+ * This {@link Chain} packs retrieved documents into one or more combined
+ * documents (like the output of the {@link CombineDocumentsChain}) which each
+ * fit into a token budget. Documents are appended in input order (which is the
+ * score order for retrieved documents) and a new combined document is started
+ * when the next document does not fit, so the combined documents retain the
+ * score order. A document which exceeds the budget on its own is provided as a
+ * separate combined document. The following combined documents can be
+ * processed using a refine or map-reduce step.
+ */
+public class PackDocumentsChain implements Chain<Stream<Map<String, String>>, Stream<Map<String, String>>> {
+
+	private static final String DOCUMENT_SEPARATOR = "\n\n";
+
+	/**
+	 * The template for each single document which contains placeholders in the form
+	 * ${myPlaceholder} that are replaced for each the keys of each input document.
+	 */
+	private final PromptTemplate documentPromptTemplate;
+
+	/**
+	 * max length of each combined document
+	 */
+	private final int maxLength;
+
+	/**
+	 * provides the length of a rendered document (like its token count)
+	 */
+	private final ToIntFunction<String> lengthFunction;
+
+	/**
+	 * the length of the separator between two documents
+	 */
+	private final int separatorLength;
+
+	/**
+	 * creates an instance of the {@link PackDocumentsChain}
+	 *
+	 * @param documentPromptTemplate {@link #documentPromptTemplate}
+	 * @param maxLength              {@link #maxLength}
+	 * @param lengthFunction         {@link #lengthFunction}
+	 */
+	public PackDocumentsChain(final PromptTemplate documentPromptTemplate, final int maxLength,
+			final ToIntFunction<String> lengthFunction) {
+		this.documentPromptTemplate = documentPromptTemplate;
+		this.maxLength = maxLength;
+		this.lengthFunction = lengthFunction;
+		this.separatorLength = lengthFunction.applyAsInt(DOCUMENT_SEPARATOR);
+	}
+
+	/**
+	 * creates an instance of the {@link PackDocumentsChain} which uses token
+	 * counts provided by an {@link Encoding}
+	 *
+	 * @param documentPromptTemplate {@link #documentPromptTemplate}
+	 * @param encoding               the {@link Encoding} used for token counting
+	 * @param maxTokens              max amount of tokens for each combined
+	 *                               document
+	 */
+	public PackDocumentsChain(final PromptTemplate documentPromptTemplate, final Encoding encoding,
+			final int maxTokens) {
+		this(documentPromptTemplate, maxTokens, encoding::countTokens);
+	}
+
+	/**
+	 * creates an instance of the {@link PackDocumentsChain} using the
+	 * {@link PromptTemplates#QA_DOCUMENT} template
+	 *
+	 * @param encoding  the {@link Encoding} used for token counting
+	 * @param maxTokens max amount of tokens for each combined document
+	 */
+	public PackDocumentsChain(final Encoding encoding, final int maxTokens) {
+		this(PromptTemplate.compile(PromptTemplates.QA_DOCUMENT), encoding, maxTokens);
+	}
+
+	@Override
+	public Stream<Map<String, String>> run(final Stream<Map<String, String>> input) {
+		final List<Pack> packs = new ArrayList<>();
+		Pack currentPack = null;
+		String question = null;
+
+		final Iterator<Map<String, String>> documents = input.iterator();
+		while (documents.hasNext()) {
+			final Map<String, String> document = documents.next();
+			if (question == null) {
+				question = document.get(PromptConstants.QUESTION);
+			}
+
+			final String documentPrompt = documentPromptTemplate.render(document);
+			final int documentLength = lengthFunction.applyAsInt(documentPrompt);
+			if (documentLength > maxLength) {
+				LogManager.getLogger(getClass()).warn(
+						"Document {} has length {} which exceeds {}. Try to use a SplitDocumentsChain first.",
+						document.get(PromptConstants.SOURCE), documentLength, maxLength);
+			}
+
+			if (currentPack == null || currentPack.length + separatorLength + documentLength > maxLength) {
+				currentPack = new Pack();
+				packs.add(currentPack);
+			}
+			currentPack.add(documentPrompt, documentLength);
+		}
+
+		final String combinedQuestion = question;
+		return packs.stream().map(pack -> {
+			final Map<String, String> result = new HashMap<>();
+			result.put(PromptConstants.QUESTION, combinedQuestion);
+			result.put(PromptConstants.CONTENT, pack.content.toString());
+			return result;
+		});
+	}
+
+	/**
+	 * one combined document
+	 */
+	private final class Pack {
+		private final StringBuilder content = new StringBuilder();
+		private int length;
+
+		private void add(final String documentPrompt, final int documentLength) {
+			if (content.length() > 0) {
+				content.append(DOCUMENT_SEPARATOR);
+				length += separatorLength;
+			}
+			content.append(documentPrompt);
+			length += documentLength;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package io.github.cupybara.javalangchains.chains.qa.split;
+
+/**
+ * Defines how many trailing text parts of a chunk are repeated at the start of
+ * the next chunk when splitting with a {@link MaxLengthBasedTextSplitter}. Only
+ * whole text parts (as provided by the {@link TextStreamer}) are repeated.
+ */
+public final class ChunkOverlap {
+
+	/**
+	 * no overlap (disjoint chunks)
+	 */
+	public static final ChunkOverlap NONE = new ChunkOverlap(0, 0);
+
+	/**
+	 * max summed up length of the repeated text parts (tokens for the
+	 * {@link JtokkitTextSplitter})
+	 */
+	private final int maxLength;
+
+	/**
+	 * max count of repeated text parts
+	 */
+	private final int maxTextParts;
+
+	private ChunkOverlap(final int maxLength, final int maxTextParts) {
+		this.maxLength = maxLength;
+		this.maxTextParts = maxTextParts;
+	}
+
+	/**
+	 * creates a {@link ChunkOverlap} which repeats as many trailing text parts as
+	 * fit into maxLength
+	 *
+	 * @param maxLength {@link #maxLength}
+	 * @return {@link ChunkOverlap}
+	 */
+	public static ChunkOverlap ofLength(final int maxLength) {
+		return new ChunkOverlap(maxLength, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * creates a {@link ChunkOverlap} which repeats up to maxTextParts trailing text
+	 * parts (like sentences)
+	 *
+	 * @param maxTextParts {@link #maxTextParts}
+	 * @return {@link ChunkOverlap}
+	 */
+	public static ChunkOverlap ofTextParts(final int maxTextParts) {
+		return new ChunkOverlap(Integer.MAX_VALUE, maxTextParts);
+	}
+
+	/**
+	 * @param textParts count of already repeated text parts
+	 * @param length    summed up length of the already repeated text parts and the
+	 *                  next candidate
+	 * @return <code>true</code> if the candidate can be repeated as well
+	 */
+	boolean allows(final int textParts, final int length) {
+		return textParts < maxTextParts && length <= maxLength;
+	}
+}
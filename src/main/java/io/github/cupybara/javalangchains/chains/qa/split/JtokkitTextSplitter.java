@@ -17,13 +17,59 @@ public final class JtokkitTextSplitter extends MaxLengthBasedTextSplitter {
 	/**
 	 * creates an instance of {@link JtokkitTextSplitter}
 	 * 
+	 * @param encoding           {@link #encoding}
+	 * @param maxTokens          max amount of tokens for each chunk
+	 * @param textStreamer       the {@link TextStreamer} used for streaming the
+	 *                           base text
+	 * @param boundaryCorrection if <code>true</code> chunks are measured again
+	 *                           when the summed up token counts of their text
+	 *                           parts reach maxTokens
+	 */
+	public JtokkitTextSplitter(final Encoding encoding, final int maxTokens, final TextStreamer textStreamer,
+			final boolean boundaryCorrection) {
+		this(encoding, maxTokens, textStreamer, boundaryCorrection, ChunkOverlap.NONE);
+	}
+
+	/**
+	 * creates an instance of {@link JtokkitTextSplitter}
+	 * 
+	 * @param encoding           {@link #encoding}
+	 * @param maxTokens          max amount of tokens for each chunk
+	 * @param textStreamer       the {@link TextStreamer} used for streaming the
+	 *                           base text
+	 * @param boundaryCorrection if <code>true</code> chunks are measured again
+	 *                           when the summed up token counts of their text
+	 *                           parts reach maxTokens
+	 * @param overlap            the {@link ChunkOverlap} (lengths are token
+	 *                           counts)
+	 */
+	public JtokkitTextSplitter(final Encoding encoding, final int maxTokens, final TextStreamer textStreamer,
+			final boolean boundaryCorrection, final ChunkOverlap overlap) {
+		super(maxTokens, textStreamer, boundaryCorrection, overlap);
+		this.encoding = encoding;
+	}
+
+	/**
+	 * creates an instance of {@link JtokkitTextSplitter} with sentence based text
+	 * streaming, boundary correction and overlapping chunks
+	 * 
+	 * @param encoding  {@link #encoding}
+	 * @param maxTokens max amount of tokens for each chunk
+	 * @param overlap   the {@link ChunkOverlap} (lengths are token counts)
+	 */
+	public JtokkitTextSplitter(final Encoding encoding, final int maxTokens, final ChunkOverlap overlap) {
+		this(encoding, maxTokens, new TextStreamer(), true, overlap);
+	}
+
+	/**
+	 * creates an instance of {@link JtokkitTextSplitter} with boundary correction
+	 * 
 	 * @param encoding     {@link #encoding}
 	 * @param maxTokens    max amount of tokens for each chunk
 	 * @param textStreamer the {@link TextStreamer} used for streaming the base text
 	 */
 	public JtokkitTextSplitter(final Encoding encoding, final int maxTokens, final TextStreamer textStreamer) {
-		super(maxTokens, textStreamer);
-		this.encoding = encoding;
+		this(encoding, maxTokens, textStreamer, true);
 	}
 
 	/**
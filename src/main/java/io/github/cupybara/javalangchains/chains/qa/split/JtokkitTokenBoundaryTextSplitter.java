@@ -0,0 +1,198 @@
+package io.github.cupybara.javalangchains.chains.qa.split;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.knuddels.jtokkit.api.Encoding;
+
+/**
+ * This {@link TextSplitter} encodes a text once using
+ * <a href="https://github.com/knuddelsgmbh/jtokkit">jtokkit</a> and cuts it at
+ * token indices, so no token counting is required for parts of the text. Each
+ * chunk consists of at most maxTokens tokens of the encoded text. Cuts are
+ * snapped back to the nearest sentence boundary if one exists within the
+ * tolerance, otherwise the chunk is cut at the exact token index.
+ * <p>
+ * The chunks are taken from the text at the character offsets of the token
+ * boundaries (which is equal to decoding the tokens of each window). Encoding a
+ * chunk on its own may result in a slightly different token count since the
+ * tokenization at the chunk boundaries can differ.
+ */
+public final class JtokkitTokenBoundaryTextSplitter implements TextSplitter {
+
+	/**
+	 * the {@link Encoding} used for encoding the text
+	 */
+	private final Encoding encoding;
+
+	/**
+	 * max amount of tokens for each chunk
+	 */
+	private final int maxTokens;
+
+	/**
+	 * max amount of tokens a cut is moved back to reach a sentence boundary
+	 */
+	private final int tolerance;
+
+	/**
+	 * creates the {@link BreakIterator} which provides the boundaries cuts are
+	 * snapped to
+	 */
+	private final Supplier<BreakIterator> breakIteratorSupplier;
+
+	/**
+	 * creates an instance of {@link JtokkitTokenBoundaryTextSplitter}
+	 *
+	 * @param encoding              {@link #encoding}
+	 * @param maxTokens             {@link #maxTokens}
+	 * @param tolerance             {@link #tolerance}
+	 * @param breakIteratorSupplier {@link #breakIteratorSupplier}
+	 */
+	public JtokkitTokenBoundaryTextSplitter(final Encoding encoding, final int maxTokens, final int tolerance,
+			final Supplier<BreakIterator> breakIteratorSupplier) {
+		if (maxTokens <= 0) {
+			throw new IllegalArgumentException("maxTokens must be positive");
+		}
+		this.encoding = encoding;
+		this.maxTokens = maxTokens;
+		this.tolerance = tolerance;
+		this.breakIteratorSupplier = breakIteratorSupplier;
+	}
+
+	/**
+	 * creates an instance of {@link JtokkitTokenBoundaryTextSplitter} which snaps
+	 * cuts to sentence boundaries
+	 *
+	 * @param encoding  {@link #encoding}
+	 * @param maxTokens {@link #maxTokens}
+	 * @param tolerance {@link #tolerance}
+	 */
+	public JtokkitTokenBoundaryTextSplitter(final Encoding encoding, final int maxTokens, final int tolerance) {
+		this(encoding, maxTokens, tolerance, BreakIterator::getSentenceInstance);
+	}
+
+	/**
+	 * creates an instance of {@link JtokkitTokenBoundaryTextSplitter} which snaps
+	 * cuts to sentence boundaries within a quarter of maxTokens
+	 *
+	 * @param encoding  {@link #encoding}
+	 * @param maxTokens {@link #maxTokens}
+	 */
+	public JtokkitTokenBoundaryTextSplitter(final Encoding encoding, final int maxTokens) {
+		this(encoding, maxTokens, maxTokens / 4);
+	}
+
+	@Override
+	public List<String> split(final String text) {
+		return splitPartitions(text).stream().map(TextPartition::toString).collect(Collectors.toList());
+	}
+
+	@Override
+	public List<TextPartition> splitPartitions(final CharSequence text) {
+		final String textString = text.toString();
+		final int[] tokens = encoding.encodeOrdinary(textString).stream().mapToInt(Integer::intValue).toArray();
+		final int[] tokenBoundaryOffsets = createTokenBoundaryOffsets(textString, tokens);
+		final boolean[] snapBoundaries = createSnapBoundaries(textString, tokenBoundaryOffsets);
+
+		final List<TextPartition> split = new ArrayList<>();
+		int start = 0;
+		while (start < tokens.length) {
+			final int end = findEnd(start, tokens.length, tokenBoundaryOffsets, snapBoundaries);
+			split.add(new TextPartition(text, tokenBoundaryOffsets[start], tokenBoundaryOffsets[end]));
+			start = end;
+		}
+		return split;
+	}
+
+	private int findEnd(final int start, final int tokenCount, final int[] tokenBoundaryOffsets,
+			final boolean[] snapBoundaries) {
+		final int maxEnd = Math.min(start + maxTokens, tokenCount);
+		if (maxEnd == tokenCount) {
+			return maxEnd;
+		}
+
+		final int minSnapEnd = Math.max(start + 1, maxEnd - tolerance);
+		for (int end = maxEnd; end >= minSnapEnd; end--) {
+			if (snapBoundaries[end]) {
+				return end;
+			}
+		}
+
+		// no sentence boundary within the tolerance => cut at the exact token index
+		for (int end = maxEnd; end > start; end--) {
+			if (tokenBoundaryOffsets[end] >= 0) {
+				return end;
+			}
+		}
+
+		throw new IllegalStateException("Could not find a character boundary within " + maxTokens
+				+ " tokens. Try to use a higher maxTokens value.");
+	}
+
+	/**
+	 * @return the character offset for each token boundary (index i is the
+	 *         boundary before token i) or -1 if the boundary is inside a character
+	 */
+	private int[] createTokenBoundaryOffsets(final String text, final int[] tokens) {
+		final int[] tokenBoundaryOffsets = new int[tokens.length + 1];
+
+		int charOffset = 0;
+		int byteOffset = 0;
+		int tokenByteOffset = 0;
+		for (int i = 0; i < tokens.length; i++) {
+			while (byteOffset < tokenByteOffset && charOffset < text.length()) {
+				final int codePoint = text.codePointAt(charOffset);
+				byteOffset += utf8Length(codePoint);
+				charOffset += Character.charCount(codePoint);
+			}
+			tokenBoundaryOffsets[i] = byteOffset == tokenByteOffset ? charOffset : -1;
+			tokenByteOffset += encoding.decodeBytes(Collections.singletonList(tokens[i])).length;
+		}
+		tokenBoundaryOffsets[tokens.length] = text.length();
+
+		return tokenBoundaryOffsets;
+	}
+
+	/**
+	 * @return flags for all token boundaries which are the last token boundary
+	 *         before (or at) a sentence boundary
+	 */
+	private boolean[] createSnapBoundaries(final String text, final int[] tokenBoundaryOffsets) {
+		final boolean[] snapBoundaries = new boolean[tokenBoundaryOffsets.length];
+
+		final BreakIterator breakIterator = breakIteratorSupplier.get();
+		breakIterator.setText(text);
+
+		int tokenBoundary = 0;
+		for (int boundary = breakIterator.first(); boundary != BreakIterator.DONE; boundary = breakIterator.next()) {
+			// boundaries inside of characters (-1) are skipped
+			while (tokenBoundary + 1 < tokenBoundaryOffsets.length
+					&& tokenBoundaryOffsets[tokenBoundary + 1] <= boundary) {
+				tokenBoundary++;
+			}
+			while (tokenBoundary > 0 && tokenBoundaryOffsets[tokenBoundary] < 0) {
+				tokenBoundary--;
+			}
+			snapBoundaries[tokenBoundary] = true;
+		}
+
+		return snapBoundaries;
+	}
+
+	private static int utf8Length(final int codePoint) {
+		if (codePoint < 0x80) {
+			return 1;
+		} else if (codePoint < 0x800) {
+			return 2;
+		} else if (codePoint < 0x10000) {
+			// unpaired surrogates are encoded as '?'
+			return Character.isSurrogate((char) codePoint) ? 1 : 3;
+		}
+		return 4;
+	}
+}
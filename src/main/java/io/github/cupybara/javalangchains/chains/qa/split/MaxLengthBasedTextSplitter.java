@@ -1,12 +1,23 @@
 package io.github.cupybara.javalangchains.chains.qa.split;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * abstract base class for {@link TextSplitter} implementations that use a max
- * length for deciding when to split
+ * length for deciding when to split. The length of a chunk is tracked as the
+ * sum of the lengths of its text parts, so each text part is only measured
+ * once. Text parts and chunks are {@link TextPartition} views on the original
+ * text, so the text is only copied when a chunk is materialized (or if the
+ * {@link #getLength(CharSequence)} implementation copies it).
  */
 public abstract class MaxLengthBasedTextSplitter implements TextSplitter {
 
@@ -21,19 +32,56 @@ public abstract class MaxLengthBasedTextSplitter implements TextSplitter {
 	 */
 	private final TextStreamer textStreamer;
 
+	/**
+	 * if <code>true</code> the whole chunk is measured again when the summed up
+	 * length reaches the max length. Required for length functions which are not
+	 * additive (like token counts, since tokens can be merged at the boundary of
+	 * two text parts).
+	 */
+	private final boolean boundaryCorrection;
+
+	/**
+	 * the {@link ChunkOverlap} which defines the text parts that are repeated at
+	 * the start of the following chunk
+	 */
+	private final ChunkOverlap overlap;
+
+	/**
+	 * @param maxLength          {@link #maxLength}
+	 * @param textStreamer       {@link #textStreamer}
+	 * @param boundaryCorrection {@link #boundaryCorrection}
+	 * @param overlap            {@link #overlap}
+	 */
+	protected MaxLengthBasedTextSplitter(final int maxLength, final TextStreamer textStreamer,
+			final boolean boundaryCorrection, final ChunkOverlap overlap) {
+		this.maxLength = maxLength;
+		this.textStreamer = textStreamer;
+		this.boundaryCorrection = boundaryCorrection;
+		this.overlap = overlap;
+	}
+
+	/**
+	 * @param maxLength          {@link #maxLength}
+	 * @param textStreamer       {@link #textStreamer}
+	 * @param boundaryCorrection {@link #boundaryCorrection}
+	 */
+	protected MaxLengthBasedTextSplitter(final int maxLength, final TextStreamer textStreamer,
+			final boolean boundaryCorrection) {
+		this(maxLength, textStreamer, boundaryCorrection, ChunkOverlap.NONE);
+	}
+
 	/**
 	 * @param maxLength    {@link #maxLength}
 	 * @param textStreamer {@link #textStreamer}
 	 */
 	protected MaxLengthBasedTextSplitter(final int maxLength, final TextStreamer textStreamer) {
-		this.maxLength = maxLength;
-		this.textStreamer = textStreamer;
+		this(maxLength, textStreamer, false);
 	}
 
 	/**
 	 * creates a {@link MaxLengthBasedTextSplitter} using sentence wise text
 	 * streaming
-	 * 
+	 *
 	 * @param maxLength {@link #maxLength}
 	 */
 	protected MaxLengthBasedTextSplitter(final int maxLength) {
@@ -42,50 +90,181 @@ public abstract class MaxLengthBasedTextSplitter implements TextSplitter {
 
 	/**
 	 * provide the length value for a text part
-	 * 
+	 *
 	 * @param textPart the text part which needs to be measured
 	 * @return the length for the passed textPart
 	 */
 	protected abstract int getLength(String textPart);
 
+	/**
+	 * provide the length value for a text part which is a view on the split text.
+	 * The default implementation copies the text part and calls
+	 * {@link #getLength(String)}. Implementations which can measure a
+	 * {@link CharSequence} directly should override this method to avoid the copy.
+	 *
+	 * @param textPart the text part which needs to be measured
+	 * @return the length for the passed textPart
+	 */
+	protected int getLength(final CharSequence textPart) {
+		return getLength(textPart.toString());
+	}
+
 	@Override
 	public final List<String> split(final String text) {
-		final List<String> split = new LinkedList<>();
+		return stream(text).collect(Collectors.toList());
+	}
 
-		final AtomicReference<String> partition = new AtomicReference<>("");
+	@Override
+	public final List<TextPartition> splitPartitions(final CharSequence text) {
+		return streamPartitions(text).collect(Collectors.toList());
+	}
+
+	@Override
+	public final Stream<String> stream(final String text) {
+		return streamPartitions(text).map(TextPartition::toString);
+	}
 
-		this.textStreamer.stream(text).forEach(textPart -> {
-			final String newPartition = partition.get() + textPart;
+	@Override
+	public final Stream<TextPartition> streamPartitions(final CharSequence text) {
+		return StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(new ChunkIterator(text), Spliterator.ORDERED | Spliterator.NONNULL),
+				false);
+	}
 
-			final int newPartitionLength = getLength(newPartition);
-			if (newPartitionLength > maxLength) {
+	/**
+	 * lazily creates the chunks of a text. Text parts are only consumed until the
+	 * next chunk is complete.
+	 */
+	private final class ChunkIterator implements Iterator<TextPartition> {
+
+		private final CharSequence text;
+		private final Iterator<TextPartition> textParts;
+
+		/**
+		 * completed chunks which were not yet returned
+		 */
+		private final Deque<TextPartition> chunks = new ArrayDeque<>();
+
+		/**
+		 * the text parts of the current chunk
+		 */
+		private final Deque<MeasuredTextPart> window = new ArrayDeque<>();
+		private int windowLength;
+
+		/**
+		 * false if the window only contains text parts of the previous chunk
+		 */
+		private boolean windowHasNewTextParts;
+
+		private ChunkIterator(final CharSequence text) {
+			this.text = text;
+			this.textParts = textStreamer.streamPartitions(text).iterator();
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (chunks.isEmpty() && textParts.hasNext()) {
+				add(textParts.next());
+			}
+			if (chunks.isEmpty() && windowHasNewTextParts) {
+				completeChunk();
+			}
+			return !chunks.isEmpty();
+		}
+
+		@Override
+		public TextPartition next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No more chunks");
+			}
+			return chunks.removeFirst();
+		}
+
+		private void add(final TextPartition textPart) {
+			final MeasuredTextPart measuredTextPart = new MeasuredTextPart(textPart.getStart(), textPart.getEnd(),
+					getLength(textPart));
+
+			if (measuredTextPart.length > maxLength) {
+				throw new IllegalStateException(
+						"Text partition " + textPart + " is too long. Try to use another TextStreamer.");
+			}
+
+			int newWindowLength;
+			while (true) {
+				newWindowLength = windowLength + measuredTextPart.length;
+				if (boundaryCorrection && !window.isEmpty() && newWindowLength >= maxLength) {
+					// only measure the concatenation if the estimation reaches the limit
+					newWindowLength = getLength(
+							new TextPartition(text, window.getFirst().start, measuredTextPart.end));
+				}
+				if (newWindowLength <= maxLength || window.isEmpty()) {
+					break;
+				}
 
 				// the current textPart must be part of the next chunk
-				if (textPart.length() == newPartition.length()) {
-					throw new IllegalStateException(
-							"Text partition " + textPart + " is too long. Try to use another TextStreamer.");
+				if (windowHasNewTextParts) {
+					completeChunk();
+				} else {
+					// the overlap of the previous chunk leaves no room for the current textPart
+					windowLength = Math.max(0, windowLength - window.removeFirst().length);
 				}
-				split.add(partition.get());
-				partition.set(textPart);
+			}
 
-			} else if (newPartitionLength == maxLength) {
+			window.addLast(measuredTextPart);
+			windowLength = newWindowLength;
+			windowHasNewTextParts = true;
 
+			if (windowLength == maxLength) {
 				// the current textPart is part of the current chunk but max length is reached
-				split.add(newPartition);
-				partition.set("");
-
-			} else {
-				// the current textPart is part of the current chunk
-				partition.set(newPartition);
+				completeChunk();
 			}
-		});
+		}
 
-		final String trailingText = partition.get();
-		if (trailingText.length() > 0) {
-			split.add(trailingText);
+		private void completeChunk() {
+			chunks.addLast(new TextPartition(text, window.getFirst().start, window.getLast().end));
+			windowLength = retainOverlap();
+			windowHasNewTextParts = false;
 		}
 
-		return split;
+		/**
+		 * removes all text parts from the window except for the ones which are
+		 * repeated in the next chunk
+		 *
+		 * @return the summed up length of the retained text parts
+		 */
+		private int retainOverlap() {
+			int retainedTextParts = 0;
+			int retainedLength = 0;
+
+			final Iterator<MeasuredTextPart> descendingWindow = window.descendingIterator();
+			while (descendingWindow.hasNext()) {
+				final int length = retainedLength + descendingWindow.next().length;
+				if (length >= maxLength || !overlap.allows(retainedTextParts, length)) {
+					break;
+				}
+				retainedTextParts++;
+				retainedLength = length;
+			}
+
+			while (window.size() > retainedTextParts) {
+				window.removeFirst();
+			}
+			return retainedLength;
+		}
 	}
 
+	/**
+	 * position and length of a text part
+	 */
+	private static final class MeasuredTextPart {
+		private final int start;
+		private final int end;
+		private final int length;
+
+		private MeasuredTextPart(final int start, final int end, final int length) {
+			this.start = start;
+			this.end = end;
+			this.length = length;
+		}
+	}
 }
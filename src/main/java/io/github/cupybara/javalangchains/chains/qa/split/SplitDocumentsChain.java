@@ -1,8 +1,27 @@
 package io.github.cupybara.javalangchains.chains.qa.split;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import io.github.cupybara.javalangchains.chains.Chain;
 import io.github.cupybara.javalangchains.util.PromptConstants;
@@ -10,37 +29,313 @@ import io.github.cupybara.javalangchains.util.PromptConstants;
 /**
  * This {@link Chain} is used to split long documents into chunks. All document
  * keys are copied except for the {@link PromptConstants#CONTENT} which is
- * split.
+ * split. Chunks are created lazily while the output stream is consumed (also
+ * when it is consumed using an iterator), unless the input stream is parallel.
  */
 public class SplitDocumentsChain implements Chain<Stream<Map<String, String>>, Stream<Map<String, String>>> {
 
+	private static final String PARAGRAPH_SEPARATOR = "\n\n";
+
 	/**
 	 * This {@link TextSplitter} is used to create one or more documents from an
 	 * input document based on the {@link PromptConstants#CONTENT} key.
 	 */
 	private final TextSplitter textSplitter;
 
+	/**
+	 * if <code>true</code> each chunk document contains its
+	 * {@link PromptConstants#CHUNK_INDEX}, {@link PromptConstants#CHUNK_START} and
+	 * {@link PromptConstants#CHUNK_END} which allows to detect overlapping chunks
+	 */
+	private final boolean chunkMetadata;
+
+	/**
+	 * if not <code>null</code> the content of large documents is split in
+	 * segments which are processed in parallel using this {@link Executor}
+	 */
+	private final Executor executor;
+
+	/**
+	 * documents with a content longer than this count of characters are
+	 * segmented at paragraph breaks for parallel processing
+	 */
+	private final int segmentLength;
+
+	/**
+	 * maximum count of segments of a document which are split concurrently using
+	 * the {@link #executor}
+	 */
+	private final int maxConcurrency;
+
+	/**
+	 * creates an instance of the {@link SplitDocumentsChain} which splits large
+	 * documents in parallel. The content of these documents is segmented at
+	 * paragraph breaks (blank lines) into segments of about segmentLength
+	 * characters, which are split using the passed {@link Executor}. At most
+	 * maxConcurrency segments are submitted ahead of the consumed chunks and
+	 * segments which are not needed anymore (after a failure or closing the
+	 * resulting stream) are cancelled. Chunks (and their overlap) never span
+	 * multiple segments.
+	 * 
+	 * @param textSplitter   {@link #textSplitter}
+	 * @param chunkMetadata  {@link #chunkMetadata}
+	 * @param executor       {@link #executor}
+	 * @param segmentLength  {@link #segmentLength}
+	 * @param maxConcurrency {@link #maxConcurrency}
+	 */
+	public SplitDocumentsChain(final TextSplitter textSplitter, final boolean chunkMetadata, final Executor executor,
+			final int segmentLength, final int maxConcurrency) {
+		if (segmentLength <= 0) {
+			throw new IllegalArgumentException("segmentLength must be positive");
+		}
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("maxConcurrency must be positive");
+		}
+		this.textSplitter = textSplitter;
+		this.chunkMetadata = chunkMetadata;
+		this.executor = executor;
+		this.segmentLength = segmentLength;
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * creates an instance of the {@link SplitDocumentsChain} which splits large
+	 * documents in parallel with up to one segment per available processor in
+	 * flight
+	 * 
+	 * @param textSplitter  {@link #textSplitter}
+	 * @param chunkMetadata {@link #chunkMetadata}
+	 * @param executor      {@link #executor}
+	 * @param segmentLength {@link #segmentLength}
+	 */
+	public SplitDocumentsChain(final TextSplitter textSplitter, final boolean chunkMetadata, final Executor executor,
+			final int segmentLength) {
+		this(textSplitter, chunkMetadata, executor, segmentLength, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * creates an instance of the {@link SplitDocumentsChain}
+	 * 
+	 * @param textSplitter  {@link #textSplitter}
+	 * @param chunkMetadata {@link #chunkMetadata}
+	 */
+	public SplitDocumentsChain(final TextSplitter textSplitter, final boolean chunkMetadata) {
+		this(textSplitter, chunkMetadata, null, Integer.MAX_VALUE, 1);
+	}
+
 	/**
 	 * creates an instance of the {@link SplitDocumentsChain}
 	 * 
 	 * @param textSplitter {@link #textSplitter}
 	 */
 	public SplitDocumentsChain(final TextSplitter textSplitter) {
-		this.textSplitter = textSplitter;
+		this(textSplitter, false);
 	}
 
 	@Override
 	public Stream<Map<String, String>> run(final Stream<Map<String, String>> input) {
-		return input.flatMap(this::splitDocument);
+		if (input.isParallel()) {
+			return input.flatMap(this::splitDocument);
+		}
+
+		// Stream#iterator() (used by most consuming chains) pushes all elements of a
+		// flatMap inner stream into a buffer at once, so the chunks are provided by
+		// a spliterator which advances the chunks of the current document one by one
+		final DocumentPartSpliterator documentParts = new DocumentPartSpliterator(input.iterator());
+		return StreamSupport.stream(documentParts, false).onClose(documentParts::close).onClose(input::close);
 	}
 
 	private Stream<Map<String, String>> splitDocument(final Map<String, String> document) {
 		final String content = document.get(PromptConstants.CONTENT);
 
-		return this.textSplitter.split(content).stream().map(contentPart -> {
-			final Map<String, String> documentPart = new HashMap<>(document);
-			documentPart.put(PromptConstants.CONTENT, contentPart);
-			return documentPart;
-		});
+		if (!chunkMetadata) {
+			return splitContent(content, textSplitter::stream, segment -> textSplitter.split(segment.toString()))
+					.map(contentPart -> createDocumentPart(document, contentPart));
+		}
+
+		final AtomicInteger index = new AtomicInteger();
+		return splitContent(content, textSplitter::streamPartitions,
+				segment -> textSplitter.splitPartitions(segment).stream()
+						.map(partition -> new TextPartition(content, segment.getStart() + partition.getStart(),
+								segment.getStart() + partition.getEnd()))
+						.collect(Collectors.toList()))
+				.map(partition -> {
+					final Map<String, String> documentPart = createDocumentPart(document, partition.toString());
+					documentPart.put(PromptConstants.CHUNK_INDEX, String.valueOf(index.getAndIncrement()));
+					documentPart.put(PromptConstants.CHUNK_START, String.valueOf(partition.getStart()));
+					documentPart.put(PromptConstants.CHUNK_END, String.valueOf(partition.getEnd()));
+					return documentPart;
+				});
+	}
+
+	/**
+	 * lazily splits the content or (for large contents if an executor is set)
+	 * splits it segment by segment in parallel
+	 */
+	private <T> Stream<T> splitContent(final String content, final Function<String, Stream<T>> contentSplitter,
+			final Function<TextPartition, List<T>> segmentSplitter) {
+		if (executor == null || content.length() <= segmentLength) {
+			return contentSplitter.apply(content);
+		}
+
+		final ConcurrentSegmentIterator<T> chunks = new ConcurrentSegmentIterator<>(
+				createSegments(content).iterator(), segmentSplitter);
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(chunks::cancel);
+	}
+
+	private List<TextPartition> createSegments(final String content) {
+		final List<TextPartition> segments = new ArrayList<>();
+
+		int start = 0;
+		while (content.length() - start > segmentLength) {
+			int end = content.lastIndexOf(PARAGRAPH_SEPARATOR, start + segmentLength);
+			if (end <= start) {
+				end = content.indexOf(PARAGRAPH_SEPARATOR, start + segmentLength);
+				if (end < 0) {
+					break;
+				}
+			}
+			end += PARAGRAPH_SEPARATOR.length();
+
+			segments.add(new TextPartition(content, start, end));
+			start = end;
+		}
+
+		if (start < content.length()) {
+			segments.add(new TextPartition(content, start, content.length()));
+		}
+		return segments;
+	}
+
+	/**
+	 * flattens the chunk streams of the input documents. The chunk stream of a
+	 * document is created when its first chunk is requested and closed when it is
+	 * exhausted.
+	 */
+	private final class DocumentPartSpliterator extends Spliterators.AbstractSpliterator<Map<String, String>> {
+
+		private final Iterator<Map<String, String>> documents;
+		private Stream<Map<String, String>> documentParts;
+		private Iterator<Map<String, String>> documentPartIterator = Collections.emptyIterator();
+
+		private DocumentPartSpliterator(final Iterator<Map<String, String>> documents) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.documents = documents;
+		}
+
+		@Override
+		public boolean tryAdvance(final Consumer<? super Map<String, String>> action) {
+			while (!documentPartIterator.hasNext()) {
+				close();
+				if (!documents.hasNext()) {
+					return false;
+				}
+				documentParts = splitDocument(documents.next());
+				documentPartIterator = documentParts.iterator();
+			}
+
+			action.accept(documentPartIterator.next());
+			return true;
+		}
+
+		private void close() {
+			if (documentParts != null) {
+				documentParts.close();
+				documentParts = null;
+				documentPartIterator = Collections.emptyIterator();
+			}
+		}
+	}
+
+	/**
+	 * keeps up to {@link #maxConcurrency} segments in flight and stitches their
+	 * chunks together in the order of the segments
+	 */
+	private final class ConcurrentSegmentIterator<T> implements Iterator<T> {
+
+		private final Iterator<TextPartition> segments;
+		private final Function<TextPartition, List<T>> segmentSplitter;
+		private final Deque<FutureTask<List<T>>> inFlightSegments = new ArrayDeque<>();
+		private Iterator<T> segmentChunks = Collections.emptyIterator();
+
+		private ConcurrentSegmentIterator(final Iterator<TextPartition> segments,
+				final Function<TextPartition, List<T>> segmentSplitter) {
+			this.segments = segments;
+			this.segmentSplitter = segmentSplitter;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!segmentChunks.hasNext()) {
+				fill();
+				final FutureTask<List<T>> segmentSplit = inFlightSegments.poll();
+				if (segmentSplit == null) {
+					return false;
+				}
+
+				try {
+					segmentChunks = await(segmentSplit).iterator();
+				} catch (final RuntimeException runtimeException) {
+					// the chunks of the following segments will not be consumed
+					segmentSplit.cancel(true);
+					cancel();
+					throw runtimeException;
+				}
+				fill();
+			}
+			return true;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No more chunks");
+			}
+			return segmentChunks.next();
+		}
+
+		private void fill() {
+			while (inFlightSegments.size() < maxConcurrency && segments.hasNext()) {
+				final TextPartition segment = segments.next();
+				final FutureTask<List<T>> segmentSplit = new FutureTask<>(() -> segmentSplitter.apply(segment));
+				try {
+					executor.execute(segmentSplit);
+				} catch (final RejectedExecutionException rejectedExecutionException) {
+					cancel();
+					throw new IllegalStateException("could not submit document segment", rejectedExecutionException);
+				}
+				inFlightSegments.add(segmentSplit);
+			}
+		}
+
+		private List<T> await(final Future<List<T>> segmentSplit) {
+			try {
+				return segmentSplit.get();
+			} catch (final ExecutionException executionException) {
+				throw new IllegalStateException("error splitting document segment", executionException.getCause());
+			} catch (final InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted while splitting document", interruptedException);
+			}
+		}
+
+		/**
+		 * cancels all segments which are in flight
+		 */
+		private void cancel() {
+			FutureTask<List<T>> segmentSplit;
+			while ((segmentSplit = inFlightSegments.poll()) != null) {
+				segmentSplit.cancel(true);
+			}
+		}
+	}
+
+	private static Map<String, String> createDocumentPart(final Map<String, String> document,
+			final String contentPart) {
+		final Map<String, String> documentPart = new HashMap<>(document);
+		documentPart.put(PromptConstants.CONTENT, contentPart);
+		return documentPart;
 	}
 }
@@ -0,0 +1,79 @@
+package io.github.cupybara.javalangchains.chains.qa.split;
+
+/**
+ * A view on a range of a text which does not copy the underlying characters
+ * until {@link #toString()} is called
+ */
+public final class TextPartition implements CharSequence {
+
+	/**
+	 * the whole text
+	 */
+	private final CharSequence text;
+
+	/**
+	 * start index (inclusive) within the {@link #text}
+	 */
+	private final int start;
+
+	/**
+	 * end index (exclusive) within the {@link #text}
+	 */
+	private final int end;
+
+	/**
+	 * @param text  {@link #text}
+	 * @param start {@link #start}
+	 * @param end   {@link #end}
+	 */
+	public TextPartition(final CharSequence text, final int start, final int end) {
+		if (start < 0 || end < start || end > text.length()) {
+			throw new IndexOutOfBoundsException("invalid range [" + start + ", " + end + ") for text length "
+					+ text.length());
+		}
+		this.text = text;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * @return {@link #start}
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * @return {@link #end}
+	 */
+	public int getEnd() {
+		return end;
+	}
+
+	@Override
+	public int length() {
+		return end - start;
+	}
+
+	@Override
+	public char charAt(final int index) {
+		if (index < 0 || index >= length()) {
+			throw new IndexOutOfBoundsException("index " + index + " out of range for length " + length());
+		}
+		return text.charAt(start + index);
+	}
+
+	@Override
+	public TextPartition subSequence(final int subSequenceStart, final int subSequenceEnd) {
+		if (subSequenceStart < 0 || subSequenceEnd < subSequenceStart || subSequenceEnd > length()) {
+			throw new IndexOutOfBoundsException(
+					"invalid range [" + subSequenceStart + ", " + subSequenceEnd + ") for length " + length());
+		}
+		return new TextPartition(text, start + subSequenceStart, start + subSequenceEnd);
+	}
+
+	@Override
+	public String toString() {
+		return text.subSequence(start, end).toString();
+	}
+}
@@ -1,6 +1,8 @@
 package io.github.cupybara.javalangchains.chains.qa.split;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Implementations are used by the {@link SplitDocumentsChain}. A
@@ -17,4 +19,56 @@ public interface TextSplitter {
 	 * @return {@link List} with text partitions
 	 */
 	List<String> split(String text);
+
+	/**
+	 * Splits a text into one or more {@link TextPartition TextPartitions} which
+	 * provide the position of each chunk within the text. The default
+	 * implementation locates the results of {@link #split(String)} within the
+	 * text, so it requires the chunks to be unmodified parts of the text.
+	 * 
+	 * @param text text to split
+	 * @return {@link List} with text partitions
+	 */
+	default List<TextPartition> splitPartitions(final CharSequence text) {
+		final String textString = text.toString();
+		final List<String> split = split(textString);
+		final List<TextPartition> partitions = new ArrayList<>(split.size());
+
+		int searchStart = 0;
+		for (final String chunk : split) {
+			final int start = textString.indexOf(chunk, searchStart);
+			if (start < 0) {
+				throw new IllegalStateException("chunk " + chunk + " is not part of the split text");
+			}
+			partitions.add(new TextPartition(text, start, start + chunk.length()));
+			// identical consecutive chunks must not be located at the same position
+			searchStart = start + 1;
+		}
+
+		return partitions;
+	}
+
+	/**
+	 * Lazily splits a text into one or more subtexts. Implementations should only
+	 * do the work required for the next chunk, so chunks can be processed while
+	 * the text is still being split. The default implementation streams the
+	 * result of {@link #split(String)}.
+	 * 
+	 * @param text text to split
+	 * @return {@link Stream} of text partitions
+	 */
+	default Stream<String> stream(final String text) {
+		return split(text).stream();
+	}
+
+	/**
+	 * Lazy counterpart of {@link #splitPartitions(CharSequence)}. The default
+	 * implementation streams the result of {@link #splitPartitions(CharSequence)}.
+	 * 
+	 * @param text text to split
+	 * @return {@link Stream} of text partitions
+	 */
+	default Stream<TextPartition> streamPartitions(final CharSequence text) {
+		return splitPartitions(text).stream();
+	}
 }
@@ -1,6 +1,7 @@
 package io.github.cupybara.javalangchains.chains.qa.split;
 
 import java.text.BreakIterator;
+import java.text.CharacterIterator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Spliterator;
@@ -21,7 +22,7 @@ public class TextStreamer {
 
 	/**
 	 * creates a {@link TextStreamer} using a custom {@link BreakIterator}
-	 * 
+	 *
 	 * @param breakIteratorSupplier {@link #breakIteratorSupplier}
 	 */
 	public TextStreamer(final Supplier<BreakIterator> breakIteratorSupplier) {
@@ -37,15 +38,30 @@ public class TextStreamer {
 
 	/**
 	 * creates a stream of text partitions
-	 * 
+	 *
 	 * @param text partitionized text
 	 * @return {@link Stream} of text partitions
 	 */
 	public Stream<String> stream(final String text) {
+		return streamPartitions(text).map(TextPartition::toString);
+	}
+
+	/**
+	 * creates a stream of {@link TextPartition TextPartitions} which are views on
+	 * the passed text, so no characters are copied while streaming
+	 *
+	 * @param text partitionized text
+	 * @return {@link Stream} of text partitions
+	 */
+	public Stream<TextPartition> streamPartitions(final CharSequence text) {
 		final BreakIterator breakIterator = breakIteratorSupplier.get();
-		breakIterator.setText(text);
+		if (text instanceof String) {
+			breakIterator.setText((String) text);
+		} else {
+			breakIterator.setText(new CharSequenceIterator(text));
+		}
 
-		final Iterator<String> breakIteratorAdapter = new Iterator<String>() {
+		final Iterator<TextPartition> breakIteratorAdapter = new Iterator<TextPartition>() {
 			int start = breakIterator.first();
 			int end = breakIterator.next();
 
@@ -55,12 +71,12 @@ public class TextStreamer {
 			}
 
 			@Override
-			public String next() {
+			public TextPartition next() {
 				if (end == BreakIterator.DONE) {
 					throw new NoSuchElementException("No more words");
 				}
 
-				final String textPartition = text.substring(start, end);
+				final TextPartition textPartition = new TextPartition(text, start, end);
 				start = end;
 				end = breakIterator.next();
 				return textPartition;
@@ -70,4 +86,83 @@ public class TextStreamer {
 		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(breakIteratorAdapter, Spliterator.ORDERED),
 				false);
 	}
+
+	/**
+	 * {@link CharacterIterator} over a {@link CharSequence} which is not a
+	 * {@link String}
+	 */
+	private static final class CharSequenceIterator implements CharacterIterator {
+
+		private final CharSequence text;
+		private int index;
+
+		private CharSequenceIterator(final CharSequence text) {
+			this.text = text;
+		}
+
+		@Override
+		public char first() {
+			index = 0;
+			return current();
+		}
+
+		@Override
+		public char last() {
+			index = Math.max(0, text.length() - 1);
+			return current();
+		}
+
+		@Override
+		public char current() {
+			return index < text.length() ? text.charAt(index) : DONE;
+		}
+
+		@Override
+		public char next() {
+			if (index < text.length()) {
+				index++;
+			}
+			return current();
+		}
+
+		@Override
+		public char previous() {
+			if (index == 0) {
+				return DONE;
+			}
+			index--;
+			return current();
+		}
+
+		@Override
+		public char setIndex(final int position) {
+			if (position < 0 || position > text.length()) {
+				throw new IllegalArgumentException("invalid index " + position);
+			}
+			index = position;
+			return current();
+		}
+
+		@Override
+		public int getBeginIndex() {
+			return 0;
+		}
+
+		@Override
+		public int getEndIndex() {
+			return text.length();
+		}
+
+		@Override
+		public int getIndex() {
+			return index;
+		}
+
+		@Override
+		public Object clone() {
+			final CharSequenceIterator clone = new CharSequenceIterator(text);
+			clone.index = index;
+			return clone;
+		}
+	}
 }
@@ -20,6 +20,34 @@ public final class PromptConstants {
 	 */
 	public static final String SOURCE = "source";
 
+	/**
+	 * index of a chunk within its split document
+	 */
+	public static final String CHUNK_INDEX = "chunkIndex";
+
+	/**
+	 * start index (inclusive) of a chunk within the content of its split document
+	 */
+	public static final String CHUNK_START = "chunkStart";
+
+	/**
+	 * end index (exclusive) of a chunk within the content of its split document
+	 */
+	public static final String CHUNK_END = "chunkEnd";
+
+	/**
+	 * identifies the file a document was read from (like its path relative to the
+	 * read directory). Writers replace all previously written documents of an
+	 * origin when they receive documents for it.
+	 */
+	public static final String ORIGIN = "origin";
+
+	/**
+	 * set to "true" for tombstone documents which signal that all documents of
+	 * their {@link #ORIGIN} were deleted
+	 */
+	public static final String DELETED = "deleted";
+
 	private PromptConstants() {
 		// not instantiated
 	}
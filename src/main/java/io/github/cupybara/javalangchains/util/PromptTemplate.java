@@ -0,0 +1,206 @@
+package io.github.cupybara.javalangchains.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A prompt template which is parsed once into literal and variable segments and
+ * can then be rendered for many documents without parsing the template again.
+ * Supports the syntax used by the templates in {@link PromptTemplates}:
+ * <ul>
+ * <li><code>${myPlaceholder}</code> is replaced by the value of the key
+ * myPlaceholder. Unknown keys are kept as they are.</li>
+ * <li><code>${myPlaceholder:-default}</code> falls back to "default" for
+ * unknown keys.</li>
+ * <li><code>$${myPlaceholder}</code> is rendered as
+ * <code>${myPlaceholder}</code>.</li>
+ * </ul>
+ * Values are inserted as they are, placeholders within values are not
+ * replaced.
+ */
+public final class PromptTemplate {
+
+	private static final String VARIABLE_PREFIX = "${";
+	private static final char VARIABLE_SUFFIX = '}';
+	private static final String DEFAULT_VALUE_DELIMITER = ":-";
+
+	/**
+	 * the source template
+	 */
+	private final String template;
+
+	/**
+	 * literal segments. the literal at index i is rendered before the variable at
+	 * index i, the last literal is rendered after the last variable.
+	 */
+	private final String[] literals;
+
+	/**
+	 * variable names
+	 */
+	private final String[] variables;
+
+	/**
+	 * the raw placeholders (like ${myPlaceholder}) which are rendered for unknown
+	 * variables without default value
+	 */
+	private final String[] placeholders;
+
+	/**
+	 * default values for unknown variables (<code>null</code> entries for
+	 * variables without default value)
+	 */
+	private final String[] defaultValues;
+
+	/**
+	 * the summed up length of all literals
+	 */
+	private final int literalsLength;
+
+	private PromptTemplate(final String template, final List<String> literals, final List<String> variables,
+			final List<String> placeholders, final List<String> defaultValues) {
+		this.template = template;
+		this.literals = literals.toArray(new String[0]);
+		this.variables = variables.toArray(new String[0]);
+		this.placeholders = placeholders.toArray(new String[0]);
+		this.defaultValues = defaultValues.toArray(new String[0]);
+		this.literalsLength = literals.stream().mapToInt(String::length).sum();
+	}
+
+	/**
+	 * parses a template
+	 *
+	 * @param template the template which contains placeholders in the form
+	 *                 ${myPlaceholder}
+	 * @return the compiled {@link PromptTemplate}
+	 */
+	public static PromptTemplate compile(final String template) {
+		final List<String> literals = new ArrayList<>();
+		final List<String> variables = new ArrayList<>();
+		final List<String> placeholders = new ArrayList<>();
+		final List<String> defaultValues = new ArrayList<>();
+
+		final StringBuilder literal = new StringBuilder();
+		int position = 0;
+		while (position < template.length()) {
+			final int prefixIndex = template.indexOf(VARIABLE_PREFIX, position);
+			if (prefixIndex < 0) {
+				break;
+			}
+
+			// $${...} is an escaped placeholder
+			if (prefixIndex > position && template.charAt(prefixIndex - 1) == '$') {
+				literal.append(template, position, prefixIndex - 1).append(VARIABLE_PREFIX);
+				position = prefixIndex + VARIABLE_PREFIX.length();
+				continue;
+			}
+
+			final int suffixIndex = template.indexOf(VARIABLE_SUFFIX, prefixIndex + VARIABLE_PREFIX.length());
+			if (suffixIndex < 0) {
+				break;
+			}
+
+			literal.append(template, position, prefixIndex);
+			literals.add(literal.toString());
+			literal.setLength(0);
+
+			final String variable = template.substring(prefixIndex + VARIABLE_PREFIX.length(), suffixIndex);
+			final int defaultValueIndex = variable.indexOf(DEFAULT_VALUE_DELIMITER);
+			if (defaultValueIndex < 0) {
+				variables.add(variable);
+				defaultValues.add(null);
+			} else {
+				variables.add(variable.substring(0, defaultValueIndex));
+				defaultValues.add(variable.substring(defaultValueIndex + DEFAULT_VALUE_DELIMITER.length()));
+			}
+			placeholders.add(template.substring(prefixIndex, suffixIndex + 1));
+
+			position = suffixIndex + 1;
+		}
+		literal.append(template, position, template.length());
+		literals.add(literal.toString());
+
+		return new PromptTemplate(template, literals, variables, placeholders, defaultValues);
+	}
+
+	/**
+	 * renders the template for a document
+	 *
+	 * @param input the document which provides the variable values
+	 * @return the rendered prompt
+	 */
+	public String render(final Map<String, String> input) {
+		final String[] values = resolve(input);
+		return append(values, new StringBuilder(getRenderedLength(values))).toString();
+	}
+
+	/**
+	 * renders the template for a document by appending it to the passed
+	 * {@link StringBuilder}. This allows reusing one buffer for many documents.
+	 *
+	 * @param input  the document which provides the variable values
+	 * @param output the {@link StringBuilder} which the rendered prompt is
+	 *               appended to
+	 * @return the passed {@link StringBuilder}
+	 */
+	public StringBuilder render(final Map<String, String> input, final StringBuilder output) {
+		final String[] values = resolve(input);
+		output.ensureCapacity(output.length() + getRenderedLength(values));
+		return append(values, output);
+	}
+
+	/**
+	 * @param input the document which provides the variable values
+	 * @return the exact length of the prompt rendered for the document
+	 */
+	public int getRenderedLength(final Map<String, String> input) {
+		return getRenderedLength(resolve(input));
+	}
+
+	/**
+	 * @return the source template
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	@Override
+	public String toString() {
+		return template;
+	}
+
+	/**
+	 * resolves the value of each variable once, so rendering does not look up the
+	 * input again
+	 */
+	private String[] resolve(final Map<String, String> input) {
+		final String[] values = new String[variables.length];
+		for (int i = 0; i < variables.length; i++) {
+			final String value = input.get(variables[i]);
+			if (value != null) {
+				values[i] = value;
+			} else if (defaultValues[i] != null) {
+				values[i] = defaultValues[i];
+			} else {
+				values[i] = placeholders[i];
+			}
+		}
+		return values;
+	}
+
+	private int getRenderedLength(final String[] values) {
+		int length = literalsLength;
+		for (final String value : values) {
+			length += value.length();
+		}
+		return length;
+	}
+
+	private StringBuilder append(final String[] values, final StringBuilder output) {
+		for (int i = 0; i < values.length; i++) {
+			output.append(literals[i]).append(values[i]);
+		}
+		return output.append(literals[values.length]);
+	}
+}
@@ -0,0 +1,55 @@
+package io.github.cupybara.javalangchains.chains;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link ChainLink}
+ */
+class ChainLinkTest {
+
+	@Test
+	void testRun() {
+		final Chain<String, Integer> chain = ((Chain<String, String>) String::trim).chain(String::length);
+		assertEquals(5, chain.run("  hello  "), "wrong output");
+	}
+
+	@Test
+	void testRunAsync() throws InterruptedException, ExecutionException {
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			/*
+			 * the second chain completes its future without using the executor (like a
+			 * non blocking http based chain would do)
+			 */
+			final Chain<String, Integer> nonBlockingLengthChain = new Chain<String, Integer>() {
+
+				@Override
+				public Integer run(final String input) {
+					throw new UnsupportedOperationException("only runAsync is supported");
+				}
+
+				@Override
+				public CompletableFuture<Integer> runAsync(final String input, final Executor ignored) {
+					return CompletableFuture.completedFuture(input.length());
+				}
+			};
+
+			final Chain<String, Integer> chain = ((Chain<String, String>) String::trim).chain(nonBlockingLengthChain);
+
+			assertEquals(5, chain.runAsync("  hello  ", executor).get(), "wrong output");
+		} finally {
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS), "executor not terminated");
+		}
+	}
+}
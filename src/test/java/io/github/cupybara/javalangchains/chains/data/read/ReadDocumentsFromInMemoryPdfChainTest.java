@@ -3,15 +3,25 @@ package io.github.cupybara.javalangchains.chains.data.read;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.github.cupybara.javalangchains.chains.data.reader.ReadDocumentsFromInMemoryPdfChain;
 import io.github.cupybara.javalangchains.chains.data.reader.ReadDocumentsFromInMemoryPdfChain.InMemoryPdf;
@@ -23,14 +33,14 @@ import io.github.cupybara.javalangchains.util.PromptConstants;
  */
 class ReadDocumentsFromInMemoryPdfChainTest {
 
+	private static byte[] pdfData;
 	private static InMemoryPdf inMemoryPdf;
 
 	@BeforeAll
 	static void setupBeforeAll() throws URISyntaxException, IOException {
-		inMemoryPdf = new InMemoryPdf(
-				IOUtils.toByteArray(
-						ReadDocumentsFromInMemoryPdfChainTest.class.getResourceAsStream("/pdf/qa/book-of-john-3.pdf")),
-				"my-in-memory.pdf");
+		pdfData = IOUtils.toByteArray(
+				ReadDocumentsFromInMemoryPdfChainTest.class.getResourceAsStream("/pdf/qa/book-of-john-3.pdf"));
+		inMemoryPdf = new InMemoryPdf(pdfData, "my-in-memory.pdf");
 	}
 
 	@Test
@@ -58,4 +68,67 @@ class ReadDocumentsFromInMemoryPdfChainTest {
 		assertNotNull(doc2.get(PromptConstants.CONTENT), "got no content for doc2");
 		assertEquals("my-in-memory.pdf p.2", doc2.get(PromptConstants.SOURCE), "got wrong source for doc2");
 	}
+
+	@Test
+	void testReadPagesMemoryBounded() {
+		final List<Map<String, String>> documents = new ReadDocumentsFromInMemoryPdfChain(PdfReadMode.PAGES, false,
+				MemoryUsageSetting.setupTempFileOnly()).run(inMemoryPdf).collect(Collectors.toList());
+		assertEquals(2, documents.size(), "incorrect number of read document pages");
+		assertEquals("my-in-memory.pdf p.2", documents.get(1).get(PromptConstants.SOURCE), "got wrong source for doc2");
+	}
+
+	@Test
+	void testReadPageRanges() {
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			final List<Map<String, String>> pageRangeDocuments = new ReadDocumentsFromInMemoryPdfChain(
+					PdfReadMode.PAGE_RANGES, false, MemoryUsageSetting.setupMainMemoryOnly(), executor, 1)
+					.run(inMemoryPdf).collect(Collectors.toList());
+			final List<Map<String, String>> pageDocuments = new ReadDocumentsFromInMemoryPdfChain(PdfReadMode.PAGES)
+					.run(inMemoryPdf).collect(Collectors.toList());
+			assertEquals(pageDocuments, pageRangeDocuments, "page ranges differ from sequentially read pages");
+
+			// without executor the page ranges are read sequentially
+			final List<Map<String, String>> sequentialPageRangeDocuments = new ReadDocumentsFromInMemoryPdfChain(
+					PdfReadMode.PAGE_RANGES, false, MemoryUsageSetting.setupMainMemoryOnly(), null, 1).run(inMemoryPdf)
+					.collect(Collectors.toList());
+			assertEquals(pageDocuments, sequentialPageRangeDocuments, "sequentially read page ranges differ");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void testReadSources(@TempDir final Path tempDirectory) throws IOException {
+		final List<Map<String, String>> expectedDocuments = new ReadDocumentsFromInMemoryPdfChain(PdfReadMode.PAGES)
+				.run(inMemoryPdf).collect(Collectors.toList());
+
+		final ByteBuffer directBuffer = ByteBuffer.allocateDirect(pdfData.length + 2);
+		directBuffer.put((byte) 0).put(pdfData).put((byte) 0);
+		directBuffer.position(1).limit(pdfData.length + 1);
+		assertEquals(expectedDocuments, readPages(new InMemoryPdf(directBuffer, "my-in-memory.pdf")),
+				"got wrong documents for ByteBuffer");
+		assertEquals(1, directBuffer.position(), "changed the buffer position");
+
+		assertEquals(expectedDocuments,
+				readPages(new InMemoryPdf(new ByteArrayInputStream(pdfData), "my-in-memory.pdf")),
+				"got wrong documents for InputStream");
+
+		final Path pdfFile = Files.write(tempDirectory.resolve("book-of-john-3.pdf"), pdfData);
+		try (final FileChannel fileChannel = FileChannel.open(pdfFile, StandardOpenOption.READ)) {
+			assertEquals(expectedDocuments,
+					readPages(new InMemoryPdf(fileChannel, 0, pdfData.length, "my-in-memory.pdf")),
+					"got wrong documents for memory mapped file");
+		}
+	}
+
+	private static List<Map<String, String>> readPages(final InMemoryPdf pdf) {
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			return new ReadDocumentsFromInMemoryPdfChain(PdfReadMode.PAGE_RANGES, false,
+					MemoryUsageSetting.setupMainMemoryOnly(), executor, 1).run(pdf).collect(Collectors.toList());
+		} finally {
+			executor.shutdown();
+		}
+	}
 }
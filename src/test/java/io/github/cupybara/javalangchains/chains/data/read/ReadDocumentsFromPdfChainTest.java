@@ -3,18 +3,35 @@ package io.github.cupybara.javalangchains.chains.data.read;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageTree;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import io.github.cupybara.javalangchains.chains.data.reader.ReadDocumentsFromPdfChain;
+import io.github.cupybara.javalangchains.chains.data.reader.ReadDocumentsFromPdfChainBase;
 import io.github.cupybara.javalangchains.chains.data.reader.ReadDocumentsFromPdfChainBase.PdfReadMode;
 import io.github.cupybara.javalangchains.util.PromptConstants;
 
@@ -75,4 +92,142 @@ class ReadDocumentsFromPdfChainTest {
 		assertFalse(doc4.get(PromptConstants.CONTENT).trim().isEmpty(), "got empty content for doc4");
 		assertEquals("book-of-john-3.pdf p.2", doc4.get(PromptConstants.SOURCE), "got wrong source for doc4");
 	}
+
+	@Test
+	void testReadPagesLazily() {
+		// PDFTextStripper requests the page tree once per extracted page
+		final AtomicInteger extractedPages = new AtomicInteger();
+		final PDDocument pdDocument = new PDDocument() {
+			@Override
+			public PDPageTree getPages() {
+				extractedPages.incrementAndGet();
+				return super.getPages();
+			}
+		};
+		for (int i = 0; i < 5; i++) {
+			pdDocument.addPage(new PDPage());
+		}
+		extractedPages.set(0);
+
+		final ReadDocumentsFromPdfChainBase<Path> chain = new ReadDocumentsFromPdfChainBase<Path>(PdfReadMode.PAGES,
+				false) {
+			@Override
+			protected Stream<PdDocumentWrapper> loadPdDocuments(final Path input) {
+				// the wrapper constructors are only accessible to subclasses
+				return Stream.of(new PdDocumentWrapper(pdDocument, "empty.pdf") {
+				});
+			}
+		};
+
+		try (final Stream<Map<String, String>> documents = chain.run(pdfDirectory)) {
+			final Iterator<Map<String, String>> documentIterator = documents.iterator();
+			assertEquals("empty.pdf p.1", documentIterator.next().get(PromptConstants.SOURCE), "got wrong source");
+			assertEquals(1, extractedPages.get(), "pages were extracted before they were consumed");
+		}
+	}
+
+	@Test
+	void testReadBounded() {
+		final ReadDocumentsFromPdfChain chain = new ReadDocumentsFromPdfChain(PdfReadMode.PAGES,
+				MemoryUsageSetting.setupMainMemoryOnly(), 2, 1);
+
+		final Set<String> sources;
+		try (final Stream<Map<String, String>> documents = chain.run(pdfDirectory)) {
+			sources = documents.map(document -> document.get(PromptConstants.SOURCE)).collect(Collectors.toSet());
+		}
+		assertEquals(4, sources.size(), "incorrect number of read document pages");
+		assertTrue(sources.contains("book-of-john-3.pdf p.2"), "missing page of book-of-john-3.pdf");
+
+		// the workers are stopped if the stream is not consumed completely
+		try (final Stream<Map<String, String>> documents = chain.run(pdfDirectory)) {
+			assertTrue(documents.findFirst().isPresent(), "got no document");
+		}
+	}
+
+	@Test
+	void testReadBoundedFailure() {
+		final AtomicInteger createdWorkers = new AtomicInteger();
+		final ThreadFactory workerThreadFactory = runnable -> {
+			createdWorkers.incrementAndGet();
+			final Thread thread = new Thread(runnable);
+			thread.setDaemon(true);
+			return thread;
+		};
+
+		// an error of a worker must not end the documents as if all pdfs were read
+		final ReadDocumentsFromPdfChainBase<Path> chain = new ReadDocumentsFromPdfChainBase<Path>(PdfReadMode.WHOLE,
+				false, MemoryUsageSetting.setupMainMemoryOnly(), Runnable::run, 16, 2, 1, workerThreadFactory) {
+			@Override
+			protected Stream<PdDocumentWrapper> loadPdDocuments(final Path input) {
+				return Stream.of((PdDocumentWrapper) null).map(pdDocumentWrapper -> {
+					throw new OutOfMemoryError("no memory left");
+				});
+			}
+		};
+
+		try (final Stream<Map<String, String>> documents = chain.run(pdfDirectory)) {
+			assertThrows(OutOfMemoryError.class, documents::count, "the error was not passed to the consumer");
+		}
+		assertEquals(2, createdWorkers.get(), "workers were not created by the thread factory");
+	}
+
+	@Test
+	void testReadSymbolicLinkCycle(@TempDir final Path tempDirectory) throws IOException {
+		final Path pdfCopyDirectory = Files.createDirectory(tempDirectory.resolve("pdf"));
+		Files.copy(pdfDirectory.resolve("book-of-john-1.pdf"), pdfCopyDirectory.resolve("book-of-john-1.pdf"));
+		Files.createSymbolicLink(pdfCopyDirectory.resolve("loop"), pdfCopyDirectory);
+
+		final List<Map<String, String>> documents = new ReadDocumentsFromPdfChain(PdfReadMode.WHOLE)
+				.run(pdfCopyDirectory).collect(Collectors.toList());
+		assertEquals(1, documents.size(), "incorrect number of read documents");
+		assertEquals("book-of-john-1.pdf", documents.get(0).get(PromptConstants.SOURCE), "got wrong source");
+	}
+
+	@Test
+	void testReadIncremental(@TempDir final Path tempDirectory) throws IOException {
+		final Path pdfCopyDirectory = Files.createDirectory(tempDirectory.resolve("pdf"));
+		for (int i = 1; i <= 3; i++) {
+			final String fileName = "book-of-john-" + i + ".pdf";
+			Files.copy(pdfDirectory.resolve(fileName), pdfCopyDirectory.resolve(fileName));
+		}
+
+		final ReadDocumentsFromPdfChain chain = new ReadDocumentsFromPdfChain(PdfReadMode.WHOLE, false,
+				tempDirectory.resolve("manifest.tsv"));
+
+		final List<Map<String, String>> initialDocuments = chain.run(pdfCopyDirectory).collect(Collectors.toList());
+		assertEquals(3, initialDocuments.size(), "incorrect number of initially read documents");
+		assertEquals("book-of-john-1.pdf", initialDocuments.get(0).get(PromptConstants.ORIGIN), "got wrong origin");
+
+		// the pdfs are read again until the manifest is committed (after writing)
+		assertEquals(3, chain.run(pdfCopyDirectory).count(), "uncommitted documents were not read again");
+		assertTrue(chain.commitManifest(), "no pending manifest");
+
+		assertTrue(chain.run(pdfCopyDirectory).collect(Collectors.toList()).isEmpty(), "read unchanged documents");
+		chain.commitManifest();
+
+		// touching a file without changing its content does not read it again
+		Files.setLastModifiedTime(pdfCopyDirectory.resolve("book-of-john-1.pdf"),
+				FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+		assertTrue(chain.run(pdfCopyDirectory).collect(Collectors.toList()).isEmpty(), "read touched document");
+		chain.commitManifest();
+
+		Files.delete(pdfCopyDirectory.resolve("book-of-john-1.pdf"));
+		Files.copy(pdfDirectory.resolve("book-of-john-3.pdf"), pdfCopyDirectory.resolve("book-of-john-2.pdf"),
+				StandardCopyOption.REPLACE_EXISTING);
+
+		final List<Map<String, String>> changedDocuments = chain.run(pdfCopyDirectory).collect(Collectors.toList());
+		assertEquals(2, changedDocuments.size(), "incorrect number of changed documents");
+		chain.commitManifest();
+
+		final Map<String, String> tombstone = changedDocuments.get(0);
+		assertEquals("book-of-john-1.pdf", tombstone.get(PromptConstants.ORIGIN), "got wrong tombstone origin");
+		assertEquals("true", tombstone.get(PromptConstants.DELETED), "tombstone is not marked as deleted");
+
+		final Map<String, String> modifiedDocument = changedDocuments.get(1);
+		assertEquals("book-of-john-2.pdf", modifiedDocument.get(PromptConstants.ORIGIN), "got wrong origin");
+		assertEquals(initialDocuments.get(2).get(PromptConstants.CONTENT),
+				modifiedDocument.get(PromptConstants.CONTENT), "got wrong content for modified document");
+
+		assertTrue(chain.run(pdfCopyDirectory).collect(Collectors.toList()).isEmpty(), "read unchanged documents");
+	}
 }
@@ -40,6 +40,28 @@ public class DocumentTestUtil {
     public static final List<String> DOCUMENTS = Arrays.asList(DocumentTestUtil.DOCUMENT_1, DocumentTestUtil.DOCUMENT_2, DocumentTestUtil.DOCUMENT_3);
     // @formatter:on
 
+    /**
+     * keywords which define the dimensions of {@link #embed(String)}
+     */
+    private static final List<String> EMBEDDING_KEYWORDS = Arrays.asList("art", "travel", "medicine");
+
+    /**
+     * creates a simple embedding of a text for testing vector retrieval: counts of
+     * some keywords plus a constant dimension, so no vector is zero
+     *
+     * @param text the embedded text
+     * @return the embedding
+     */
+    public static float[] embed(final String text) {
+        final String lowerCaseText = text.toLowerCase();
+        final float[] embedding = new float[EMBEDDING_KEYWORDS.size() + 1];
+        for (int i = 0; i < EMBEDDING_KEYWORDS.size(); i++) {
+            embedding[i] = lowerCaseText.split(EMBEDDING_KEYWORDS.get(i), -1).length - 1;
+        }
+        embedding[EMBEDDING_KEYWORDS.size()] = 1;
+        return embedding;
+    }
+
     private DocumentTestUtil() {
 
     }
@@ -0,0 +1,78 @@
+package io.github.cupybara.javalangchains.chains.data.retrieval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.apache.lucene.store.Directory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.cupybara.javalangchains.chains.data.writer.WriteDocumentsToLuceneDirectoryChain;
+import io.github.cupybara.javalangchains.util.PromptConstants;
+
+/**
+ * Tests for the {@link LuceneHybridRetrievalChain}
+ */
+class LuceneHybridRetrievalChainTest {
+
+	@Test
+	void testRun(@TempDir final Path tempDirPath) throws IOException {
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try (final Directory directory = writeDocuments(tempDirPath);
+				final LuceneHybridRetrievalChain hybridRetrievalChain = new LuceneHybridRetrievalChain(directory, 1,
+						DocumentTestUtil::embed, executor);
+				final LuceneRetrievalChain lexicalRetrievalChain = new LuceneRetrievalChain(directory, 1,
+						LuceneRetrievalChain.createPlainTextQueryCreator())) {
+
+			final List<Map<String, String>> documents = hybridRetrievalChain.run("what kind of art does john make?")
+					.collect(Collectors.toList());
+			assertEquals(1, documents.size(), "incorrect number of retrieved documents");
+			assertEquals("2", documents.get(0).get(PromptConstants.SOURCE), "invalid source");
+
+			// no lexical hits, but the embedding of "artworks" is near to the art document
+			final String paraphrasedQuestion = "artworks?";
+			assertTrue(lexicalRetrievalChain.run(paraphrasedQuestion).collect(Collectors.toList()).isEmpty(),
+					"retrieved lexical documents");
+			final List<Map<String, String>> paraphrasedDocuments = hybridRetrievalChain.run(paraphrasedQuestion)
+					.collect(Collectors.toList());
+			assertEquals("2", paraphrasedDocuments.get(0).get(PromptConstants.SOURCE), "invalid source");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void testRunWithoutAvailableExecutor(@TempDir final Path tempDirPath) throws IOException {
+		// the nearest neighbor search is executed by the calling thread if the
+		// executor does not run it
+		final Executor idleExecutor = runnable -> {
+		};
+		try (final Directory directory = writeDocuments(tempDirPath);
+				final LuceneHybridRetrievalChain hybridRetrievalChain = new LuceneHybridRetrievalChain(directory, 1,
+						DocumentTestUtil::embed, idleExecutor)) {
+			final List<Map<String, String>> documents = hybridRetrievalChain.run("artworks?")
+					.collect(Collectors.toList());
+			assertEquals("2", documents.get(0).get(PromptConstants.SOURCE), "invalid source");
+		}
+	}
+
+	private static Directory writeDocuments(final Path indexPath) {
+		return new WriteDocumentsToLuceneDirectoryChain(indexPath, DocumentTestUtil::embed)
+				.run(DocumentTestUtil.DOCUMENTS.stream().map(content -> {
+					final Map<String, String> document = new HashMap<>();
+					document.put(PromptConstants.CONTENT, content);
+					document.put(PromptConstants.SOURCE, String.valueOf(DocumentTestUtil.DOCUMENTS.indexOf(content) + 1));
+					return document;
+				}));
+	}
+}
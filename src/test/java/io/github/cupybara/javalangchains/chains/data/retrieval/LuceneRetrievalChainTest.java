@@ -8,6 +8,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +21,7 @@ import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.MMapDirectory;
 import org.junit.jupiter.api.AfterAll;
@@ -82,4 +84,63 @@ class LuceneRetrievalChainTest {
 					"invalid content");
 		}
 	}
+
+	@Test
+	void testRunPlainTextQuery() throws IOException {
+		try (final LuceneRetrievalChain retrievalChain = new LuceneRetrievalChain(directory, 2,
+				LuceneRetrievalChain.createPlainTextQueryCreator())) {
+			// would be rejected by the QueryParser
+			final String question = "what kind of art [does] john make? (AND";
+
+			final List<Map<String, String>> documents = retrievalChain.run(question).collect(Collectors.toList());
+			assertFalse(documents.isEmpty(), "no documents retrieved");
+			assertEquals("2", documents.get(0).get(PromptConstants.SOURCE), "invalid source");
+
+			assertTrue(retrievalChain.run("?!").collect(Collectors.toList()).isEmpty(), "retrieved documents");
+		}
+	}
+
+	@Test
+	void testRefresh() throws IOException {
+		try (final Directory nrtDirectory = new ByteBuffersDirectory();
+				final IndexWriter indexWriter = new IndexWriter(nrtDirectory,
+						new IndexWriterConfig(new StandardAnalyzer()));
+				final LuceneRetrievalChain retrievalChain = new LuceneRetrievalChain(indexWriter, 2, null)) {
+			final String question = "what kind of art does john make?";
+			assertTrue(retrievalChain.run(question).collect(Collectors.toList()).isEmpty(), "retrieved documents");
+
+			final Document doc = new Document();
+			doc.add(new TextField(PromptConstants.CONTENT, DocumentTestUtil.DOCUMENT_2, Field.Store.YES));
+			indexWriter.addDocument(doc);
+			assertTrue(retrievalChain.run(question).collect(Collectors.toList()).isEmpty(),
+					"retrieved documents before refresh");
+
+			// the uncommitted document is visible after the refresh
+			retrievalChain.refresh();
+			final List<Map<String, String>> documents = retrievalChain.run(question).collect(Collectors.toList());
+			assertEquals(1, documents.size(), "incorrect number of retrieved documents");
+			assertEquals(DocumentTestUtil.DOCUMENT_2, documents.get(0).get(PromptConstants.CONTENT),
+					"invalid content");
+		}
+	}
+
+	@Test
+	void testBackgroundRefresh() throws IOException, InterruptedException {
+		try (final Directory nrtDirectory = new ByteBuffersDirectory();
+				final IndexWriter indexWriter = new IndexWriter(nrtDirectory,
+						new IndexWriterConfig(new StandardAnalyzer()));
+				final LuceneRetrievalChain retrievalChain = new LuceneRetrievalChain(indexWriter, 2,
+						Duration.ofMillis(10))) {
+			final Document doc = new Document();
+			doc.add(new TextField(PromptConstants.CONTENT, DocumentTestUtil.DOCUMENT_2, Field.Store.YES));
+			indexWriter.addDocument(doc);
+
+			final String question = "what kind of art does john make?";
+			final long deadline = System.currentTimeMillis() + 5000;
+			while (retrievalChain.run(question).count() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(1, retrievalChain.run(question).count(), "document is not visible after background refresh");
+		}
+	}
 }
@@ -0,0 +1,74 @@
+package io.github.cupybara.javalangchains.chains.data.retrieval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.store.Directory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.cupybara.javalangchains.chains.data.writer.WriteDocumentsToLuceneDirectoryChain;
+import io.github.cupybara.javalangchains.chains.llm.EmbeddingChain;
+import io.github.cupybara.javalangchains.util.PromptConstants;
+
+/**
+ * Tests for the {@link LuceneVectorRetrievalChain}
+ */
+class LuceneVectorRetrievalChainTest {
+
+	@Test
+	void testRun(@TempDir final Path tempDirPath) throws IOException {
+		try (final Directory directory = new WriteDocumentsToLuceneDirectoryChain(tempDirPath, DocumentTestUtil::embed)
+				.run(DocumentTestUtil.DOCUMENTS.stream().map(content -> {
+					final Map<String, String> document = new HashMap<>();
+					document.put(PromptConstants.CONTENT, content);
+					document.put(PromptConstants.SOURCE, String.valueOf(DocumentTestUtil.DOCUMENTS.indexOf(content) + 1));
+					return document;
+				}));
+				final LuceneVectorRetrievalChain retrievalChain = new LuceneVectorRetrievalChain(directory, 2,
+						DocumentTestUtil::embed)) {
+
+			final List<Map<String, String>> artDocuments = retrievalChain.run("show me some art")
+					.collect(Collectors.toList());
+			assertEquals(2, artDocuments.size(), "incorrect number of retrieved documents");
+			assertEquals("2", artDocuments.get(0).get(PromptConstants.SOURCE), "invalid source");
+
+			final List<Map<String, String>> travelDocuments = retrievalChain.run("where did he travel?")
+					.collect(Collectors.toList());
+			assertEquals("3", travelDocuments.get(0).get(PromptConstants.SOURCE), "invalid source");
+		}
+	}
+
+	@Test
+	void testRunBatchEmbedded(@TempDir final Path tempDirPath) throws IOException {
+		final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+		final EmbeddingChain embeddingChain = inputs -> {
+			batchSizes.add(inputs.size());
+			return inputs.stream().map(DocumentTestUtil::embed).collect(Collectors.toList());
+		};
+
+		try (final Directory directory = new WriteDocumentsToLuceneDirectoryChain(tempDirPath, embeddingChain,
+				VectorSimilarityFunction.COSINE, 2).run(DocumentTestUtil.DOCUMENTS.stream().map(content -> {
+					final Map<String, String> document = new HashMap<>();
+					document.put(PromptConstants.CONTENT, content);
+					document.put(PromptConstants.SOURCE, String.valueOf(DocumentTestUtil.DOCUMENTS.indexOf(content) + 1));
+					return document;
+				}));
+				final LuceneVectorRetrievalChain retrievalChain = new LuceneVectorRetrievalChain(directory, 1,
+						embeddingChain)) {
+
+			assertEquals(Arrays.asList(2, 1), batchSizes, "documents should be embedded in batches");
+			assertEquals("2", retrievalChain.run("show me some art").findFirst().get().get(PromptConstants.SOURCE),
+					"invalid source");
+		}
+	}
+}
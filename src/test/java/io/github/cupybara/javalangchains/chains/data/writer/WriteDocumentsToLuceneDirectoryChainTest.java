@@ -0,0 +1,53 @@
+package io.github.cupybara.javalangchains.chains.data.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.cupybara.javalangchains.util.PromptConstants;
+
+/**
+ * Tests for the {@link WriteDocumentsToLuceneDirectoryChain}
+ */
+class WriteDocumentsToLuceneDirectoryChainTest {
+
+	@Test
+	void testReplaceOriginsInParallel(@TempDir final Path tempDirPath) throws IOException {
+		final WriteDocumentsToLuceneDirectoryChain chain = new WriteDocumentsToLuceneDirectoryChain(tempDirPath);
+		chain.run(createDocuments(10)).close();
+
+		// the previous documents of each origin must be deleted before any new
+		// document of the origin is added
+		try (final Directory directory = chain.run(createDocuments(200).parallel());
+				final DirectoryReader directoryReader = DirectoryReader.open(directory)) {
+			final IndexSearcher indexSearcher = new IndexSearcher(directoryReader);
+			for (int origin = 0; origin < 4; origin++) {
+				assertEquals(50, indexSearcher.count(new TermQuery(new Term(PromptConstants.ORIGIN, "origin-" + origin))),
+						"wrong count of documents of origin " + origin);
+			}
+		}
+	}
+
+	private static Stream<Map<String, String>> createDocuments(final int count) {
+		return IntStream.range(0, count).mapToObj(index -> {
+			final Map<String, String> document = new HashMap<>();
+			document.put(PromptConstants.CONTENT, "content " + index);
+			document.put(PromptConstants.SOURCE, "source " + index);
+			document.put(PromptConstants.ORIGIN, "origin-" + index % 4);
+			return document;
+		});
+	}
+}
@@ -0,0 +1,126 @@
+package io.github.cupybara.javalangchains.chains.llm.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.cupybara.javalangchains.chains.llm.EmbeddingChain;
+
+/**
+ * Unit tests for the {@link CachingEmbeddingChain}
+ */
+class CachingEmbeddingChainTest {
+
+	@Test
+	void testRunBatch() {
+		final CountingEmbeddingChain embeddingChain = new CountingEmbeddingChain("model");
+		final CachingEmbeddingChain chain = new CachingEmbeddingChain(embeddingChain, new EmbeddingCache(10));
+
+		final List<float[]> embeddings = chain.runBatch(Arrays.asList("a", "bb", "a"));
+		assertEquals(3, embeddings.size(), "wrong count of embeddings");
+		assertArrayEquals(new float[] { 1, 1 }, embeddings.get(0), "wrong embedding");
+		assertArrayEquals(new float[] { 2, 1 }, embeddings.get(1), "wrong embedding");
+		assertArrayEquals(new float[] { 1, 1 }, embeddings.get(2), "wrong embedding");
+
+		assertArrayEquals(new float[] { 3, 1 }, chain.runBatch(Arrays.asList("bb", "ccc")).get(1), "wrong embedding");
+		assertArrayEquals(new float[] { 2, 1 }, chain.run("bb"), "wrong cached embedding");
+
+		assertEquals(Arrays.asList("a", "bb", "ccc"), embeddingChain.embeddedInputs,
+				"only uncached texts should be embedded");
+		assertEquals(2, chain.getCache().getHitCount(), "wrong hit count");
+		assertEquals(3, chain.getCache().getMissCount(), "wrong miss count");
+	}
+
+	@Test
+	void testRunPersistent(@TempDir final Path tempDirPath) throws IOException {
+		final List<String> chunks = Arrays.asList("first chunk", "second chunk", "third chunk");
+
+		final CountingEmbeddingChain embeddingChain = new CountingEmbeddingChain("model");
+		try (final EmbeddingCache cache = new EmbeddingCache(10, tempDirPath)) {
+			new CachingEmbeddingChain(embeddingChain, cache).runBatch(chunks);
+		}
+
+		// an in memory tier of size 0 only uses the files
+		try (final EmbeddingCache cache = new EmbeddingCache(0, tempDirPath)) {
+			final List<float[]> embeddings = new CachingEmbeddingChain(embeddingChain, cache)
+					.runBatch(Arrays.asList("first chunk", "second chunk", "modified chunk"));
+			assertArrayEquals(new float[] { 11, 1 }, embeddings.get(0), "wrong cached embedding");
+			assertArrayEquals(new float[] { 12, 1 }, embeddings.get(1), "wrong cached embedding");
+			assertArrayEquals(new float[] { 14, 1 }, embeddings.get(2), "wrong embedding");
+			assertEquals(2, cache.getHitCount(), "wrong hit count");
+
+			// embeddings of another model are not reused
+			final CountingEmbeddingChain otherEmbeddingChain = new CountingEmbeddingChain("other-model");
+			new CachingEmbeddingChain(otherEmbeddingChain, cache).run("first chunk");
+			assertEquals(Collections.singletonList("first chunk"), otherEmbeddingChain.embeddedInputs,
+					"embedding of another model should not be cached");
+		}
+
+		assertEquals(4, embeddingChain.embeddedInputs.size(), "only new or modified chunks should be embedded");
+	}
+
+	@Test
+	void testCacheCopiesEmbeddings() {
+		final EmbeddingCache cache = new EmbeddingCache(10);
+		final float[] embedding = { 1, 2 };
+		cache.put("key", embedding);
+		embedding[0] = 3;
+
+		final float[] cachedEmbedding = cache.get("key").get();
+		assertArrayEquals(new float[] { 1, 2 }, cachedEmbedding, "cached embedding was modified by the caller");
+		cachedEmbedding[1] = 3;
+		assertArrayEquals(new float[] { 1, 2 }, cache.get("key").get(), "cached embedding was modified by the caller");
+	}
+
+	@Test
+	void testStoreIndex(@TempDir final Path tempDirPath) throws IOException {
+		// enough entries to grow the index several times
+		try (final EmbeddingCache cache = new EmbeddingCache(0, tempDirPath)) {
+			for (int index = 0; index < 5000; index++) {
+				cache.put("key " + index, new float[] { index, 1 });
+			}
+		}
+
+		try (final EmbeddingCache cache = new EmbeddingCache(0, tempDirPath)) {
+			for (int index = 0; index < 5000; index++) {
+				assertArrayEquals(new float[] { index, 1 }, cache.get("key " + index).get(), "wrong stored embedding");
+			}
+			assertFalse(cache.get("unknown key").isPresent(), "unknown key found");
+		}
+	}
+
+	/**
+	 * embeds each text as [length, 1] and records all embedded texts
+	 */
+	private static final class CountingEmbeddingChain implements EmbeddingChain {
+
+		private final String modelId;
+		private final List<String> embeddedInputs = new CopyOnWriteArrayList<>();
+
+		private CountingEmbeddingChain(final String modelId) {
+			this.modelId = modelId;
+		}
+
+		@Override
+		public List<float[]> runBatch(final List<String> inputs) {
+			embeddedInputs.addAll(inputs);
+			return inputs.stream().map(input -> new float[] { input.length(), 1 }).collect(Collectors.toList());
+		}
+
+		@Override
+		public String getModelId() {
+			return modelId;
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package io.github.cupybara.javalangchains.chains.llm.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.cupybara.javalangchains.chains.llm.LargeLanguageModelChain;
+
+/**
+ * Unit tests for the {@link CachingLargeLanguageModelChain}
+ */
+class CachingLargeLanguageModelChainTest {
+
+	@Test
+	void testRunDeterministic() {
+		final CountingLargeLanguageModelChain llmChain = new CountingLargeLanguageModelChain(true);
+		final CachingLargeLanguageModelChain chain = new CachingLargeLanguageModelChain(llmChain,
+				new LargeLanguageModelResponseCache(10, Duration.ofMinutes(1)));
+
+		assertEquals("Hello Manuel", chain.run(Collections.singletonMap("name", "Manuel")), "wrong output");
+		assertEquals("Hello Manuel", chain.run(Collections.singletonMap("name", "Manuel")), "wrong cached output");
+		assertEquals("Hello Lisa", chain.run(Collections.singletonMap("name", "Lisa")), "wrong output");
+
+		assertEquals(2, llmChain.calls.get(), "llm should only be called for uncached inputs");
+		assertEquals(1, chain.getCache().getHitCount(), "wrong hit count");
+		assertEquals(2, chain.getCache().getMissCount(), "wrong miss count");
+	}
+
+	@Test
+	void testRunNonDeterministic() {
+		final CountingLargeLanguageModelChain llmChain = new CountingLargeLanguageModelChain(false);
+		final Map<String, String> input = Collections.singletonMap("name", "Manuel");
+
+		final CachingLargeLanguageModelChain chain = new CachingLargeLanguageModelChain(llmChain,
+				new LargeLanguageModelResponseCache(10, Duration.ofMinutes(1)));
+		chain.run(input);
+		chain.run(input);
+		assertEquals(2, llmChain.calls.get(), "non deterministic responses should not be cached by default");
+
+		final CachingLargeLanguageModelChain optInChain = new CachingLargeLanguageModelChain(llmChain,
+				new LargeLanguageModelResponseCache(10, Duration.ofMinutes(1)), true);
+		optInChain.run(input);
+		optInChain.run(input);
+		assertEquals(3, llmChain.calls.get(), "non deterministic responses should be cached after opting in");
+	}
+
+	@Test
+	void testRunAsync() throws InterruptedException, ExecutionException {
+		final CountingLargeLanguageModelChain llmChain = new CountingLargeLanguageModelChain(true);
+		final CachingLargeLanguageModelChain chain = new CachingLargeLanguageModelChain(llmChain,
+				new LargeLanguageModelResponseCache(10, Duration.ofMinutes(1)));
+		final Map<String, String> input = Collections.singletonMap("name", "Manuel");
+
+		assertEquals("Hello Manuel", chain.runAsync(input).get(), "wrong output");
+		assertEquals("Hello Manuel", chain.runAsync(input).get(), "wrong cached output");
+		assertEquals(1, llmChain.calls.get(), "llm should only be called once");
+	}
+
+	@Test
+	void testLeastRecentlyUsedEviction() {
+		final CountingLargeLanguageModelChain llmChain = new CountingLargeLanguageModelChain(true);
+		final CachingLargeLanguageModelChain chain = new CachingLargeLanguageModelChain(llmChain,
+				new LargeLanguageModelResponseCache(2, Duration.ofMinutes(1)));
+
+		chain.run(Collections.singletonMap("name", "a"));
+		chain.run(Collections.singletonMap("name", "b"));
+		chain.run(Collections.singletonMap("name", "a"));
+		chain.run(Collections.singletonMap("name", "c")); // evicts b
+		assertEquals(3, llmChain.calls.get(), "wrong call count");
+
+		chain.run(Collections.singletonMap("name", "a"));
+		assertEquals(3, llmChain.calls.get(), "a should still be cached");
+		chain.run(Collections.singletonMap("name", "b"));
+		assertEquals(4, llmChain.calls.get(), "b should have been evicted");
+	}
+
+	@Test
+	void testExpiration() throws InterruptedException {
+		final CountingLargeLanguageModelChain llmChain = new CountingLargeLanguageModelChain(true);
+		final CachingLargeLanguageModelChain chain = new CachingLargeLanguageModelChain(llmChain,
+				new LargeLanguageModelResponseCache(10, Duration.ofMillis(50)));
+		final Map<String, String> input = Collections.singletonMap("name", "Manuel");
+
+		chain.run(input);
+		Thread.sleep(100);
+		chain.run(input);
+		assertEquals(2, llmChain.calls.get(), "expired entry should not be used");
+	}
+
+	@Test
+	void testDiskTier(@TempDir final Path tempDir) {
+		final Map<String, String> input = Collections.singletonMap("name", "Manuel");
+
+		final CountingLargeLanguageModelChain firstLlmChain = new CountingLargeLanguageModelChain(true);
+		new CachingLargeLanguageModelChain(firstLlmChain,
+				new LargeLanguageModelResponseCache(10, Duration.ofMinutes(1), tempDir)).run(input);
+
+		// a new cache instance (e.g. after a restart) reads the persisted response
+		final CountingLargeLanguageModelChain secondLlmChain = new CountingLargeLanguageModelChain(true);
+		final String result = new CachingLargeLanguageModelChain(secondLlmChain,
+				new LargeLanguageModelResponseCache(10, Duration.ofMinutes(1), tempDir)).run(input);
+
+		assertEquals("Hello Manuel", result, "wrong output");
+		assertEquals(0, secondLlmChain.calls.get(), "response should have been read from disk");
+	}
+
+	@Test
+	void testBoundedDiskTier(@TempDir final Path tempDir) throws IOException {
+		final LargeLanguageModelResponseCache cache = new LargeLanguageModelResponseCache(10, Duration.ofMinutes(1),
+				tempDir, 2);
+		for (int index = 0; index < 5; index++) {
+			cache.put("key " + index, "response " + index);
+		}
+		assertTrue(countFiles(tempDir) <= 2, "on disk tier exceeds its bound");
+
+		cache.clear();
+		assertEquals(0, countFiles(tempDir), "on disk tier was not cleared");
+	}
+
+	private static long countFiles(final Path directory) throws IOException {
+		try (final Stream<Path> files = Files.list(directory)) {
+			return files.count();
+		}
+	}
+
+	private static final class CountingLargeLanguageModelChain extends LargeLanguageModelChain {
+
+		private final boolean deterministic;
+		private final AtomicInteger calls = new AtomicInteger();
+
+		private CountingLargeLanguageModelChain(final boolean deterministic) {
+			super("Hello ${name}");
+			this.deterministic = deterministic;
+		}
+
+		@Override
+		public String run(final Map<String, String> input) {
+			calls.incrementAndGet();
+			return getCompiledPromptTemplate().render(input);
+		}
+
+		@Override
+		public boolean isDeterministic() {
+			return deterministic;
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package io.github.cupybara.javalangchains.chains.llm.openai.chat;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -37,6 +38,25 @@ class OpenAiChatCompletionsChainIT {
 		assertTrue(result.contains(name), "The answer did not contain the name");
 	}
 
+	@Test
+	void testStream() {
+		final OpenAiChatCompletionsParameters parameters = new OpenAiChatCompletionsParameters();
+		parameters.setModel("gpt-3.5-turbo");
+		parameters.setTemperature(0D);
+
+		final OpenAiChatCompletionsChain chain = new OpenAiChatCompletionsChain(
+				"Hello, this is ${name}. What was my name again?", parameters, System.getenv("OPENAI_API_KEY"));
+
+		final String name = "Manuel";
+		final StringBuilder streamedResult = new StringBuilder();
+		final String result = chain.run(Collections.singletonMap("name", name), streamedResult::append);
+		LOGGER.info(result);
+
+		assertNotNull(result, "got no result from OpenAiChatCompletionsChain");
+		assertTrue(result.contains(name), "The answer did not contain the name");
+		assertEquals(result, streamedResult.toString(), "streamed fragments do not match the result");
+	}
+
 	@Test
 	void testChainedRun() {
 		final OpenAiChatCompletionsParameters parameters = new OpenAiChatCompletionsParameters();
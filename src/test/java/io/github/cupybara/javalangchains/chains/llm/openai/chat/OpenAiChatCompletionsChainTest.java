@@ -0,0 +1,56 @@
+package io.github.cupybara.javalangchains.chains.llm.openai.chat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for the {@link OpenAiChatCompletionsChain} using a stubbed
+ * {@link WebClient}
+ */
+class OpenAiChatCompletionsChainTest {
+
+	// @formatter:off
+	private static final String STREAMED_RESPONSE =
+			  "data: {\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\"}}]}\n\n"
+			+ "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Hello \"}}]}\n\n"
+			+ "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Manuel\"}}]}\n\n"
+			+ "data: {\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}]}\n\n"
+			+ "data: [DONE]\n\n";
+	// @formatter:on
+
+	@Test
+	void testStream() {
+		final AtomicReference<ClientRequest> requestRef = new AtomicReference<>();
+
+		final WebClient webClient = WebClient.builder().exchangeFunction(request -> {
+			requestRef.set(request);
+			return Mono.just(ClientResponse.create(HttpStatus.OK)
+					.header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE).body(STREAMED_RESPONSE)
+					.build());
+		}).build();
+
+		final OpenAiChatCompletionsChain chain = new OpenAiChatCompletionsChain("Hello, this is ${name}",
+				new OpenAiChatCompletionsParameters().model("gpt-3.5-turbo"), "my-api-key", null,
+				OpenAiChatCompletionsChain.createDefaultObjectMapper(), webClient);
+
+		final List<String> fragments = chain.stream(Collections.singletonMap("name", "Manuel")).collectList().block();
+		assertEquals(2, fragments.size(), "wrong count of content fragments");
+		assertEquals("Hello ", fragments.get(0), "wrong first fragment");
+		assertEquals("Manuel", fragments.get(1), "wrong second fragment");
+		assertTrue(requestRef.get().url().getPath().endsWith("/v1/chat/completions"), "wrong request path");
+	}
+}
@@ -0,0 +1,75 @@
+package io.github.cupybara.javalangchains.chains.llm.openai.completions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.cupybara.javalangchains.chains.llm.openai.OpenAiChain;
+import io.github.cupybara.javalangchains.util.PromptConstants;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for the {@link OpenAiCompletionsChain} using a stubbed
+ * {@link WebClient}
+ */
+class OpenAiCompletionsChainTest {
+
+	@Test
+	void testRunBatch() {
+		// two choices per prompt, returned in reversed order
+		final OpenAiCompletionsChain chain = createChain(
+				"{\"choices\":[{\"text\":\"third b\",\"index\":5},{\"text\":\"third a\",\"index\":4},"
+						+ "{\"text\":\"second b\",\"index\":3},{\"text\":\"second a\",\"index\":2},"
+						+ "{\"text\":\"first b\",\"index\":1},{\"text\":\"first a\",\"index\":0}]}");
+
+		final List<String> outputs = chain.runBatch(Arrays.asList(createDocument("one"), createDocument("two"),
+				createDocument("three")));
+
+		assertEquals(Arrays.asList("first a", "second a", "third a"), outputs, "choices mapped to wrong prompts");
+	}
+
+	@Test
+	void testRunBatchMissingChoice() {
+		final OpenAiCompletionsChain chain = createChain(
+				"{\"choices\":[{\"text\":\"first a\",\"index\":0},{\"text\":\"first b\",\"index\":1},"
+						+ "{\"text\":\"second b\",\"index\":3}]}");
+
+		final List<Map<String, String>> documents = Arrays.asList(createDocument("one"), createDocument("two"));
+		assertThrows(IllegalStateException.class, () -> chain.runBatch(documents), "missing choice not detected");
+	}
+
+	private static OpenAiCompletionsChain createChain(final String responseBody) {
+		return new OpenAiCompletionsChain("Answer: ${content}",
+				new OpenAiCompletionsParameters().model("text-davinci-003").n(2), "my-api-key",
+				OpenAiChain.createDefaultObjectMapper(), OpenAiChain.createDefaultWebClient()) {
+			@Override
+			protected ResponseSpec createResponseSpec(final OpenAiCompletionsRequest request,
+					final WebClient webClient, final ObjectMapper objectMapper) {
+				return WebClient.builder()
+						.exchangeFunction(clientRequest -> Mono.just(ClientResponse.create(HttpStatus.OK)
+								.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).body(responseBody)
+								.build()))
+						.build().post().uri("http://localhost/v1/completions").retrieve();
+			}
+		};
+	}
+
+	private static Map<String, String> createDocument(final String content) {
+		return Collections.singletonMap(PromptConstants.CONTENT, content);
+	}
+}
@@ -0,0 +1,130 @@
+package io.github.cupybara.javalangchains.chains.llm.openai.embeddings;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.cupybara.javalangchains.chains.llm.openai.OpenAiChain;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Unit tests for the {@link OpenAiEmbeddingsChain} using a stubbed
+ * {@link WebClient}
+ */
+class OpenAiEmbeddingsChainTest {
+
+	@Test
+	void testRunBatch() {
+		final List<String> requestBodies = new CopyOnWriteArrayList<>();
+
+		// each text is embedded as [length, index in request], the embeddings are
+		// returned in reversed order
+		final OpenAiEmbeddingsChain chain = new OpenAiEmbeddingsChain(
+				new OpenAiEmbeddingsParameters().model("text-embedding-ada-002"), "my-api-key", 2, String::length, 10,
+				2, OpenAiChain.createDefaultObjectMapper(), OpenAiChain.createDefaultWebClient()) {
+			@Override
+			protected ResponseSpec createResponseSpec(final OpenAiEmbeddingsRequest request,
+					final WebClient webClient, final ObjectMapper objectMapper) {
+				requestBodies.add(requestToBody(request, objectMapper));
+
+				final String data = IntStream.range(0, request.getInput().size()).map(i -> request.getInput().size() - 1 - i)
+						.mapToObj(i -> "{\"index\":" + i + ",\"embedding\":[" + request.getInput().get(i).length()
+								+ "," + i + "]}")
+						.collect(Collectors.joining(","));
+				return WebClient.builder()
+						.exchangeFunction(clientRequest -> Mono.just(ClientResponse.create(HttpStatus.OK)
+								.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+								.body("{\"data\":[" + data + "]}").build()))
+						.build().post().uri("http://localhost/v1/embeddings").retrieve();
+			}
+		};
+
+		final List<float[]> embeddings = chain.runBatch(Arrays.asList("a", "bb", "ccc", "dddddddddddd", "e"));
+
+		// split by the batch size, the token budget and the oversized text
+		assertEquals(4, requestBodies.size(), "wrong count of requests");
+		assertTrue(requestBodies.get(0).contains("\"input\":[\"a\",\"bb\"]"), "wrong first batch");
+		assertTrue(requestBodies.get(0).contains("\"model\":\"text-embedding-ada-002\""), "missing model");
+
+		assertEquals(5, embeddings.size(), "wrong count of embeddings");
+		assertArrayEquals(new float[] { 1, 0 }, embeddings.get(0), "wrong first embedding");
+		assertArrayEquals(new float[] { 2, 1 }, embeddings.get(1), "wrong second embedding");
+		assertArrayEquals(new float[] { 3, 0 }, embeddings.get(2), "wrong third embedding");
+		assertArrayEquals(new float[] { 12, 0 }, embeddings.get(3), "wrong fourth embedding");
+		assertArrayEquals(new float[] { 1, 0 }, embeddings.get(4), "wrong fifth embedding");
+
+		assertArrayEquals(new float[] { 3, 0 }, chain.run("ccc"), "wrong single embedding");
+	}
+
+	@Test
+	void testRunBatchLargeResponse() throws IOException {
+		final int batchSize = 16;
+		final int dimension = 1536;
+
+		final String embedding = IntStream.range(0, dimension).mapToObj(i -> "-0.012345678")
+				.collect(Collectors.joining(","));
+		final byte[] responseBody = IntStream.range(0, batchSize)
+				.mapToObj(i -> "{\"index\":" + i + ",\"embedding\":[" + embedding + "]}")
+				.collect(Collectors.joining(",", "{\"data\":[", "]}")).getBytes(StandardCharsets.UTF_8);
+		assertTrue(responseBody.length > 256 * 1024, "response should exceed the default buffer limit");
+
+		// a real http server, so the response passes the codecs of the default web client
+		final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/v1/embeddings", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+			exchange.sendResponseHeaders(200, responseBody.length);
+			try (OutputStream outputStream = exchange.getResponseBody()) {
+				outputStream.write(responseBody);
+			}
+		});
+		server.start();
+
+		try {
+			final OpenAiEmbeddingsChain chain = new OpenAiEmbeddingsChain(
+					new OpenAiEmbeddingsParameters().model("text-embedding-ada-002"), "my-api-key", batchSize,
+					String::length, Integer.MAX_VALUE, 1, OpenAiChain.createDefaultObjectMapper(),
+					OpenAiEmbeddingsChain.createDefaultWebClient(batchSize)) {
+				@Override
+				protected ResponseSpec createResponseSpec(final OpenAiEmbeddingsRequest request,
+						final WebClient webClient, final ObjectMapper objectMapper) {
+					return webClient.post()
+							.uri("http://localhost:" + server.getAddress().getPort() + "/v1/embeddings")
+							.contentType(MediaType.APPLICATION_JSON)
+							.bodyValue(requestToBody(request, objectMapper)).retrieve();
+				}
+			};
+
+			final List<float[]> embeddings = chain.runBatch(
+					IntStream.range(0, batchSize).mapToObj(String::valueOf).collect(Collectors.toList()));
+			assertEquals(batchSize, embeddings.size(), "wrong count of embeddings");
+			assertEquals(dimension, embeddings.get(batchSize - 1).length, "wrong dimension");
+			assertEquals(-0.012345678f, embeddings.get(0)[0], "wrong embedding value");
+		} finally {
+			server.stop(0);
+		}
+	}
+}
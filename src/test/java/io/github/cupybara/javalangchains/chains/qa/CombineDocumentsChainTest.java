@@ -0,0 +1,70 @@
+package io.github.cupybara.javalangchains.chains.qa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.cupybara.javalangchains.util.PromptConstants;
+import io.github.cupybara.javalangchains.util.PromptTemplate;
+
+/**
+ * Unit tests for the {@link CombineDocumentsChain}
+ */
+class CombineDocumentsChainTest {
+
+	private static final PromptTemplate TEMPLATE = PromptTemplate.compile("${content} (${source})");
+
+	@Test
+	void testRun() {
+		final Map<String, String> result = new CombineDocumentsChain(TEMPLATE).run(createDocuments(3));
+
+		assertEquals("What?", result.get(PromptConstants.QUESTION), "wrong question");
+		assertEquals("content 0 (source 0)\n\ncontent 1 (source 1)\n\ncontent 2 (source 2)",
+				result.get(PromptConstants.CONTENT), "wrong content");
+	}
+
+	@Test
+	void testRunWithCharacterBudget() {
+		final AtomicInteger consumedDocuments = new AtomicInteger();
+
+		// each document has 20 characters, separators 2
+		final Map<String, String> result = new CombineDocumentsChain(TEMPLATE, 50)
+				.run(createDocuments(10).peek(document -> consumedDocuments.incrementAndGet()));
+
+		assertEquals("content 0 (source 0)\n\ncontent 1 (source 1)", result.get(PromptConstants.CONTENT),
+				"wrong content");
+		assertEquals(3, consumedDocuments.get(), "documents after the budget should not be consumed");
+	}
+
+	@Test
+	void testRunWithNegativeBudget() {
+		final Map<String, String> result = new CombineDocumentsChain(TEMPLATE, -1).run(createDocuments(3));
+		assertEquals("", result.get(PromptConstants.CONTENT), "no document fits into a negative budget");
+	}
+
+	@Test
+	void testRunWithLengthFunction() {
+		// counts words as a simple token approximation
+		final Map<String, String> result = new CombineDocumentsChain(TEMPLATE, 9,
+				text -> text.trim().split("\\s+").length).run(createDocuments(10));
+
+		assertEquals("content 0 (source 0)\n\ncontent 1 (source 1)", result.get(PromptConstants.CONTENT),
+				"wrong content");
+	}
+
+	private static Stream<Map<String, String>> createDocuments(final int count) {
+		return IntStream.range(0, count).mapToObj(i -> {
+			final Map<String, String> document = new HashMap<>();
+			document.put(PromptConstants.QUESTION, "What?");
+			document.put(PromptConstants.CONTENT, "content " + i);
+			document.put(PromptConstants.SOURCE, "source " + i);
+			return document;
+		});
+	}
+}
@@ -4,8 +4,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
+import reactor.core.publisher.Flux;
+
 /**
  * unit tests for the class {@link MapAnswerWithSourcesChain}
  */
@@ -45,4 +50,32 @@ class MapAnswerWithSourcesChainTest {
 		assertEquals("This is my test content.", answerWithSources.getAnswer(), "wrong answer");
 		assertEquals(2, answerWithSources.getSources().size(), "wrong sources count");
 	}
+
+	@Test
+	void testStream() {
+		final List<AnswerWithSources> answers = new MapAnswerWithSourcesChain()
+				.stream(Flux.just("This is my ", "test content.", "\nSOURCES: source-1", ", source-2")).collectList()
+				.block();
+		assertNotNull(answers, "got no answers");
+		assertEquals(4, answers.size(), "wrong count of intermediate answers");
+		assertEquals("This is my", answers.get(0).getAnswer().trim(), "wrong first intermediate answer");
+
+		final AnswerWithSources answerWithSources = answers.get(answers.size() - 1);
+		assertEquals("This is my test content.", answerWithSources.getAnswer(), "wrong answer");
+		assertEquals(2, answerWithSources.getSources().size(), "wrong sources count");
+	}
+
+	@Test
+	void testStreamSplitMarker() {
+		final List<AnswerWithSources> answers = new MapAnswerWithSourcesChain()
+				.stream(Flux.just("This is my test content.\nSOUR", "CES: source-1,", " source-2", ", source-1"))
+				.collectList().block();
+		assertNotNull(answers, "got no answers");
+		assertEquals("This is my test content.\nSOUR", answers.get(0).getAnswer(), "wrong first intermediate answer");
+		assertEquals(4, answers.size(), "wrong count of intermediate answers");
+
+		final AnswerWithSources answerWithSources = answers.get(answers.size() - 1);
+		assertEquals("This is my test content.", answerWithSources.getAnswer(), "wrong answer");
+		assertEquals(Arrays.asList("source-1", "source-2"), answerWithSources.getSources(), "wrong sources");
+	}
 }
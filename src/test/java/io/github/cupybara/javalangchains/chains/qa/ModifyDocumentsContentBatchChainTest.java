@@ -0,0 +1,58 @@
+package io.github.cupybara.javalangchains.chains.qa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.cupybara.javalangchains.util.PromptConstants;
+
+/**
+ * Unit tests for the {@link ModifyDocumentsContentBatchChain}
+ */
+class ModifyDocumentsContentBatchChainTest {
+
+	private static Stream<Map<String, String>> createDocuments(final int count) {
+		return IntStream.range(0, count)
+				.mapToObj(index -> Collections.singletonMap(PromptConstants.CONTENT, "document " + index));
+	}
+
+	@Test
+	void testRunMaxBatchSize() {
+		final List<Integer> batchSizes = new LinkedList<>();
+
+		final List<Map<String, String>> documents = new ModifyDocumentsContentBatchChain(batch -> {
+			batchSizes.add(batch.size());
+			return batch.stream().map(document -> document.get(PromptConstants.CONTENT).toUpperCase())
+					.collect(Collectors.toList());
+		}, 2).run(createDocuments(5)).collect(Collectors.toList());
+
+		assertEquals(Arrays.asList(2, 2, 1), batchSizes, "wrong batch sizes");
+		assertEquals(5, documents.size(), "wrong document count");
+		for (int index = 0; index < documents.size(); index++) {
+			assertEquals("DOCUMENT " + index, documents.get(index).get(PromptConstants.CONTENT),
+					"wrong content for document " + index);
+		}
+	}
+
+	@Test
+	void testRunMaxBatchWeight() {
+		final List<Integer> batchSizes = new LinkedList<>();
+
+		final long documentCount = new ModifyDocumentsContentBatchChain(batch -> {
+			batchSizes.add(batch.size());
+			return batch.stream().map(document -> "").collect(Collectors.toList());
+		}, 10, document -> 3, 7).run(createDocuments(5)).count();
+
+		assertEquals(5, documentCount, "wrong document count");
+		assertEquals(Arrays.asList(2, 2, 1), batchSizes, "wrong batch sizes");
+	}
+}
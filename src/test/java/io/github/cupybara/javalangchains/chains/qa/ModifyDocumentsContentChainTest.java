@@ -0,0 +1,129 @@
+package io.github.cupybara.javalangchains.chains.qa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.cupybara.javalangchains.util.PromptConstants;
+
+/**
+ * Unit tests for the {@link ModifyDocumentsContentChain}
+ */
+class ModifyDocumentsContentChainTest {
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void beforeEach() {
+		executor = Executors.newFixedThreadPool(8);
+	}
+
+	@AfterEach
+	void afterEach() {
+		executor.shutdownNow();
+	}
+
+	private static Stream<Map<String, String>> createDocuments(final int count) {
+		return IntStream.range(0, count)
+				.mapToObj(index -> Collections.singletonMap(PromptConstants.CONTENT, String.valueOf(index)));
+	}
+
+	private static void sleep(final long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (final InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Test
+	void testRunBoundedConcurrency() {
+		final AtomicInteger concurrentCalls = new AtomicInteger();
+		final AtomicInteger maxConcurrentCalls = new AtomicInteger();
+
+		final List<Map<String, String>> documents = new ModifyDocumentsContentChain(document -> {
+			maxConcurrentCalls.accumulateAndGet(concurrentCalls.incrementAndGet(), Math::max);
+			// later documents finish earlier to verify the order is retained
+			sleep(20 - Integer.parseInt(document.get(PromptConstants.CONTENT)));
+			concurrentCalls.decrementAndGet();
+			return "modified " + document.get(PromptConstants.CONTENT);
+		}, executor, 3).run(createDocuments(12)).collect(Collectors.toList());
+
+		assertEquals(12, documents.size(), "wrong document count");
+		for (int index = 0; index < documents.size(); index++) {
+			assertEquals("modified " + index, documents.get(index).get(PromptConstants.CONTENT),
+					"wrong content for document " + index);
+		}
+		assertTrue(maxConcurrentCalls.get() <= 3, "too many concurrent calls: " + maxConcurrentCalls.get());
+	}
+
+	@Test
+	void testRunTimeout() {
+		final ModifyDocumentsContentChain chain = new ModifyDocumentsContentChain(document -> {
+			sleep(1000);
+			return "";
+		}, executor, 2, Duration.ofMillis(50));
+
+		assertThrows(IllegalStateException.class, () -> chain.run(createDocuments(2)).collect(Collectors.toList()),
+				"no timeout");
+	}
+
+	@Test
+	void testRunTimeoutInterrupts() throws InterruptedException {
+		final CountDownLatch interruptedCalls = new CountDownLatch(2);
+		final ModifyDocumentsContentChain chain = new ModifyDocumentsContentChain(document -> {
+			try {
+				Thread.sleep(10000);
+			} catch (final InterruptedException interruptedException) {
+				interruptedCalls.countDown();
+			}
+			return "";
+		}, executor, 2, Duration.ofMillis(50));
+
+		assertThrows(IllegalStateException.class, () -> chain.run(createDocuments(4)).collect(Collectors.toList()),
+				"no timeout");
+		// the timed out document and the following document in flight are cancelled
+		assertTrue(interruptedCalls.await(5, TimeUnit.SECONDS), "outstanding documents were not interrupted");
+	}
+
+	@Test
+	void testCloseInterrupts() throws InterruptedException {
+		final CountDownLatch startedCalls = new CountDownLatch(2);
+		final CountDownLatch interruptedCalls = new CountDownLatch(2);
+		final ModifyDocumentsContentChain chain = new ModifyDocumentsContentChain(document -> {
+			if ("0".equals(document.get(PromptConstants.CONTENT))) {
+				return "modified 0";
+			}
+			startedCalls.countDown();
+			try {
+				Thread.sleep(10000);
+			} catch (final InterruptedException interruptedException) {
+				interruptedCalls.countDown();
+			}
+			return "";
+		}, executor, 3);
+
+		try (final Stream<Map<String, String>> documents = chain.run(createDocuments(3))) {
+			assertEquals("modified 0", documents.iterator().next().get(PromptConstants.CONTENT), "wrong content");
+			assertTrue(startedCalls.await(5, TimeUnit.SECONDS), "documents were not processed concurrently");
+		}
+		assertTrue(interruptedCalls.await(5, TimeUnit.SECONDS), "documents in flight were not interrupted");
+	}
+}
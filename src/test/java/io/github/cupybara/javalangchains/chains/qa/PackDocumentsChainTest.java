@@ -0,0 +1,76 @@
+package io.github.cupybara.javalangchains.chains.qa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+
+import io.github.cupybara.javalangchains.util.PromptConstants;
+import io.github.cupybara.javalangchains.util.PromptTemplate;
+
+/**
+ * Unit tests for the {@link PackDocumentsChain}
+ */
+class PackDocumentsChainTest {
+
+	private static final PromptTemplate TEMPLATE = PromptTemplate.compile("${content}");
+
+	@Test
+	void testRun() {
+		final List<Map<String, String>> packs = new PackDocumentsChain(TEMPLATE, 10, String::length)
+				.run(createDocuments("aaaa", "bbbb", "cccc", "dddddddd", "ee")).collect(Collectors.toList());
+
+		// the packs retain the score order, so "ee" is not put in front of "dddddddd"
+		assertEquals(4, packs.size(), "wrong count of packs");
+		assertEquals("aaaa\n\nbbbb", packs.get(0).get(PromptConstants.CONTENT), "wrong content of pack 1");
+		assertEquals("cccc", packs.get(1).get(PromptConstants.CONTENT), "wrong content of pack 2");
+		assertEquals("dddddddd", packs.get(2).get(PromptConstants.CONTENT), "wrong content of pack 3");
+		assertEquals("ee", packs.get(3).get(PromptConstants.CONTENT), "wrong content of pack 4");
+		packs.forEach(pack -> assertEquals("What?", pack.get(PromptConstants.QUESTION), "wrong question"));
+	}
+
+	@Test
+	void testRunWithEncoding() {
+		final Encoding encoding = Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+
+		final List<Map<String, String>> packs = new PackDocumentsChain(TEMPLATE, encoding, 14)
+				.run(createDocuments("This is the first document.", "This is the second document.",
+						"This is the third document."))
+				.collect(Collectors.toList());
+
+		assertEquals(2, packs.size(), "wrong count of packs");
+		packs.forEach(pack -> assertTrue(encoding.countTokens(pack.get(PromptConstants.CONTENT)) <= 14,
+				"pack exceeds the token budget"));
+	}
+
+	@Test
+	void testRunWithTooLongDocument() {
+		final List<Map<String, String>> packs = new PackDocumentsChain(TEMPLATE, 10, String::length)
+				.run(createDocuments("aaaa", "this one is too long", "bb")).collect(Collectors.toList());
+
+		assertEquals(3, packs.size(), "wrong count of packs");
+		assertEquals("aaaa", packs.get(0).get(PromptConstants.CONTENT), "wrong content of pack 1");
+		assertEquals("this one is too long", packs.get(1).get(PromptConstants.CONTENT),
+				"too long document not packed alone");
+		assertEquals("bb", packs.get(2).get(PromptConstants.CONTENT), "wrong content of pack 3");
+	}
+
+	private static Stream<Map<String, String>> createDocuments(final String... contents) {
+		return Stream.of(contents).map(content -> {
+			final Map<String, String> document = new HashMap<>();
+			document.put(PromptConstants.QUESTION, "What?");
+			document.put(PromptConstants.CONTENT, content);
+			return document;
+		});
+	}
+}
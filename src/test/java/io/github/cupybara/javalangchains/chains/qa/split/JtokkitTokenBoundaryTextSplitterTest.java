@@ -0,0 +1,69 @@
+package io.github.cupybara.javalangchains.chains.qa.split;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+
+/**
+ * Unit tests for the {@link JtokkitTokenBoundaryTextSplitter}
+ */
+class JtokkitTokenBoundaryTextSplitterTest {
+
+	private static final Encoding ENCODING = Encodings.newDefaultEncodingRegistry()
+			.getEncoding(EncodingType.CL100K_BASE);
+
+	@Test
+	void testSplitAtSentenceBoundaries() {
+		final String text = IntStream.range(0, 100).mapToObj(i -> "This is sentence number " + i + ".")
+				.collect(Collectors.joining(" "));
+
+		final List<String> split = new JtokkitTokenBoundaryTextSplitter(ENCODING, 50).split(text);
+
+		assertTrue(split.size() > 1, "text was not split");
+		assertEquals(text, String.join("", split), "split lost text");
+		for (int i = 0; i < split.size(); i++) {
+			final String chunk = split.get(i);
+			assertTrue(ENCODING.countTokens(chunk) <= 50, "chunk exceeds max tokens");
+			if (i < split.size() - 1) {
+				assertTrue(chunk.endsWith("."), "chunk was not cut at a sentence boundary: " + chunk);
+			}
+		}
+	}
+
+	@Test
+	void testSplitWithoutSentenceBoundaries() {
+		final String text = IntStream.range(0, 200).mapToObj(i -> "word" + i).collect(Collectors.joining(" "));
+
+		final List<String> split = new JtokkitTokenBoundaryTextSplitter(ENCODING, 30).split(text);
+
+		assertEquals(text, String.join("", split), "split lost text");
+		split.subList(0, split.size() - 1).forEach(chunk -> assertEquals(30, ENCODING.countTokens(chunk),
+				"chunk was not cut at the exact token index"));
+	}
+
+	@Test
+	void testSplitPartitionsWithMultiByteCharacters() {
+		final String text = IntStream.range(0, 50).mapToObj(i -> "Grüße aus Köln 🎉 Nummer " + i + ".")
+				.collect(Collectors.joining(" "));
+
+		final List<TextPartition> partitions = new JtokkitTokenBoundaryTextSplitter(ENCODING, 20)
+				.splitPartitions(text);
+
+		assertEquals(0, partitions.get(0).getStart(), "wrong start of the first partition");
+		assertEquals(text.length(), partitions.get(partitions.size() - 1).getEnd(), "wrong end of the last partition");
+		for (int i = 1; i < partitions.size(); i++) {
+			assertEquals(partitions.get(i - 1).getEnd(), partitions.get(i).getStart(), "partitions are not contiguous");
+		}
+		assertEquals(text, partitions.stream().map(TextPartition::toString).collect(Collectors.joining()),
+				"split lost text");
+	}
+}
@@ -0,0 +1,127 @@
+package io.github.cupybara.javalangchains.chains.qa.split;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+
+/**
+ * Unit tests for the {@link MaxLengthBasedTextSplitter}
+ */
+class MaxLengthBasedTextSplitterTest {
+
+	@Test
+	void testSplit() {
+		final CharacterCountingTextSplitter splitter = new CharacterCountingTextSplitter(20);
+
+		final List<String> split = splitter.split("One sentence. Another one. A third one. End.");
+
+		assertEquals(Arrays.asList("One sentence. ", "Another one. ", "A third one. End."), split, "wrong split");
+	}
+
+	@Test
+	void testSplitMeasuresEachTextPartOnce() {
+		final CharacterCountingTextSplitter splitter = new CharacterCountingTextSplitter(1000);
+		final String text = IntStream.range(0, 500).mapToObj(i -> "This is sentence " + i + ". ")
+				.collect(Collectors.joining());
+
+		final List<String> split = splitter.split(text);
+
+		assertEquals(text, String.join("", split), "split lost text");
+		assertEquals(500, splitter.measuredTextParts.get(), "each sentence should be measured exactly once");
+	}
+
+	@Test
+	void testSplitWithOverlap() {
+		final String text = "One. Two. Three. Four.";
+
+		assertEquals(Arrays.asList("One. Two. ", "Two. Three. ", "Three. Four."),
+				new CharacterCountingTextSplitter(12, ChunkOverlap.ofTextParts(1)).split(text),
+				"wrong split with one overlapping text part");
+		assertEquals(Arrays.asList("One. Two. ", "Two. Three. ", "Four."),
+				new CharacterCountingTextSplitter(12, ChunkOverlap.ofLength(5)).split(text),
+				"wrong split with overlap length 5");
+		assertEquals(Arrays.asList("One. Two. ", "Three. Four."),
+				new CharacterCountingTextSplitter(12, ChunkOverlap.ofLength(4)).split(text),
+				"wrong split with overlap length 4");
+	}
+
+	@Test
+	void testSplitPartitions() {
+		final String text = "One. Two. Three. Four.";
+		final List<TextPartition> partitions = new CharacterCountingTextSplitter(12, ChunkOverlap.ofTextParts(1))
+				.splitPartitions(text);
+
+		assertEquals(3, partitions.size(), "wrong partition count");
+		assertEquals(5, partitions.get(1).getStart(), "wrong start of the second partition");
+		assertEquals(17, partitions.get(1).getEnd(), "wrong end of the second partition");
+		assertEquals("Two. Three. ", partitions.get(1).toString(), "wrong second partition");
+	}
+
+	@Test
+	void testStreamIsLazy() {
+		final CharacterCountingTextSplitter splitter = new CharacterCountingTextSplitter(100);
+		final String text = IntStream.range(0, 10_000).mapToObj(i -> "This is sentence " + i + ". ")
+				.collect(Collectors.joining());
+
+		final List<String> firstChunks = splitter.stream(text).limit(2).collect(Collectors.toList());
+
+		assertEquals(2, firstChunks.size(), "wrong chunk count");
+		assertTrue(text.startsWith(String.join("", firstChunks)), "wrong chunks");
+		assertTrue(splitter.measuredTextParts.get() < 20, "text parts after the requested chunks were measured");
+	}
+
+	@Test
+	void testSplitTooLongTextPart() {
+		final CharacterCountingTextSplitter splitter = new CharacterCountingTextSplitter(10);
+		assertThrows(IllegalStateException.class, () -> splitter.split("Short. This sentence is too long."),
+				"too long sentence not detected");
+	}
+
+	@Test
+	void testSplitWithBoundaryCorrection() {
+		final Encoding encoding = Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+		final String text = IntStream.range(0, 200).mapToObj(i -> "Sentence number " + i + " is here. ")
+				.collect(Collectors.joining());
+
+		final List<String> split = new JtokkitTextSplitter(encoding, 50).split(text);
+
+		assertEquals(text, String.join("", split), "split lost text");
+		split.forEach(chunk -> assertTrue(encoding.countTokens(chunk) <= 50, "chunk exceeds max tokens"));
+	}
+
+	private static final class CharacterCountingTextSplitter extends MaxLengthBasedTextSplitter {
+
+		private final AtomicInteger measuredTextParts = new AtomicInteger();
+
+		private CharacterCountingTextSplitter(final int maxLength) {
+			super(maxLength);
+		}
+
+		private CharacterCountingTextSplitter(final int maxLength, final ChunkOverlap overlap) {
+			super(maxLength, new TextStreamer(), false, overlap);
+		}
+
+		@Override
+		protected int getLength(final String textPart) {
+			return getLength((CharSequence) textPart);
+		}
+
+		@Override
+		protected int getLength(final CharSequence textPart) {
+			measuredTextParts.incrementAndGet();
+			return textPart.length();
+		}
+	}
+}
@@ -2,12 +2,24 @@ package io.github.cupybara.javalangchains.chains.qa.split;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -82,4 +94,136 @@ class SplitDocumentsChainTest {
 				"wrong content for thirdDocument");
 		assertEquals("book of jane", thirdDocument.get(PromptConstants.SOURCE), "wrong source for thirdDocument");
 	}
+
+	/**
+	 * tests the {@link SplitDocumentsChain} with overlapping chunks and chunk
+	 * metadata
+	 */
+	@Test
+	void testSplitDocumentsWithOverlap() {
+		final TextSplitter tiktokenTextSplitter = new JtokkitTextSplitter(
+				Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.CL100K_BASE), 13,
+				ChunkOverlap.ofTextParts(1));
+
+		final Map<String, String> document = new LinkedHashMap<>();
+		document.put(PromptConstants.SOURCE, "book of john");
+		document.put(PromptConstants.CONTENT, "This is a text. This is a second text. This is a third text.");
+
+		final List<Map<String, String>> splitDocuments = new SplitDocumentsChain(tiktokenTextSplitter, true)
+				.run(Stream.of(document)).collect(Collectors.toList());
+
+		assertEquals(2, splitDocuments.size(), "wrong result size");
+
+		final Map<String, String> firstDocument = splitDocuments.get(0);
+		assertEquals("This is a text. This is a second text. ", firstDocument.get(PromptConstants.CONTENT),
+				"wrong first chunk");
+		assertEquals("0", firstDocument.get(PromptConstants.CHUNK_INDEX), "wrong index of the first chunk");
+		assertEquals("0", firstDocument.get(PromptConstants.CHUNK_START), "wrong start of the first chunk");
+		assertEquals("39", firstDocument.get(PromptConstants.CHUNK_END), "wrong end of the first chunk");
+
+		final Map<String, String> secondDocument = splitDocuments.get(1);
+		assertEquals("This is a second text. This is a third text.", secondDocument.get(PromptConstants.CONTENT),
+				"wrong second chunk");
+		assertEquals("1", secondDocument.get(PromptConstants.CHUNK_INDEX), "wrong index of the second chunk");
+		assertEquals("16", secondDocument.get(PromptConstants.CHUNK_START), "wrong start of the second chunk");
+		assertEquals("60", secondDocument.get(PromptConstants.CHUNK_END), "wrong end of the second chunk");
+		assertEquals("book of john", secondDocument.get(PromptConstants.SOURCE), "wrong source");
+	}
+
+	/**
+	 * tests the parallel mode of the {@link SplitDocumentsChain}
+	 */
+	@Test
+	void testSplitDocumentsInParallel() throws InterruptedException {
+		final TextSplitter tiktokenTextSplitter = new JtokkitTextSplitter(
+				Encodings.newDefaultEncodingRegistry().getEncoding(EncodingType.CL100K_BASE), 50);
+
+		final String content = IntStream.range(0, 40)
+				.mapToObj(paragraph -> IntStream.range(0, 10)
+						.mapToObj(sentence -> "This is sentence " + sentence + " of paragraph " + paragraph + ".")
+						.collect(Collectors.joining(" ")))
+				.collect(Collectors.joining("\n\n"));
+
+		final Map<String, String> document = new LinkedHashMap<>();
+		document.put(PromptConstants.SOURCE, "manual");
+		document.put(PromptConstants.CONTENT, content);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Map<String, String>> splitDocuments = new SplitDocumentsChain(tiktokenTextSplitter, true,
+					executor, 2000).run(Stream.of(document)).collect(Collectors.toList());
+
+			assertTrue(splitDocuments.size() > 1, "document was not split");
+			assertEquals(content,
+					splitDocuments.stream().map(splitDocument -> splitDocument.get(PromptConstants.CONTENT))
+							.collect(Collectors.joining()),
+					"chunks do not add up to the content");
+
+			for (int i = 0; i < splitDocuments.size(); i++) {
+				final Map<String, String> splitDocument = splitDocuments.get(i);
+				assertEquals(String.valueOf(i), splitDocument.get(PromptConstants.CHUNK_INDEX), "wrong chunk index");
+				assertEquals(splitDocument.get(PromptConstants.CONTENT),
+						content.substring(Integer.parseInt(splitDocument.get(PromptConstants.CHUNK_START)),
+								Integer.parseInt(splitDocument.get(PromptConstants.CHUNK_END))),
+						"wrong chunk offsets");
+			}
+		} finally {
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS), "executor not terminated");
+		}
+	}
+
+	@Test
+	void testSplitDocumentsInParallelBounded() {
+		// the first segment is split immediately, the others are queued but never run
+		final List<Runnable> queuedSegments = new ArrayList<>();
+		final AtomicInteger submittedSegments = new AtomicInteger();
+		final Executor executor = segment -> {
+			if (submittedSegments.getAndIncrement() == 0) {
+				segment.run();
+			} else {
+				queuedSegments.add(segment);
+			}
+		};
+
+		final Map<String, String> document = new LinkedHashMap<>();
+		document.put(PromptConstants.CONTENT,
+				IntStream.range(0, 10).mapToObj(paragraph -> "Paragraph " + paragraph + ".")
+						.collect(Collectors.joining("\n\n")));
+
+		final Stream<Map<String, String>> splitDocuments = new SplitDocumentsChain(Collections::singletonList, false,
+				executor, 10, 2).run(Stream.of(document));
+		assertEquals("Paragraph 0.\n\n", splitDocuments.iterator().next().get(PromptConstants.CONTENT),
+				"wrong first chunk");
+		assertEquals(3, submittedSegments.get(), "more segments than the window were submitted");
+
+		splitDocuments.close();
+		assertEquals(2, queuedSegments.size(), "wrong count of queued segments");
+		queuedSegments.forEach(segment -> assertTrue(((Future<?>) segment).isCancelled(), "segment not cancelled"));
+	}
+
+	@Test
+	void testSplitDocumentsLazily() {
+		final AtomicInteger createdChunks = new AtomicInteger();
+		final TextSplitter countingTextSplitter = new TextSplitter() {
+
+			@Override
+			public List<String> split(final String text) {
+				return stream(text).collect(Collectors.toList());
+			}
+
+			@Override
+			public Stream<String> stream(final String text) {
+				return Stream.of(text.split(" ")).peek(chunk -> createdChunks.incrementAndGet());
+			}
+		};
+
+		final Map<String, String> document = new LinkedHashMap<>();
+		document.put(PromptConstants.CONTENT, "one two three four five");
+
+		final Iterator<Map<String, String>> splitDocuments = new SplitDocumentsChain(countingTextSplitter)
+				.run(Stream.of(document)).iterator();
+		assertEquals("one", splitDocuments.next().get(PromptConstants.CONTENT), "wrong first chunk");
+		assertEquals(1, createdChunks.get(), "chunks were created before they were consumed");
+	}
 }
@@ -0,0 +1,26 @@
+package io.github.cupybara.javalangchains.chains.qa.split;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the default methods of the {@link TextSplitter}
+ */
+class TextSplitterTest {
+
+	@Test
+	void testSplitPartitionsWithIdenticalChunks() {
+		final TextSplitter splitter = text -> Arrays.asList("ab. ", "ab. ");
+
+		final List<TextPartition> partitions = splitter.splitPartitions("ab. ab. ");
+
+		assertEquals(2, partitions.size(), "wrong partition count");
+		assertEquals(0, partitions.get(0).getStart(), "wrong start of the first partition");
+		assertEquals(4, partitions.get(1).getStart(), "wrong start of the second partition");
+		assertEquals(8, partitions.get(1).getEnd(), "wrong end of the second partition");
+	}
+}
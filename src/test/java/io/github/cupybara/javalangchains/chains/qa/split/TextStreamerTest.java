@@ -27,4 +27,21 @@ class TextStreamerTest {
 		assertEquals("Hi there. ", split.get(0), "first sentence is wrong");
 		assertEquals("This is an example text\nused for unit testing.", split.get(1), "second sentence is wrong");
 	}
+
+	/**
+	 * Tests streaming views on a {@link CharSequence} which is not a {@link String}
+	 */
+	@Test
+	void testStreamPartitions() {
+		final List<TextPartition> split = new TextStreamer().streamPartitions(new StringBuilder(TEXT_TO_SPLIT))
+				.collect(Collectors.toList());
+		assertNotNull(split, "got null result");
+		assertEquals(2, split.size(), "wrong result count (2 sentences)");
+		assertEquals(0, split.get(0).getStart(), "wrong start of the first sentence");
+		assertEquals(10, split.get(0).getEnd(), "wrong end of the first sentence");
+		assertEquals("Hi there. ", split.get(0).toString(), "first sentence is wrong");
+		assertEquals("This is an example text\nused for unit testing.", split.get(1).toString(),
+				"second sentence is wrong");
+		assertEquals("example", split.get(1).subSequence(11, 18).toString(), "wrong sub sequence");
+	}
 }
@@ -0,0 +1,60 @@
+package io.github.cupybara.javalangchains.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.text.StringSubstitutor;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link PromptTemplate}
+ */
+class PromptTemplateTest {
+
+	@Test
+	void testRender() {
+		final PromptTemplate template = PromptTemplate.compile("Hello ${name}, this is ${name} from ${city}!");
+
+		final Map<String, String> input = new HashMap<>();
+		input.put("name", "Manuel");
+		input.put("city", "Vienna");
+
+		assertEquals("Hello Manuel, this is Manuel from Vienna!", template.render(input), "wrong output");
+		assertEquals(template.render(input).length(), template.getRenderedLength(input), "wrong rendered length");
+	}
+
+	@Test
+	void testRenderSpecialSyntax() {
+		final PromptTemplate template = PromptTemplate
+				.compile("${unknown} ${city:-Vienna} $${escaped} ${unclosed");
+
+		assertEquals("${unknown} Vienna ${escaped} ${unclosed", template.render(Collections.emptyMap()),
+				"wrong output");
+	}
+
+	@Test
+	void testRenderPromptTemplates() {
+		final Map<String, String> input = new HashMap<>();
+		input.put(PromptConstants.CONTENT, "Some content");
+		input.put(PromptConstants.SOURCE, "source.pdf");
+		input.put(PromptConstants.QUESTION, "What?");
+
+		for (final String template : new String[] { PromptTemplates.QA_DOCUMENT, PromptTemplates.QA_SUMMARIZE,
+				PromptTemplates.QA_COMBINE }) {
+			assertEquals(new StringSubstitutor(input).replace(template), PromptTemplate.compile(template).render(input),
+					"output differs from StringSubstitutor");
+		}
+	}
+
+	@Test
+	void testRenderIntoBuilder() {
+		final PromptTemplate template = PromptTemplate.compile("[${content}]");
+		final StringBuilder output = new StringBuilder();
+		template.render(Collections.singletonMap("content", "a"), output);
+		template.render(Collections.singletonMap("content", "b"), output);
+		assertEquals("[a][b]", output.toString(), "wrong output");
+	}
+}